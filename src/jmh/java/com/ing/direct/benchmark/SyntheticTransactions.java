@@ -0,0 +1,71 @@
+package com.ing.direct.benchmark;
+
+import com.ing.direct.transaction.model.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generator of synthetic transactions shaped like the {@code data.txt} bootstrap file: small expenditures, about
+ * one deposit out of ten, dates spread over a month at any time of day and upper case lorem ipsum descriptions.
+ * Generation is seeded so that every benchmark run works on the same data.
+ */
+public final class SyntheticTransactions {
+
+    private static final long SEED = 42;
+    private static final String[] WORDS = {
+            "LOREM", "IPSUM", "DOLOR", "SIT", "AMET", "NUNC", "CURSUS", "FAUCIBUS", "INTERDUM", "AUGUE", "MAGNA",
+            "NON", "SEM", "MAURIS", "NISL", "ULLAMCORPER", "SED", "ELIT", "PULVINAR", "QUISQUE", "BLANDIT"
+    };
+
+    private SyntheticTransactions() {
+    }
+
+    /**
+     * Generates the transactions of a customer during May 2016, in random date order.
+     *
+     * @param customerId Customer identifier
+     * @param count      Number of transactions
+     * @return List of transactions
+     */
+    public static List<Transaction> generate(String customerId, int count) {
+
+        Random random = new Random(SEED);
+        LocalDateTime monthStart = LocalDateTime.of(2016, 5, 1, 0, 0, 0);
+        List<Transaction> transactions = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            LocalDateTime date = monthStart.plusSeconds(random.nextInt(31 * 24 * 60 * 60));
+
+            transactions.add(Transaction
+                    .builder()
+                    .id(String.valueOf(i + 1))
+                    .customer(customerId)
+                    .date(Date.from(date.atZone(ZoneId.systemDefault()).toInstant()))
+                    .amount(amount(random))
+                    .description(description(random))
+                    .build());
+        }
+
+        return transactions;
+    }
+
+    private static BigDecimal amount(Random random) {
+        return random.nextInt(10) == 0
+                ? BigDecimal.valueOf(10_000 + random.nextInt(290_000), 2)
+                : BigDecimal.valueOf(-(50 + random.nextInt(4_950)), 2);
+    }
+
+    private static String description(Random random) {
+        StringBuilder description = new StringBuilder(WORDS[random.nextInt(WORDS.length)]);
+        for (int words = random.nextInt(4); words > 0; words--) {
+            description.append(' ').append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return description.toString();
+    }
+}
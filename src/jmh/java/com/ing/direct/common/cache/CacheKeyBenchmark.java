@@ -0,0 +1,99 @@
+package com.ing.direct.common.cache;
+
+import com.ing.direct.transaction.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.lang.reflect.Method;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.ing.direct.common.utils.ClassUtils.toDate;
+
+/**
+ * Benchmark comparing the {@link TransactionCacheKeyGenerator} keys with the former string keys (class name, method
+ * name and the {@code toString()} of every argument) on the cached read calls: key creation alone and key creation
+ * followed by a cache lookup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CacheKeyBenchmark {
+
+    private static final KeyGenerator STRING_KEY_GENERATOR = (o, method, objects) -> {
+        StringBuilder sb = new StringBuilder();
+        sb.append(o.getClass().getName());
+        sb.append(method.getName());
+        for (Object obj : objects) {
+            sb.append(obj.toString());
+        }
+        return sb.toString();
+    };
+
+    private final KeyGenerator transactionKeyGenerator = new TransactionCacheKeyGenerator();
+    private final Object target = new Object();
+    private final Map<Object, Object> stringKeyCache = new HashMap<>();
+    private final Map<Object, Object> transactionKeyCache = new HashMap<>();
+
+    private Method findByCustomerIdAndDate;
+    private Method findAllPageable;
+    private Object[] dateRangeParams;
+    private Object[] pageableParams;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        findByCustomerIdAndDate = TransactionService.class
+                .getMethod("findByCustomerIdAndDate", String.class, Date.class, Date.class);
+        findAllPageable = TransactionService.class.getMethod("findAll", Pageable.class);
+
+        dateRangeParams = new Object[]{"13", toDate("1/05/2016 12:00:00 AM"), toDate("1/06/2016 12:00:00 AM")};
+        pageableParams = new Object[]{new PageRequest(3, 50, new Sort(Sort.Direction.DESC, "date", "customer"))};
+
+        for (int customer = 0; customer < 1000; customer++) {
+            Object[] params = {String.valueOf(customer), dateRangeParams[1], dateRangeParams[2]};
+            stringKeyCache.put(STRING_KEY_GENERATOR.generate(target, findByCustomerIdAndDate, params), params);
+            transactionKeyCache.put(transactionKeyGenerator.generate(target, findByCustomerIdAndDate, params), params);
+        }
+    }
+
+    @Benchmark
+    public Object stringKeyDateRange() {
+        return STRING_KEY_GENERATOR.generate(target, findByCustomerIdAndDate, dateRangeParams);
+    }
+
+    @Benchmark
+    public Object transactionKeyDateRange() {
+        return transactionKeyGenerator.generate(target, findByCustomerIdAndDate, dateRangeParams);
+    }
+
+    @Benchmark
+    public Object stringKeyPageable() {
+        return STRING_KEY_GENERATOR.generate(target, findAllPageable, pageableParams);
+    }
+
+    @Benchmark
+    public Object transactionKeyPageable() {
+        return transactionKeyGenerator.generate(target, findAllPageable, pageableParams);
+    }
+
+    @Benchmark
+    public Object stringKeyLookup() {
+        return stringKeyCache.get(STRING_KEY_GENERATOR.generate(target, findByCustomerIdAndDate, dateRangeParams));
+    }
+
+    @Benchmark
+    public Object transactionKeyLookup() {
+        return transactionKeyCache.get(transactionKeyGenerator.generate(target, findByCustomerIdAndDate, dateRangeParams));
+    }
+}
@@ -0,0 +1,91 @@
+package com.ing.direct.common.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.servlet.http.HttpServletRequest;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the XSS sanitization run on every request parameter and header: typical clean values (customer
+ * identifier, month, accept header) and a value holding a script fragment, sanitized either by the former
+ * canonicalize-then-ten-patterns pass or by {@link XssSanitizer#sanitize(String)}. The request benchmarks read the
+ * headers and parameters of a typical request through a {@link XssRequestWrapper}, the former one sanitizing every
+ * read.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class XssBenchmark {
+
+    @Param({
+            "13",
+            "05",
+            "application/json, text/plain, */*",
+            "<script>alert('xss')</script>13"
+    })
+    private String value;
+
+    private HttpServletRequest request;
+
+    @Setup
+    public void setUp() {
+        Map<String, String> values = new HashMap<>();
+        values.put("Accept", "application/json, text/plain, */*");
+        values.put("Accept-Encoding", "gzip, deflate");
+        values.put("Host", "localhost:8080");
+        values.put("customerId", value);
+
+        request = (HttpServletRequest) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{HttpServletRequest.class},
+                (proxy, method, args) -> values.get((String) args[0]));
+    }
+
+    @Benchmark
+    public String legacy() {
+        return legacyStripXSS(value);
+    }
+
+    @Benchmark
+    public String sanitize() {
+        return XssSanitizer.sanitize(value);
+    }
+
+    @Benchmark
+    public void legacyRequest(Blackhole blackhole) {
+        for (int i = 0; i < 3; i++) {
+            blackhole.consume(legacyStripXSS(request.getHeader("Accept")));
+        }
+        blackhole.consume(legacyStripXSS(request.getHeader("Accept-Encoding")));
+        blackhole.consume(legacyStripXSS(request.getHeader("Host")));
+        blackhole.consume(legacyStripXSS(request.getParameter("customerId")));
+    }
+
+    @Benchmark
+    public void request(Blackhole blackhole) {
+        XssRequestWrapper wrapper = new XssRequestWrapper(request);
+        for (int i = 0; i < 3; i++) {
+            blackhole.consume(wrapper.getHeader("Accept"));
+        }
+        blackhole.consume(wrapper.getHeader("Accept-Encoding"));
+        blackhole.consume(wrapper.getHeader("Host"));
+        blackhole.consume(wrapper.getParameter("customerId"));
+    }
+
+    /**
+     * Former sanitization, including its no-op {@code replaceAll("", "")}.
+     */
+    private static String legacyStripXSS(String value) {
+        return XssSanitizer.sanitizeFully(value.replaceAll("", ""));
+    }
+}
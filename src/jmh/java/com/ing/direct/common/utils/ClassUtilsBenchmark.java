@@ -0,0 +1,63 @@
+package com.ing.direct.common.utils;
+
+import com.ing.direct.benchmark.SyntheticTransactions;
+import com.ing.direct.transaction.dto.TransactionDto;
+import com.ing.direct.transaction.model.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the {@link ClassUtils} conversions run for every transaction of a summary: date parsing
+ * ({@link ClassUtils#toDate(String)}), date formatting ({@link ClassUtils#fromDate(Date)}) and the hand-written
+ * DTO conversion ({@link ClassUtils#convertToDto(Transaction)}). Each call works on the next of 1024 synthetic
+ * transactions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ClassUtilsBenchmark {
+
+    private static final int INPUTS = 1024;
+
+    private List<Transaction> transactions;
+    private String[] dates;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        transactions = SyntheticTransactions.generate("1", INPUTS);
+        dates = new String[INPUTS];
+        for (int i = 0; i < INPUTS; i++) {
+            dates[i] = ClassUtils.fromDate(transactions.get(i).getDate());
+        }
+    }
+
+    private int nextIndex() {
+        next = (next + 1) & (INPUTS - 1);
+        return next;
+    }
+
+    @Benchmark
+    public Date toDate() {
+        return ClassUtils.toDate(dates[nextIndex()]);
+    }
+
+    @Benchmark
+    public String fromDate() {
+        return ClassUtils.fromDate(transactions.get(nextIndex()).getDate());
+    }
+
+    @Benchmark
+    public TransactionDto convertToDto() {
+        return ClassUtils.convertToDto(transactions.get(nextIndex()));
+    }
+}
@@ -0,0 +1,73 @@
+package com.ing.direct.transaction.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ing.direct.benchmark.SyntheticTransactions;
+import com.ing.direct.transaction.model.Transaction;
+import com.ing.direct.transaction.service.ClassificationEnum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.ing.direct.common.utils.ClassUtils.convertToDto;
+
+/**
+ * Benchmark comparing the {@link TransactionSummarySerializer} output of a summary with the former path: converting
+ * every transaction into a {@link TransactionDto} then serializing them by reflection.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TransactionSummaryBenchmark {
+
+    @Param({"10", "1000"})
+    private int transactions;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private TransactionSummary summary;
+
+    @Setup
+    public void setUp() {
+        summary = TransactionSummary
+                .builder()
+                .customerId("1")
+                .month("5")
+                .currentBalance(1234.56)
+                .classification(Collections.singletonList(ClassificationEnum.MORNING_PERSON))
+                .transactions(SyntheticTransactions.generate("1", transactions))
+                .build();
+    }
+
+    @Benchmark
+    public byte[] serializer() throws IOException {
+        return objectMapper.writeValueAsBytes(summary);
+    }
+
+    @Benchmark
+    public byte[] dtoConversion() throws IOException {
+        Map<String, Object> dtoSummary = new LinkedHashMap<>();
+        dtoSummary.put("customerId", summary.getCustomerId());
+        dtoSummary.put("month", summary.getMonth());
+        dtoSummary.put("currentBalance", summary.getCurrentBalance());
+        dtoSummary.put("classification", summary.getClassification());
+        dtoSummary.put("transactions", toDtos(summary.getTransactions()));
+        return objectMapper.writeValueAsBytes(dtoSummary);
+    }
+
+    private List<TransactionDto> toDtos(List<Transaction> transactions) {
+        return transactions.stream().map(transaction -> convertToDto(transaction)).collect(Collectors.toList());
+    }
+}
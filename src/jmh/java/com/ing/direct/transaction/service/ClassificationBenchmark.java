@@ -0,0 +1,73 @@
+package com.ing.direct.transaction.service;
+
+import com.ing.direct.benchmark.SyntheticTransactions;
+import com.ing.direct.transaction.model.Transaction;
+import com.ing.direct.transaction.model.TransactionBatch;
+import com.ing.direct.transaction.service.rule.AfternoonPersonRule;
+import com.ing.direct.transaction.service.rule.BigSpenderRule;
+import com.ing.direct.transaction.service.rule.BigTicketSpenderRule;
+import com.ing.direct.transaction.service.rule.ClassificationRuleRegistry;
+import com.ing.direct.transaction.service.rule.FastSpenderRule;
+import com.ing.direct.transaction.service.rule.MorningPersonRule;
+import com.ing.direct.transaction.service.rule.PotentialLoanRule;
+import com.ing.direct.transaction.service.rule.PotentialSaverRule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of {@link ClassificationServiceImpl#classifyCustomer} on the transactions of a synthetic customer month:
+ * from the list of transactions (columnar batch built on every call), from a prebuilt {@link TransactionBatch}, and
+ * the batch building alone.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ClassificationBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int transactions;
+
+    private ClassificationService classificationService;
+    private List<Transaction> monthlyTransactions;
+    private TransactionBatch monthlyBatch;
+
+    @Setup
+    public void setUp() {
+        classificationService = new ClassificationServiceImpl(new ClassificationRuleRegistry(Arrays.asList(
+                new PotentialLoanRule(),
+                new AfternoonPersonRule(),
+                new BigSpenderRule(),
+                new BigTicketSpenderRule(),
+                new FastSpenderRule(),
+                new MorningPersonRule(),
+                new PotentialSaverRule())));
+
+        monthlyTransactions = SyntheticTransactions.generate("1", transactions);
+        monthlyBatch = TransactionBatch.of(monthlyTransactions);
+    }
+
+    @Benchmark
+    public List<ClassificationEnum> classifyTransactions() {
+        return classificationService.classifyCustomer(monthlyTransactions);
+    }
+
+    @Benchmark
+    public List<ClassificationEnum> classifyBatch() {
+        return classificationService.classifyCustomer(monthlyBatch);
+    }
+
+    @Benchmark
+    public TransactionBatch buildBatch() {
+        return TransactionBatch.of(monthlyTransactions);
+    }
+}
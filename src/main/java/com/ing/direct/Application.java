@@ -1,33 +1,28 @@
 package com.ing.direct;
 
-import com.google.common.primitives.Ints;
-import com.ing.direct.transaction.model.Transaction;
-import com.ing.direct.transaction.repository.TransactionRepository;
-import org.apache.commons.lang.ArrayUtils;
+import com.ing.direct.transaction.importer.ImportProgress;
+import com.ing.direct.transaction.importer.TransactionImporter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cloud.client.circuitbreaker.EnableCircuitBreaker;
 import org.springframework.context.annotation.Bean;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
-import org.springframework.util.ResourceUtils;
-
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.math.BigDecimal;
-import java.net.URISyntaxException;
-import java.util.stream.Collectors;
-
-import static com.ing.direct.common.utils.ClassUtils.toDate;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main Spring Boot Application class. Note that a {@link CommandLineRunner} is created
- * to initialize the Mongo database with a set of transactions.
+ * to initialize the Mongo database with a set of transactions and that scheduling is enabled
+ * to run the maintenance jobs of the {@code com.ing.direct.transaction.job} package. The circuit breaker is enabled
+ * to run the transaction reads as Hystrix commands.
  */
 @EnableMongoRepositories(basePackages = "com.ing.direct.transaction.repository")
 @SpringBootApplication
+@EnableScheduling
+@EnableCircuitBreaker
 public class Application {
     private static final Logger LOG = LoggerFactory.getLogger(Application.class);
 
@@ -36,37 +31,30 @@ public class Application {
     }
 
     /**
-     * Initializes the Mongodb database with a set of transactions from data.txt file.
+     * Initializes the Mongodb database with the set of transactions located at
+     * {@code analytics.import.bootstrap-location} (data.txt file by default).
      *
-     * @param transactionRepository Transaction repository to save the transactions
+     * @param transactionImporter Transaction importer streaming the transactions into the database
+     * @param location            Location of the transactions to import
      * @return CommandLineRunner
      */
     @Bean
-    CommandLineRunner init(TransactionRepository transactionRepository) throws URISyntaxException, IOException {
-
-        LOG.info("start initializing mongodb...");
-
-        try {
-            return (evt) -> transactionRepository.saveOrUpdate(
-
-                    new BufferedReader(
-                            new InputStreamReader(ResourceUtils.getURL("classpath:data.txt").openStream()))
-                            .lines()
-                            .map(s -> s.split(","))
-                            .filter(s -> !ArrayUtils.isEmpty(s) && s.length == 4 && Ints.tryParse(s[0]) != null)
-                            .map(s -> Transaction
-                                    .builder()
-                                    .customer(s[0])
-                                    .date(toDate(s[1]))
-                                    .amount(new BigDecimal(s[2]))
-                                    .description(s[3])
-                                    .build()
-                            )
-                            .collect(Collectors.toList()).toArray(new Transaction[]{})
-            );
-        } finally {
-            LOG.info("end of mongodb initialization...");
-        }
+    CommandLineRunner init(TransactionImporter transactionImporter,
+                           @Value("${analytics.import.bootstrap-location:classpath:data.txt}") String location) {
+
+        return (evt) -> {
+            LOG.info("start initializing mongodb...");
+
+            try {
+                ImportProgress progress = transactionImporter.importTransactions(location);
+
+                LOG.info("loaded transactions [inserted:{}, updated:{}, failed:{}, rejected:{}]",
+                        progress.getInserted(), progress.getUpdated(), progress.getFailed(),
+                        progress.getRowsRejected());
+            } finally {
+                LOG.info("end of mongodb initialization...");
+            }
+        };
     }
 
 }
@@ -0,0 +1,69 @@
+package com.ing.direct.common.cache;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.boot.actuate.endpoint.AbstractEndpoint;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Actuator endpoint publishing the size, weight and hit rate of every Caffeine cache region and
+ * {@link CustomerVersionedCache} (e.g {@code GET /caches}). Weights are expressed in the units of the cache weigher.
+ *
+ * @see CaffeineCacheManager
+ * @see CustomerVersionedCache
+ */
+public class CacheStatisticsEndpoint extends AbstractEndpoint<Map<String, Map<String, Object>>> {
+
+    private final CacheManager cacheManager;
+    private final Collection<CustomerVersionedCache<?>> versionedCaches;
+
+    public CacheStatisticsEndpoint(CacheManager cacheManager, CustomerVersionedCache<?>... versionedCaches) {
+        super("caches");
+        this.cacheManager = cacheManager;
+        this.versionedCaches = Arrays.asList(versionedCaches);
+    }
+
+    @Override
+    public Map<String, Map<String, Object>> invoke() {
+        Map<String, Map<String, Object>> statistics = new TreeMap<>();
+
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+
+            if (cache != null && cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache) {
+                statistics.put(name, getStatistics(
+                        (com.github.benmanes.caffeine.cache.Cache<?, ?>) cache.getNativeCache()));
+            }
+        }
+
+        for (CustomerVersionedCache<?> versionedCache : versionedCaches) {
+            statistics.put(versionedCache.getName(), getStatistics(versionedCache.getNativeCache()));
+        }
+
+        return statistics;
+    }
+
+    private static Map<String, Object> getStatistics(com.github.benmanes.caffeine.cache.Cache<?, ?> cache) {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        CacheStats stats = cache.stats();
+
+        statistics.put("size", cache.estimatedSize());
+        cache.policy().eviction().ifPresent(eviction -> {
+            statistics.put("weight", eviction.weightedSize().orElse(0));
+            statistics.put("maximumWeight", eviction.getMaximum());
+        });
+        statistics.put("hitRate", stats.hitRate());
+        statistics.put("hits", stats.hitCount());
+        statistics.put("misses", stats.missCount());
+        statistics.put("evictions", stats.evictionCount());
+        statistics.put("evictedWeight", stats.evictionWeight());
+
+        return statistics;
+    }
+}
@@ -0,0 +1,57 @@
+package com.ing.direct.common.cache;
+
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+/**
+ * {@link org.springframework.cache.Cache} adapter of a Caffeine cache region, null values being stored as
+ * {@link org.springframework.cache.support.NullValue}.
+ *
+ * @see CaffeineCacheManager
+ */
+public class CaffeineCache extends AbstractValueAdaptingCache {
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Object> cache;
+
+    public CaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+        super(true);
+        this.name = name;
+        this.cache = cache;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public com.github.benmanes.caffeine.cache.Cache<Object, Object> getNativeCache() {
+        return cache;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        return cache.getIfPresent(key);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        cache.put(key, toStoreValue(value));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        Object existingValue = cache.asMap().putIfAbsent(key, toStoreValue(value));
+        return existingValue == null ? null : new SimpleValueWrapper(fromStoreValue(existingValue));
+    }
+
+    @Override
+    public void evict(Object key) {
+        cache.invalidate(key);
+    }
+
+    @Override
+    public void clear() {
+        cache.invalidateAll();
+    }
+}
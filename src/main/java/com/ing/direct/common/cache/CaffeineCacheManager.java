@@ -0,0 +1,66 @@
+package com.ing.direct.common.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Weigher;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CacheManager} creating Caffeine cache regions bounded by weight rather than by number of entries. Each
+ * region holds at most {@code maximumWeight} units as computed by the {@link Weigher} (e.g one unit per cached
+ * transaction), so that a region of large entries cannot use more memory than a region of small ones.
+ * <p>
+ * <p>Caffeine admits new entries with its W-TinyLFU policy: a candidate only evicts an entry which has been used less
+ * frequently, so that one-off entries (e.g pages of a scan) do not flush the frequently used ones. Entries weighing
+ * more than {@code maximumWeight} are evicted straight away. Only the regions created upfront exist, so that the
+ * regions never hold more than their share of the memory budget: unknown regions are reported as missing.</p>
+ *
+ * @see CaffeineCache
+ */
+public class CaffeineCacheManager implements CacheManager {
+    private final ConcurrentMap<String, Cache> caches = new ConcurrentHashMap<>();
+    private final long maximumWeight;
+    private final Weigher<Object, Object> weigher;
+    private final long expireAfterAccessSeconds;
+
+    public CaffeineCacheManager(Collection<String> cacheNames, long maximumWeight, Weigher<Object, Object> weigher,
+                                long expireAfterAccessSeconds) {
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        this.expireAfterAccessSeconds = expireAfterAccessSeconds;
+
+        cacheNames.forEach(name -> caches.computeIfAbsent(name, this::createCache));
+    }
+
+    /**
+     * Returns the cache region of a given name.
+     *
+     * @param name Region name
+     * @return Cache instance, or {@code null} if the region was not created upfront
+     */
+    @Override
+    public Cache getCache(String name) {
+        return caches.get(name);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    private Cache createCache(String name) {
+        return new CaffeineCache(name, Caffeine
+                .newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher(weigher)
+                .expireAfterAccess(expireAfterAccessSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build());
+    }
+}
@@ -0,0 +1,87 @@
+package com.ing.direct.common.cache;
+
+import java.util.Date;
+
+/**
+ * Immutable cache key class scoping a cached method call to a customer, so that every entry of a customer can be
+ * evicted at once from an {@link InstrumentedCache}.
+ * <p>
+ * <p>The key is specialized for the two argument shapes of the customer scoped calls: a customer identifier alone,
+ * or a customer identifier and a date range held as epoch milliseconds. Its hash is computed once on creation.</p>
+ *
+ * @see TransactionCacheKeyGenerator
+ * @see InstrumentedCache#evict(Object)
+ */
+public final class CustomerCacheKey {
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    private final String customerId;
+    private final String method;
+    private final long start;
+    private final long end;
+    private final int hash;
+
+    private CustomerCacheKey(String customerId, String method, long start, long end) {
+        this.customerId = customerId;
+        this.method = method;
+        this.start = start;
+        this.end = end;
+        this.hash = 31 * (31 * (31 * customerId.hashCode() + method.hashCode()) + Long.hashCode(start)) + Long.hashCode(end);
+    }
+
+    /**
+     * Creates a key for a call of {@code method} on behalf of {@code customerId}.
+     *
+     * @param customerId Customer identifier
+     * @param method     Method name
+     * @return CustomerCacheKey instance
+     */
+    public static CustomerCacheKey of(String customerId, String method) {
+        return new CustomerCacheKey(customerId, method, NO_DATE, NO_DATE);
+    }
+
+    /**
+     * Creates a key for a call of {@code method} on behalf of {@code customerId} between {@code start} and
+     * {@code end} dates.
+     *
+     * @param customerId Customer identifier
+     * @param method     Method name
+     * @param start      Start date
+     * @param end        End date
+     * @return CustomerCacheKey instance
+     */
+    public static CustomerCacheKey of(String customerId, String method, Date start, Date end) {
+        return new CustomerCacheKey(customerId, method, start.getTime(), end.getTime());
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CustomerCacheKey)) {
+            return false;
+        }
+        CustomerCacheKey that = (CustomerCacheKey) o;
+        return hash == that.hash
+                && start == that.start
+                && end == that.end
+                && customerId.equals(that.customerId)
+                && method.equals(that.method);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "CustomerCacheKey [customerId:" + customerId + ", method:" + method
+                + (start == NO_DATE ? "" : ", start:" + start + ", end:" + end) + "]";
+    }
+}
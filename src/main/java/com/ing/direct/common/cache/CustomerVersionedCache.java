@@ -0,0 +1,181 @@
+package com.ing.direct.common.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Weigher;
+import com.ing.direct.common.service.CustomerVersionService;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Cache class holding values built from the transactions of a customer, each value being stamped with the
+ * {@link CustomerVersionService} version of its customer at the time it was built.
+ * <p>
+ * <p>Nothing is evicted on write: an entry whose version differs from the current customer version is detected as
+ * stale on its next read and rebuilt. Hits, misses and stale entries are published as actuator metrics
+ * (e.g {@code counter.cache.transactionSummaries.hits}).</p>
+ * <p>
+ * <p>The entries are held by a Caffeine cache bounded by weight like the {@link CaffeineCacheManager} regions, each
+ * value being weighed without its version.</p>
+ *
+ * @param <V> Cached value type
+ * @see CustomerVersionService
+ */
+public class CustomerVersionedCache<V> implements PublicMetrics {
+    private final String name;
+    private final CustomerVersionService customerVersionService;
+    private final Cache<CustomerCacheKey, VersionedValue<V>> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder stale = new LongAdder();
+    private final LongAdder lastKnownServed = new LongAdder();
+
+    /**
+     * Creates a cache.
+     *
+     * @param name                     Cache name
+     * @param customerVersionService   Customer version service
+     * @param maximumWeight            Maximum weight of the cached values, in units of {@code weigher}
+     * @param weigher                  Weigher of the cached values
+     * @param expireAfterAccessSeconds Time after which unused entries expire, in seconds
+     */
+    public CustomerVersionedCache(String name, CustomerVersionService customerVersionService, long maximumWeight,
+                                  Weigher<Object, Object> weigher, long expireAfterAccessSeconds) {
+        this.name = name;
+        this.customerVersionService = customerVersionService;
+        this.entries = Caffeine
+                .newBuilder()
+                .maximumWeight(maximumWeight)
+                .<CustomerCacheKey, VersionedValue<V>>weigher((key, entry) -> weigher.weigh(key, entry.value))
+                .expireAfterAccess(expireAfterAccessSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Cache<CustomerCacheKey, ?> getNativeCache() {
+        return entries;
+    }
+
+    /**
+     * Returns the value cached for {@code customerId} and {@code qualifier} if it is up to date with the customer
+     * version, otherwise builds it with {@code loader} and caches it.
+     *
+     * @param customerId Customer identifier
+     * @param qualifier  Value qualifier within the customer (e.g month)
+     * @param loader     Value loader, exceptions are propagated and nothing is cached
+     * @return Up to date value
+     */
+    public V get(String customerId, String qualifier, Supplier<V> loader) {
+
+        CustomerCacheKey key = CustomerCacheKey.of(customerId, qualifier);
+
+        // read the version first so that a write during the build leaves a stale entry behind
+        long version = customerVersionService.getVersion(customerId);
+        V cached = getIfUpToDate(key, version);
+
+        if (cached != null) {
+            return cached;
+        }
+
+        V value = loader.get();
+        entries.put(key, new VersionedValue<>(version, value));
+        return value;
+    }
+
+    /**
+     * Asynchronous variant of {@link #get(String, String, Supplier)}: returns a completed future if the cached value
+     * is up to date, otherwise the future returned by {@code loader}, whose value is cached on completion.
+     *
+     * @param customerId Customer identifier
+     * @param qualifier  Value qualifier within the customer (e.g month)
+     * @param loader     Value loader, nothing is cached if its future completes exceptionally
+     * @return Future of the up to date value
+     */
+    public CompletableFuture<V> getAsync(String customerId, String qualifier, Supplier<CompletableFuture<V>> loader) {
+
+        CustomerCacheKey key = CustomerCacheKey.of(customerId, qualifier);
+
+        long version = customerVersionService.getVersion(customerId);
+        V cached = getIfUpToDate(key, version);
+
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        return loader.get().thenApply(value -> {
+            entries.put(key, new VersionedValue<>(version, value));
+            return value;
+        });
+    }
+
+    /**
+     * Returns the last value cached for {@code customerId} and {@code qualifier}, whether it is up to date or not.
+     * Used as a fallback while values cannot be built, the value may be older than the last customer write.
+     *
+     * @param customerId Customer identifier
+     * @param qualifier  Value qualifier within the customer (e.g month)
+     * @return Optional last known value
+     */
+    public Optional<V> getLastKnown(String customerId, String qualifier) {
+        VersionedValue<V> entry = entries.getIfPresent(CustomerCacheKey.of(customerId, qualifier));
+
+        if (entry == null) {
+            return Optional.empty();
+        }
+
+        lastKnownServed.increment();
+        return Optional.of(entry.value);
+    }
+
+    private V getIfUpToDate(CustomerCacheKey key, long version) {
+        VersionedValue<V> entry = entries.getIfPresent(key);
+
+        if (entry == null) {
+            misses.increment();
+        } else if (entry.version != version) {
+            stale.increment();
+        } else {
+            hits.increment();
+            return entry.value;
+        }
+
+        return null;
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        List<Metric<?>> metrics = new ArrayList<>();
+        String prefix = "cache." + name;
+
+        metrics.add(new Metric<>("counter." + prefix + ".hits", hits.sum()));
+        metrics.add(new Metric<>("counter." + prefix + ".misses", misses.sum()));
+        metrics.add(new Metric<>("counter." + prefix + ".stale", stale.sum()));
+        metrics.add(new Metric<>("counter." + prefix + ".last-known-served", lastKnownServed.sum()));
+        metrics.add(new Metric<>("gauge." + prefix + ".size", entries.estimatedSize()));
+
+        return metrics;
+    }
+
+    private static final class VersionedValue<V> {
+        private final long version;
+        private final V value;
+
+        VersionedValue(long version, V value) {
+            this.version = version;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.ing.direct.common.cache;
+
+import org.springframework.cache.Cache;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link Cache} decorator counting the hits, misses and evictions of a cache region and supporting per-customer
+ * eviction.
+ * <p>
+ * <p>Evicting a customer identifier (e.g {@code @CacheEvict(key = "#transaction.customer")}) evicts every
+ * {@link CustomerCacheKey} entry of that customer and leaves the entries of the other customers untouched. The
+ * entries are found by walking the keys of the underlying cache rather than through an index of their own, so that
+ * entries evicted by the underlying cache on size or expiry do not leave anything behind. Underlying caches whose
+ * keys cannot be walked (i.e. neither a Caffeine cache nor a {@link Map}) are cleared instead.</p>
+ *
+ * @see InstrumentedCacheManager
+ * @see CustomerCacheKey
+ */
+public class InstrumentedCache implements Cache {
+    private final Cache delegate;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public InstrumentedCache(Cache delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return record(key, delegate.get(key));
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        T value = delegate.get(key, type);
+        record(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return delegate.putIfAbsent(key, value);
+    }
+
+    /**
+     * Evicts every entry of the customer if {@code key} is the identifier of a customer having entries in this cache,
+     * the entry mapped to {@code key} otherwise.
+     *
+     * @param key Key or customer identifier
+     */
+    @Override
+    public void evict(Object key) {
+        if (key instanceof String && evictCustomers(Collections.singleton((String) key)) > 0) {
+            return;
+        }
+
+        delegate.evict(key);
+        evictions.increment();
+    }
+
+    /**
+     * Evicts every entry of several customers, i.e. their {@link CustomerCacheKey} entries and the entries keyed by
+     * their identifier, with a single walk over the keys of the underlying cache.
+     *
+     * @param customerIds Customer identifiers
+     * @return Number of evicted entries
+     */
+    public int evictCustomers(Collection<String> customerIds) {
+        Set<Object> keys = getKeys();
+
+        if (keys == null) {
+            clear();
+            return 1;
+        }
+
+        int evicted = 0;
+        for (Iterator<Object> iterator = keys.iterator(); iterator.hasNext(); ) {
+            Object key = iterator.next();
+            if (customerIds.contains(key)
+                    || key instanceof CustomerCacheKey && customerIds.contains(((CustomerCacheKey) key).getCustomerId())) {
+                iterator.remove();
+                evicted++;
+            }
+        }
+        evictions.add(evicted);
+
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        evictions.increment();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    private <T> T record(Object key, T value) {
+        if (value != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<Object> getKeys() {
+        Object nativeCache = delegate.getNativeCache();
+
+        if (nativeCache instanceof com.github.benmanes.caffeine.cache.Cache) {
+            return ((com.github.benmanes.caffeine.cache.Cache<Object, Object>) nativeCache).asMap().keySet();
+        }
+        if (nativeCache instanceof Map) {
+            return ((Map<Object, Object>) nativeCache).keySet();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,71 @@
+package com.ing.direct.common.cache;
+
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * {@link CacheManager} decorator wrapping every cache region of the underlying manager into an
+ * {@link InstrumentedCache} and gathering their hits, misses and evictions as actuator metrics
+ * (e.g {@code counter.cache.transactions.hits}, {@code gauge.cache.transactions.hit.ratio}).
+ *
+ * @see InstrumentedCache
+ */
+public class InstrumentedCacheManager implements CacheManager {
+    private final CacheManager delegate;
+    private final ConcurrentMap<String, InstrumentedCache> caches = new ConcurrentHashMap<>();
+
+    public InstrumentedCacheManager(CacheManager delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        InstrumentedCache cache = caches.get(name);
+
+        if (cache == null) {
+            Cache delegateCache = delegate.getCache(name);
+
+            if (delegateCache == null) {
+                return null;
+            }
+
+            cache = caches.computeIfAbsent(name, cacheName -> new InstrumentedCache(delegateCache));
+        }
+
+        return cache;
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    /**
+     * Returns the hits, misses, evictions and hit ratio of every cache region used so far.
+     *
+     * @return Cache region metrics
+     */
+    public Collection<Metric<?>> metrics() {
+        List<Metric<?>> metrics = new ArrayList<>();
+
+        caches.values().forEach(cache -> {
+            String prefix = "cache." + cache.getName();
+            long hits = cache.getHits();
+            long lookups = hits + cache.getMisses();
+
+            metrics.add(new Metric<>("counter." + prefix + ".hits", hits));
+            metrics.add(new Metric<>("counter." + prefix + ".misses", cache.getMisses()));
+            metrics.add(new Metric<>("counter." + prefix + ".evictions", cache.getEvictions()));
+            metrics.add(new Metric<>("gauge." + prefix + ".hit.ratio", lookups == 0 ? 0d : (double) hits / lookups));
+        });
+
+        return metrics;
+    }
+}
@@ -0,0 +1,60 @@
+package com.ing.direct.common.cache;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.Objects;
+
+/**
+ * Immutable cache key class identifying a page of results. Its hash is computed once on creation.
+ *
+ * @see TransactionCacheKeyGenerator
+ */
+public final class PageCacheKey {
+    private final int page;
+    private final int size;
+    private final Sort sort;
+    private final int hash;
+
+    private PageCacheKey(int page, int size, Sort sort) {
+        this.page = page;
+        this.size = size;
+        this.sort = sort;
+        this.hash = 31 * (31 * page + size) + Objects.hashCode(sort);
+    }
+
+    /**
+     * Creates a key for the page described by {@code pageable}.
+     *
+     * @param pageable Page request
+     * @return PageCacheKey instance
+     */
+    public static PageCacheKey of(Pageable pageable) {
+        return new PageCacheKey(pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PageCacheKey)) {
+            return false;
+        }
+        PageCacheKey that = (PageCacheKey) o;
+        return hash == that.hash
+                && page == that.page
+                && size == that.size
+                && Objects.equals(sort, that.sort);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "PageCacheKey [page:" + page + ", size:" + size + ", sort:" + sort + "]";
+    }
+}
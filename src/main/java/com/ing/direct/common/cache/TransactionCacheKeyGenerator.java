@@ -0,0 +1,53 @@
+package com.ing.direct.common.cache;
+
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.cache.interceptor.SimpleKeyGenerator;
+import org.springframework.data.domain.Pageable;
+
+import java.lang.reflect.Method;
+import java.util.Date;
+
+/**
+ * {@link KeyGenerator} class building compact keys for the argument shapes of the cached transaction calls, without
+ * formatting any argument:
+ * <ul>
+ * <li>{@code (String customerId)} and {@code (String customerId, Date start, Date end)} calls are keyed by a
+ * {@link CustomerCacheKey}</li>
+ * <li>{@code (Pageable pageable)} calls are keyed by a {@link PageCacheKey}</li>
+ * <li>calls without arguments are keyed by {@link SimpleKey#EMPTY}</li>
+ * </ul>
+ * <p>Any other shape falls back to the {@link SimpleKeyGenerator} keys. Note that a call taking a single
+ * {@code String} argument which is not a customer identifier (e.g {@code findById}) must declare an explicit key.</p>
+ *
+ * @see CustomerCacheKey
+ * @see PageCacheKey
+ */
+public class TransactionCacheKeyGenerator implements KeyGenerator {
+
+    @Override
+    public Object generate(Object target, Method method, Object... params) {
+
+        if (params.length == 0) {
+            return SimpleKey.EMPTY;
+        }
+
+        if (params[0] instanceof String) {
+            String customerId = (String) params[0];
+
+            if (params.length == 1) {
+                return CustomerCacheKey.of(customerId, method.getName());
+            }
+
+            if (params.length == 3 && params[1] instanceof Date && params[2] instanceof Date) {
+                return CustomerCacheKey.of(customerId, method.getName(), (Date) params[1], (Date) params[2]);
+            }
+        }
+
+        if (params.length == 1 && params[0] instanceof Pageable) {
+            return PageCacheKey.of((Pageable) params[0]);
+        }
+
+        return SimpleKeyGenerator.generateKey(params);
+    }
+}
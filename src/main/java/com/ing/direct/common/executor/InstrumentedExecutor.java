@@ -0,0 +1,79 @@
+package com.ing.direct.common.executor;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded {@link Executor} running tasks on a fixed number of threads, pending tasks waiting in a queue of a fixed
+ * capacity. Tasks submitted while every thread is busy and the queue is full are rejected with a
+ * {@link RejectedExecutionException} rather than run by the caller, so that a saturated pool sheds load instead of
+ * blocking the request threads.
+ * <p>
+ * <p>The saturation of the pool is published as actuator metrics (e.g {@code gauge.executor.summaryIo.queued},
+ * {@code counter.executor.summaryIo.rejected}).</p>
+ */
+public class InstrumentedExecutor implements Executor, PublicMetrics {
+    private final String name;
+    private final ThreadPoolExecutor delegate;
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Creates an executor.
+     *
+     * @param name          Executor name, used for the thread names and the metrics
+     * @param threads       Number of threads
+     * @param queueCapacity Maximum number of pending tasks
+     */
+    public InstrumentedExecutor(String name, int threads, int queueCapacity) {
+        this.name = name;
+        this.delegate = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new ThreadFactoryBuilder().setNameFormat(name + "-%d").setDaemon(true).build(),
+                (task, executor) -> {
+                    rejected.increment();
+                    throw new RejectedExecutionException(name + " executor saturated [threads:" + threads
+                            + ", queueCapacity:" + queueCapacity + "]");
+                });
+    }
+
+    /**
+     * Runs a task on one of the executor threads.
+     *
+     * @param task Task
+     * @throws RejectedExecutionException if every thread is busy and the queue is full
+     */
+    @Override
+    public void execute(Runnable task) {
+        delegate.execute(task);
+    }
+
+    public void shutdown() {
+        delegate.shutdownNow();
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        List<Metric<?>> metrics = new ArrayList<>();
+        String prefix = "executor." + name;
+
+        metrics.add(new Metric<>("gauge." + prefix + ".threads", delegate.getMaximumPoolSize()));
+        metrics.add(new Metric<>("gauge." + prefix + ".active", delegate.getActiveCount()));
+        metrics.add(new Metric<>("gauge." + prefix + ".queued", delegate.getQueue().size()));
+        metrics.add(new Metric<>("gauge." + prefix + ".queue-remaining", delegate.getQueue().remainingCapacity()));
+        metrics.add(new Metric<>("counter." + prefix + ".completed", delegate.getCompletedTaskCount()));
+        metrics.add(new Metric<>("counter." + prefix + ".rejected", rejected.sum()));
+
+        return metrics;
+    }
+}
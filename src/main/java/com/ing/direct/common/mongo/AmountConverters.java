@@ -0,0 +1,69 @@
+package com.ing.direct.common.mongo;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.ing.direct.common.utils.ClassUtils.fromCents;
+import static com.ing.direct.common.utils.ClassUtils.toCents;
+
+/**
+ * Converters storing {@link BigDecimal} amounts as 64-bit integers of cents rather than strings, so that amounts can
+ * be summed by the aggregation framework and are smaller to store and decode. Amounts with more than 2 decimals are
+ * rounded with {@link com.ing.direct.common.utils.ClassUtils#toCents(BigDecimal)}.
+ * <p>
+ * <p>Stored amounts are read with 2 decimals (e.g {@code 2340} as {@code 23.40}), and so are the amounts still stored
+ * as strings until they are migrated, so that the amounts returned by the API keep the same scale whether or not
+ * their document has been migrated.</p>
+ *
+ * @see com.ing.direct.transaction.job.TransactionAmountMigrationJob
+ */
+public final class AmountConverters {
+
+    private AmountConverters() {
+    }
+
+    /**
+     * Returns the amount converters to be registered as custom conversions.
+     *
+     * @return Amount converters
+     */
+    public static List<Converter<?, ?>> getConverters() {
+        return Arrays.asList(BigDecimalToCentsConverter.INSTANCE, CentsToBigDecimalConverter.INSTANCE,
+                StringToBigDecimalConverter.INSTANCE);
+    }
+
+    @WritingConverter
+    public enum BigDecimalToCentsConverter implements Converter<BigDecimal, Long> {
+        INSTANCE;
+
+        @Override
+        public Long convert(BigDecimal amount) {
+            return toCents(amount);
+        }
+    }
+
+    @ReadingConverter
+    public enum CentsToBigDecimalConverter implements Converter<Long, BigDecimal> {
+        INSTANCE;
+
+        @Override
+        public BigDecimal convert(Long cents) {
+            return fromCents(cents);
+        }
+    }
+
+    @ReadingConverter
+    public enum StringToBigDecimalConverter implements Converter<String, BigDecimal> {
+        INSTANCE;
+
+        @Override
+        public BigDecimal convert(String amount) {
+            return fromCents(toCents(new BigDecimal(amount)));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.ing.direct.common.mongo;
+
+import com.mongodb.DBCallback;
+import com.mongodb.DBCollection;
+import com.mongodb.DBDecoder;
+import com.mongodb.DBDecoderFactory;
+import com.mongodb.DBObject;
+import com.mongodb.DefaultDBDecoder;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * {@link DBDecoder} counting the documents and bytes decoded by the current thread, so that the
+ * {@link InstrumentedMongoTemplate} can report the size of the results of each operation without encoding them
+ * again. Counters are cumulative per thread, operations reading the difference of their values.
+ *
+ * @see InstrumentedMongoTemplate
+ */
+public class CountingDBDecoder extends DefaultDBDecoder {
+
+    public static final DBDecoderFactory FACTORY = CountingDBDecoder::new;
+
+    private static final ThreadLocal<long[]> DECODED = ThreadLocal.withInitial(() -> new long[2]);
+
+    @Override
+    public DBObject decode(byte[] bytes, DBCollection collection) {
+        DBCallback callback = getDBCallback(collection);
+        callback.reset();
+        count(decode(bytes, callback));
+        return (DBObject) callback.get();
+    }
+
+    @Override
+    public DBObject decode(InputStream in, DBCollection collection) throws IOException {
+        DBCallback callback = getDBCallback(collection);
+        callback.reset();
+        count(decode(in, callback));
+        return (DBObject) callback.get();
+    }
+
+    /**
+     * Returns the number of documents decoded by the current thread.
+     *
+     * @return Number of decoded documents
+     */
+    public static long getDecodedDocuments() {
+        return DECODED.get()[0];
+    }
+
+    /**
+     * Returns the number of bytes decoded by the current thread.
+     *
+     * @return Number of decoded bytes
+     */
+    public static long getDecodedBytes() {
+        return DECODED.get()[1];
+    }
+
+    /**
+     * Counts a document of {@code bytes} bytes decoded by the current thread.
+     *
+     * @param bytes Size of the decoded document
+     */
+    protected static void count(int bytes) {
+        long[] decoded = DECODED.get();
+        decoded[0]++;
+        decoded[1] += bytes;
+    }
+}
@@ -0,0 +1,237 @@
+package com.ing.direct.common.mongo;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import com.mongodb.WriteResult;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.data.mongodb.MongoDbFactory;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * {@link MongoTemplate} timing its find, findOne, findById, exists, count, update, upsert, findAndModify and remove
+ * operations. Latencies are recorded into HdrHistogram histograms by operation and collection, along with the number
+ * of documents and bytes decoded for the operation by the {@link CountingDBDecoder}, and published as actuator
+ * metrics (e.g {@code gauge.mongo.find.transactions.p99}, in microseconds, or
+ * {@code counter.mongo.find.transactions.bytes}).
+ * <p>
+ * <p>Operations slower than the slow query threshold are logged along with the shape of their query, i.e. the query
+ * with every value replaced by {@code ?} (e.g {@code {customer: ?, date: {$gte: ?, $lt: ?}}}).</p>
+ * <p>
+ * <p>The operations run on the driver collections (e.g bulk writes, aggregations) are timed the same way when run
+ * through {@link #timeDriverOperation(MongoTemplate, String, String, Object, Supplier)}. Note that streams are not
+ * timed, and that only the documents returned by the operations are decoded by the client when their results are
+ * read.</p>
+ *
+ * @see CountingDBDecoder
+ */
+public class InstrumentedMongoTemplate extends MongoTemplate implements PublicMetrics {
+
+    private static final Logger LOG = LoggerFactory.getLogger(InstrumentedMongoTemplate.class);
+
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private final long slowQueryNanos;
+    private final ConcurrentMap<String, OperationStats> operations = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a template.
+     *
+     * @param mongoDbFactory  Mongo database factory
+     * @param mongoConverter  Mongo converter
+     * @param slowQueryMillis Duration from which operations are logged, in milliseconds
+     */
+    public InstrumentedMongoTemplate(MongoDbFactory mongoDbFactory, MongoConverter mongoConverter, long slowQueryMillis) {
+        super(mongoDbFactory, mongoConverter);
+        this.slowQueryNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryMillis);
+    }
+
+    @Override
+    public <T> List<T> find(Query query, Class<T> entityClass, String collectionName) {
+        return time("find", collectionName, query.getQueryObject(),
+                () -> super.find(query, entityClass, collectionName));
+    }
+
+    @Override
+    public <T> T findOne(Query query, Class<T> entityClass, String collectionName) {
+        return time("findOne", collectionName, query.getQueryObject(),
+                () -> super.findOne(query, entityClass, collectionName));
+    }
+
+    @Override
+    public <T> T findById(Object id, Class<T> entityClass, String collectionName) {
+        return time("findById", collectionName, new BasicDBObject("_id", id),
+                () -> super.findById(id, entityClass, collectionName));
+    }
+
+    @Override
+    public boolean exists(Query query, Class<?> entityClass, String collectionName) {
+        return time("exists", collectionName, query == null ? null : query.getQueryObject(),
+                () -> super.exists(query, entityClass, collectionName));
+    }
+
+    @Override
+    public long count(Query query, Class<?> entityClass, String collectionName) {
+        return time("count", collectionName, query == null ? null : query.getQueryObject(),
+                () -> super.count(query, entityClass, collectionName));
+    }
+
+    @Override
+    public <T> T findAndModify(Query query, Update update, FindAndModifyOptions options, Class<T> entityClass,
+                               String collectionName) {
+        return time("findAndModify", collectionName, query.getQueryObject(),
+                () -> super.findAndModify(query, update, options, entityClass, collectionName));
+    }
+
+    @Override
+    protected WriteResult doUpdate(String collectionName, Query query, Update update, Class<?> entityClass,
+                                   boolean upsert, boolean multi) {
+        return time(upsert ? "upsert" : multi ? "updateMulti" : "updateFirst", collectionName,
+                query.getQueryObject(), () -> super.doUpdate(collectionName, query, update, entityClass, upsert, multi));
+    }
+
+    @Override
+    protected <T> WriteResult doRemove(String collectionName, Query query, Class<T> entityClass) {
+        return time("remove", collectionName, query == null ? null : query.getQueryObject(),
+                () -> super.doRemove(collectionName, query, entityClass));
+    }
+
+    /**
+     * Times an operation run on a driver collection of a given template as the template operations, if the template
+     * is an {@link InstrumentedMongoTemplate}, the operation being run as is otherwise.
+     *
+     * @param mongoTemplate  Template the collection is obtained from
+     * @param operation      Operation name (e.g {@code bulkWrite}, {@code aggregate})
+     * @param collectionName Collection name
+     * @param queryObject    Query, filter of the first bulk write operation or aggregation pipeline, logged as its
+     *                       shape
+     * @param action         Operation, reading its whole result if any
+     * @return Operation result
+     */
+    public static <T> T timeDriverOperation(MongoTemplate mongoTemplate, String operation, String collectionName,
+                                            Object queryObject, Supplier<T> action) {
+        if (mongoTemplate instanceof InstrumentedMongoTemplate) {
+            return ((InstrumentedMongoTemplate) mongoTemplate).time(operation, collectionName, queryObject, action);
+        }
+        return action.get();
+    }
+
+    private <T> T time(String operation, String collectionName, Object queryObject, Supplier<T> action) {
+
+        long documents = CountingDBDecoder.getDecodedDocuments();
+        long bytes = CountingDBDecoder.getDecodedBytes();
+        long start = System.nanoTime();
+
+        try {
+            return action.get();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            documents = CountingDBDecoder.getDecodedDocuments() - documents;
+            bytes = CountingDBDecoder.getDecodedBytes() - bytes;
+
+            operations
+                    .computeIfAbsent(operation + '.' + collectionName, key -> new OperationStats())
+                    .record(elapsed, documents, bytes);
+
+            if (elapsed >= slowQueryNanos) {
+                LOG.warn("slow mongo operation [operation:{}, collection:{}, millis:{}, documents:{}, bytes:{}, " +
+                                "query:{}]", operation, collectionName, TimeUnit.NANOSECONDS.toMillis(elapsed),
+                        documents, bytes, toShape(queryObject));
+            }
+        }
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        List<Metric<?>> metrics = new ArrayList<>();
+
+        operations.forEach((key, stats) -> {
+            String prefix = "mongo." + key;
+            Histogram latencies = stats.latencies.copy();
+
+            metrics.add(new Metric<>("counter." + prefix + ".count", latencies.getTotalCount()));
+            metrics.add(new Metric<>("counter." + prefix + ".documents", stats.documents.sum()));
+            metrics.add(new Metric<>("counter." + prefix + ".bytes", stats.bytes.sum()));
+            metrics.add(new Metric<>("gauge." + prefix + ".p50", toMicros(latencies.getValueAtPercentile(50))));
+            metrics.add(new Metric<>("gauge." + prefix + ".p99", toMicros(latencies.getValueAtPercentile(99))));
+            metrics.add(new Metric<>("gauge." + prefix + ".p999", toMicros(latencies.getValueAtPercentile(99.9))));
+            metrics.add(new Metric<>("gauge." + prefix + ".max", toMicros(latencies.getMaxValue())));
+        });
+
+        return metrics;
+    }
+
+    private static long toMicros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    /**
+     * Returns the shape of a query, i.e. the query with every value replaced by {@code ?}, operators and field names
+     * being kept.
+     *
+     * @param queryObject Query object, possibly null
+     * @return Query shape
+     */
+    static String toShape(Object queryObject) {
+        StringBuilder shape = new StringBuilder();
+        appendShape(queryObject, shape);
+        return shape.toString();
+    }
+
+    private static void appendShape(Object value, StringBuilder shape) {
+        if (value instanceof List) {
+            shape.append('[');
+            String separator = "";
+            for (Object element : (List<?>) value) {
+                shape.append(separator);
+                appendShape(element, shape);
+                separator = ", ";
+            }
+            shape.append(']');
+        } else if (value instanceof DBObject || value instanceof Map) {
+            Map<?, ?> map = value instanceof Map ? (Map<?, ?>) value : ((DBObject) value).toMap();
+            shape.append('{');
+            String separator = "";
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                shape.append(separator).append(entry.getKey()).append(": ");
+                appendShape(entry.getValue(), shape);
+                separator = ", ";
+            }
+            shape.append('}');
+        } else if (value == null && shape.length() == 0) {
+            shape.append("{}");
+        } else {
+            shape.append('?');
+        }
+    }
+
+    private static final class OperationStats {
+        private final Histogram latencies = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+        private final LongAdder documents = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+
+        void record(long elapsed, long decodedDocuments, long decodedBytes) {
+            latencies.recordValue(elapsed);
+            documents.add(decodedDocuments);
+            bytes.add(decodedBytes);
+        }
+    }
+}
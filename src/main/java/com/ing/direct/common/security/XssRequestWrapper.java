@@ -4,39 +4,24 @@ import org.owasp.esapi.ESAPI;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletRequestWrapper;
-import java.util.regex.Pattern;
+import java.util.HashMap;
+import java.util.Map;
 
 
 /**
- * Wrapper class defining XSS regex expressions to be used for sanitizing the request parameters.
+ * Wrapper class sanitizing the request parameters and headers with {@link XssSanitizer}.
  * <p>
- * <p>Note that this class makes use of {@link ESAPI} library for encoding header and request values.</p>
+ * <p>Note that sanitized values are memoized for the lifetime of the request, so that values read several times
+ * (e.g {@code Accept} header) are sanitized once. Requests being processed by one thread at a time, the memo is not
+ * synchronized.</p>
  *
  * @see ESAPI
  * @see XssFilter
+ * @see XssSanitizer
  */
 public class XssRequestWrapper extends HttpServletRequestWrapper {
 
-    private static Pattern[] patterns = new Pattern[]{
-            // Script fragments
-            Pattern.compile("<script>(.*?)</script>", Pattern.CASE_INSENSITIVE),
-            // src='...'
-            Pattern.compile("src[\r\n]*=[\r\n]*\\\'(.*?)\\\'", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL),
-            Pattern.compile("src[\r\n]*=[\r\n]*\\\"(.*?)\\\"", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL),
-            // lonely script tags
-            Pattern.compile("</script>", Pattern.CASE_INSENSITIVE),
-            Pattern.compile("<script(.*?)>", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL),
-            // eval(...)
-            Pattern.compile("eval\\((.*?)\\)", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL),
-            // expression(...)
-            Pattern.compile("expression\\((.*?)\\)", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL),
-            // javascript:...
-            Pattern.compile("javascript:", Pattern.CASE_INSENSITIVE),
-            // vbscript:...
-            Pattern.compile("vbscript:", Pattern.CASE_INSENSITIVE),
-            // onload(...)=...
-            Pattern.compile("onload(.*?)=", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL)
-    };
+    private final Map<String, String> sanitizedValues = new HashMap<>();
 
     public XssRequestWrapper(HttpServletRequest servletRequest) {
         super(servletRequest);
@@ -72,20 +57,10 @@ public class XssRequestWrapper extends HttpServletRequestWrapper {
         return stripXSS(value);
     }
 
-    private String stripXSS(String value) {
-        if (value != null) {
-            // NOTE: It's highly recommended to use the ESAPI library and uncomment the following line to
-            // avoid encoded attacks.
-            value = ESAPI.encoder().canonicalize(value);
-
-            // Avoid null characters
-            value = value.replaceAll("", "");
-
-            // Remove all sections that match a pattern
-            for (Pattern scriptPattern : patterns) {
-                value = scriptPattern.matcher(value).replaceAll("");
-            }
+    String stripXSS(String value) {
+        if (value == null) {
+            return null;
         }
-        return value;
+        return sanitizedValues.computeIfAbsent(value, XssSanitizer::sanitize);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,138 @@
+package com.ing.direct.common.security;
+
+import org.owasp.esapi.ESAPI;
+
+import java.util.regex.Pattern;
+
+/**
+ * Sanitizer stripping potential XSS fragments out of request values.
+ * <p>
+ * <p>Values are first scanned once by a small automaton looking for anything the sanitization could change: an
+ * encoded character ({@code %}, {@code &}, {@code \}) that {@link ESAPI} canonicalization would decode, a {@code <}
+ * starting a script tag, or a {@code (}, {@code :} or {@code =} closing one of the {@code eval(},
+ * {@code expression(}, {@code javascript:}, {@code vbscript:}, {@code src=} or {@code onload...=} fragments. Values
+ * without any of them, i.e. nearly every identifier, month or header value, are returned untouched. The other ones
+ * go through the full canonicalization and pattern removal of {@link #sanitizeFully(String)}, so that both paths
+ * always return the same value.</p>
+ *
+ * @see XssRequestWrapper
+ */
+public final class XssSanitizer {
+
+    private static final Pattern[] PATTERNS = new Pattern[]{
+            // Script fragments
+            Pattern.compile("<script>(.*?)</script>", Pattern.CASE_INSENSITIVE),
+            // src='...'
+            Pattern.compile("src[\r\n]*=[\r\n]*\\\'(.*?)\\\'", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL),
+            Pattern.compile("src[\r\n]*=[\r\n]*\\\"(.*?)\\\"", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL),
+            // lonely script tags
+            Pattern.compile("</script>", Pattern.CASE_INSENSITIVE),
+            Pattern.compile("<script(.*?)>", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL),
+            // eval(...)
+            Pattern.compile("eval\\((.*?)\\)", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL),
+            // expression(...)
+            Pattern.compile("expression\\((.*?)\\)", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL),
+            // javascript:...
+            Pattern.compile("javascript:", Pattern.CASE_INSENSITIVE),
+            // vbscript:...
+            Pattern.compile("vbscript:", Pattern.CASE_INSENSITIVE),
+            // onload(...)=...
+            Pattern.compile("onload(.*?)=", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL)
+    };
+
+    private XssSanitizer() {
+    }
+
+    /**
+     * Returns a given value stripped of potential XSS fragments, the value itself if it cannot hold any.
+     *
+     * @param value Value to sanitize, possibly null
+     * @return Sanitized value
+     */
+    public static String sanitize(String value) {
+        if (value == null || !isSuspicious(value)) {
+            return value;
+        }
+        return sanitizeFully(value);
+    }
+
+    /**
+     * Canonicalizes a given value with {@link ESAPI} to avoid encoded attacks, then removes every section matching
+     * one of the XSS patterns.
+     *
+     * @param value Value to sanitize, possibly null
+     * @return Sanitized value
+     */
+    static String sanitizeFully(String value) {
+        if (value != null) {
+            value = ESAPI.encoder().canonicalize(value);
+
+            // Remove all sections that match a pattern
+            for (Pattern scriptPattern : PATTERNS) {
+                value = scriptPattern.matcher(value).replaceAll("");
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Scans a value once, returning if canonicalization or one of the patterns may change it. Fragments are
+     * compared ignoring case, which may only report more values than the patterns would match.
+     */
+    static boolean isSuspicious(String value) {
+
+        boolean onload = false;
+        int length = value.length();
+
+        for (int i = 0; i < length; i++) {
+            switch (value.charAt(i)) {
+                case '%':
+                case '&':
+                case '\\':
+                case '<':
+                    return true;
+                case '(':
+                    if (endsWith(value, i, "eval") || endsWith(value, i, "expression")) {
+                        return true;
+                    }
+                    break;
+                case ':':
+                    if (endsWith(value, i, "javascript") || endsWith(value, i, "vbscript")) {
+                        return true;
+                    }
+                    break;
+                case '=':
+                    if (onload || endsWith(value, skipLineBreaks(value, i), "src")) {
+                        return true;
+                    }
+                    break;
+                case 'd':
+                case 'D':
+                    onload |= endsWith(value, i + 1, "onload");
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the index following the last character before {@code end} which is not a line break.
+     */
+    private static int skipLineBreaks(String value, int end) {
+        while (end > 0 && (value.charAt(end - 1) == '\r' || value.charAt(end - 1) == '\n')) {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * Returns if the characters of {@code value} preceding {@code end} are {@code fragment}, ignoring ASCII case.
+     */
+    private static boolean endsWith(String value, int end, String fragment) {
+        int start = end - fragment.length();
+        return start >= 0 && value.regionMatches(true, start, fragment, 0, fragment.length());
+    }
+}
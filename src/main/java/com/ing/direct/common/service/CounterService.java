@@ -7,4 +7,6 @@ package com.ing.direct.common.service;
  */
 public interface CounterService {
     int getNextSequence(String collectionName);
+
+    int getNextSequenceBlock(String collectionName, int size);
 }
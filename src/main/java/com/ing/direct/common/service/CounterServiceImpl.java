@@ -2,11 +2,22 @@ package com.ing.direct.common.service;
 
 import com.ing.direct.common.sequence.Counter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
 import org.springframework.data.mongodb.core.MongoOperations;
 import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
-import static com.ing.direct.common.utils.ClassUtils.COUNTERS_COLLECTION_NAME;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.ing.direct.common.utils.ClassUtils.DEFAULT_SEQUENCE_BLOCK_SIZE;
 import static org.springframework.data.mongodb.core.FindAndModifyOptions.options;
 import static org.springframework.data.mongodb.core.query.Criteria.where;
 import static org.springframework.data.mongodb.core.query.Query.query;
@@ -18,32 +29,129 @@ import static org.springframework.data.mongodb.core.query.Query.query;
  * <p>
  * <p>Note that a separate {@link com.ing.direct.common.utils.ClassUtils#COUNTERS_COLLECTION_NAME}
  * collection is used to hold the document sequences.</p>
+ * <p>
+ * <p>Sequences are allocated with a hi/lo strategy: each node reserves a block of
+ * {@code analytics.sequence.block-size} integers with a single {@code $inc} on the counter document and hands them
+ * out locally, so that concurrent writers only contend on the counter document once per block. The number of
+ * block refills is published as actuator metrics (e.g {@code counter.sequence.transactions.refills}).</p>
  */
 @Service
-public class CounterServiceImpl implements CounterService {
+public class CounterServiceImpl implements CounterService, PublicMetrics {
 
     @Autowired
     private MongoOperations mongo;
 
+    private int blockSize = DEFAULT_SEQUENCE_BLOCK_SIZE;
+
+    private final ConcurrentMap<String, SequenceBlock> sequenceBlocks = new ConcurrentHashMap<>();
+
     /**
-     * Returns the next seauence integer for a given {@code collectionName}.
+     * Returns the next seauence integer for a given {@code collectionName}, reserving a new block of sequence
+     * integers once the current one is exhausted.
      *
      * @param collectionName Collection name
      * @return Next sequence integer
      */
     public int getNextSequence(String collectionName) {
+        return sequenceBlocks
+                .computeIfAbsent(collectionName, SequenceBlock::new)
+                .next();
+    }
 
-        if (!mongo.collectionExists(COUNTERS_COLLECTION_NAME)) {
-            //db.Counter.insert({ 'name' : 'user_id', sequence : 1}
-            mongo.insert(Counter.builder().id(collectionName).seq(0).build(), COUNTERS_COLLECTION_NAME);
-        }
+    /**
+     * Reserves a block of {@code size} consecutive sequence integers for a given {@code collectionName} with a
+     * single {@code $inc} and returns the first one. The counter document is created if needed.
+     *
+     * @param collectionName Collection name
+     * @param size           Number of sequence integers to reserve
+     * @return First sequence integer of the reserved block
+     */
+    public int getNextSequenceBlock(String collectionName, int size) {
 
         Counter counter = mongo.findAndModify(
                 query(where("_id").is(collectionName)),
-                new Update().inc("seq", 1),
-                options().returnNew(true),
+                new Update().inc("seq", size),
+                options().returnNew(true).upsert(true),
                 Counter.class);
 
-        return counter.getSeq();
+        return counter.getSeq() - size + 1;
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        List<Metric<?>> metrics = new ArrayList<>();
+
+        sequenceBlocks.values().forEach(sequenceBlock -> {
+            String prefix = "sequence." + sequenceBlock.collectionName;
+            metrics.add(new Metric<>("counter." + prefix + ".refills", sequenceBlock.refills.sum()));
+            metrics.add(new Metric<>("gauge." + prefix + ".remaining", sequenceBlock.remaining()));
+        });
+
+        return metrics;
+    }
+
+    /**
+     * Sets the number of sequence integers reserved per block.
+     *
+     * @param blockSize Block size
+     * @throws IllegalArgumentException if {@code blockSize} is lower than 1
+     */
+    @Value("${analytics.sequence.block-size:" + DEFAULT_SEQUENCE_BLOCK_SIZE + "}")
+    public void setBlockSize(int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("blockSize must be positive: " + blockSize);
+        }
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Block of sequence integers reserved for a collection and handed out locally.
+     */
+    private final class SequenceBlock {
+        private final String collectionName;
+        private final LongAdder refills = new LongAdder();
+        private volatile Range range = new Range(0, 0);
+
+        SequenceBlock(String collectionName) {
+            this.collectionName = collectionName;
+        }
+
+        int next() {
+            while (true) {
+                Range current = range;
+                long value = current.next.getAndIncrement();
+
+                if (value < current.end) {
+                    return (int) value;
+                }
+
+                synchronized (this) {
+                    // only the first thread finding the range exhausted refills it
+                    if (range == current) {
+                        int start = getNextSequenceBlock(collectionName, blockSize);
+                        range = new Range(start, (long) start + blockSize);
+                        refills.increment();
+                    }
+                }
+            }
+        }
+
+        long remaining() {
+            Range current = range;
+            return Math.max(0, current.end - current.next.get());
+        }
+    }
+
+    /**
+     * Range of sequence integers, from {@code next} (inclusive) to {@link #end} (exclusive).
+     */
+    private static final class Range {
+        private final AtomicLong next;
+        private final long end;
+
+        Range(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
     }
-}
\ No newline at end of file
+}
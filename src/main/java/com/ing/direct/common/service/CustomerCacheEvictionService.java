@@ -0,0 +1,13 @@
+package com.ing.direct.common.service;
+
+import java.util.Collection;
+
+/**
+ * Customer cache eviction service interface declaring the method evicting the cached transaction reads affected by a
+ * write, called by the write path shared by every writer.
+ *
+ * @see CustomerCacheEvictionServiceImpl
+ */
+public interface CustomerCacheEvictionService {
+    void evict(Collection<String> customerIds, Collection<String> transactionIds);
+}
@@ -0,0 +1,63 @@
+package com.ing.direct.common.service;
+
+import com.ing.direct.common.cache.InstrumentedCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Optional;
+
+import static com.ing.direct.common.utils.ClassUtils.TRANSACTIONS_BY_ID_CACHE_NAME;
+import static com.ing.direct.common.utils.ClassUtils.TRANSACTIONS_COLLECTION_NAME;
+import static com.ing.direct.common.utils.ClassUtils.TRANSACTION_PAGES_CACHE_NAME;
+
+/**
+ * Customer cache eviction service class evicting the Spring cache entries of written customers: every customer scoped
+ * entry of the {@link com.ing.direct.common.utils.ClassUtils#TRANSACTIONS_COLLECTION_NAME} region (see
+ * {@link InstrumentedCache#evictCustomers(Collection)}), the written transactions of the
+ * {@link com.ing.direct.common.utils.ClassUtils#TRANSACTIONS_BY_ID_CACHE_NAME} region and every page of the
+ * {@link com.ing.direct.common.utils.ClassUtils#TRANSACTION_PAGES_CACHE_NAME} region.
+ * <p>
+ * <p>Nothing is evicted when caching is not enabled (i.e. no {@link CacheManager}).</p>
+ *
+ * @see CustomerVersionService
+ */
+@Service
+public class CustomerCacheEvictionServiceImpl implements CustomerCacheEvictionService {
+
+    private final Optional<CacheManager> cacheManager;
+
+    @Autowired
+    public CustomerCacheEvictionServiceImpl(Optional<CacheManager> cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Evicts the cached reads of the given {@code customerIds} and {@code transactionIds}, and every cached page.
+     *
+     * @param customerIds    Customer identifiers
+     * @param transactionIds Transaction identifiers
+     */
+    @Override
+    public void evict(Collection<String> customerIds, Collection<String> transactionIds) {
+        cacheManager.ifPresent(manager -> {
+            getCache(manager, TRANSACTIONS_COLLECTION_NAME).ifPresent(cache -> evictCustomers(cache, customerIds));
+            getCache(manager, TRANSACTIONS_BY_ID_CACHE_NAME).ifPresent(cache -> transactionIds.forEach(cache::evict));
+            getCache(manager, TRANSACTION_PAGES_CACHE_NAME).ifPresent(Cache::clear);
+        });
+    }
+
+    private static void evictCustomers(Cache cache, Collection<String> customerIds) {
+        if (cache instanceof InstrumentedCache) {
+            ((InstrumentedCache) cache).evictCustomers(customerIds);
+        } else {
+            customerIds.forEach(cache::evict);
+        }
+    }
+
+    private static Optional<Cache> getCache(CacheManager cacheManager, String name) {
+        return Optional.ofNullable(cacheManager.getCache(name));
+    }
+}
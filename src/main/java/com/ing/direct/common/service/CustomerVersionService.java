@@ -0,0 +1,15 @@
+package com.ing.direct.common.service;
+
+import java.util.Collection;
+
+/**
+ * Customer version service interface declaring methods to read and increment the version of a customer, which
+ * changes each time one of its transactions is written.
+ *
+ * @see CustomerVersionServiceImpl
+ */
+public interface CustomerVersionService {
+    long getVersion(String customerId);
+
+    void increment(Collection<String> customerIds);
+}
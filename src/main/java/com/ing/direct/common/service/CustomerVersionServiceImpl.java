@@ -0,0 +1,47 @@
+package com.ing.direct.common.service;
+
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Customer version service class holding an in-memory version counter per customer. Results derived from the
+ * transactions of a customer can be stamped with its version and detected as stale with a single comparison once
+ * the write path has incremented it.
+ * <p>
+ * <p>Note that versions are local to the node incrementing them.</p>
+ *
+ * @see com.ing.direct.common.cache.CustomerVersionedCache
+ */
+@Service
+public class CustomerVersionServiceImpl implements CustomerVersionService {
+
+    private final ConcurrentMap<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the current version of a given {@code customerId}, 0 if none of its transactions has been written yet.
+     *
+     * @param customerId Customer identifier
+     * @return Customer version
+     */
+    @Override
+    public long getVersion(String customerId) {
+        AtomicLong version = versions.get(customerId);
+        return version == null ? 0 : version.get();
+    }
+
+    /**
+     * Increments the version of the given {@code customerIds}.
+     *
+     * @param customerIds Customer identifiers
+     */
+    @Override
+    public void increment(Collection<String> customerIds) {
+        for (String customerId : customerIds) {
+            versions.computeIfAbsent(customerId, id -> new AtomicLong()).incrementAndGet();
+        }
+    }
+}
@@ -1,14 +1,18 @@
 package com.ing.direct.common.utils;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.primitives.Ints;
 import com.ing.direct.transaction.dto.TransactionDto;
 import com.ing.direct.transaction.exception.InvalidParameterException;
 import com.ing.direct.transaction.exception.InvalidTransactionException;
 import com.ing.direct.transaction.model.Transaction;
 import org.apache.commons.lang3.tuple.Pair;
-import org.modelmapper.ModelMapper;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.TemporalAdjusters;
@@ -22,10 +26,25 @@ import static java.time.format.DateTimeFormatter.ofPattern;
 public class ClassUtils {
     public static final String COUNTERS_COLLECTION_NAME = "counters";
     public static final String TRANSACTIONS_COLLECTION_NAME = "transactions";
+    public static final String CUSTOMER_BALANCES_COLLECTION_NAME = "customer_balances";
+    public static final String CUSTOMER_MONTH_ROLLUPS_COLLECTION_NAME = "customer_month_rollups";
+    public static final String TRANSACTIONS_BY_ID_CACHE_NAME = "transactionsById";
+    public static final String TRANSACTION_PAGES_CACHE_NAME = "transactionPages";
+    public static final String TRANSACTION_SUMMARIES_CACHE_NAME = "transactionSummaries";
+    public static final String TRANSACTION_READS_HYSTRIX_GROUP = "transactionReads";
     public static final String DATE_FORMAT_PATTERN = "yyyyMMdd";
     public static final DateTimeFormatter FORMATTER = ofPattern("d/MM/yyyy h:mm:ss a");
     public static final int DEFAULT_PAGE_SIZE = 50;
-    public static final ModelMapper MODEL_MAPPER = new ModelMapper();
+    public static final int DEFAULT_BULK_BATCH_SIZE = 1000;
+    public static final int DEFAULT_SUMMARY_BATCH_MAX_CUSTOMERS = 1000;
+    public static final int DEFAULT_SEQUENCE_BLOCK_SIZE = 1000;
+    public static final long DEFAULT_SUMMARY_ASYNC_TIMEOUT_MILLIS = 10_000;
+    public static final int FORMATTED_DATES_CACHE_SIZE = 100_000;
+
+    private static final Cache<Long, String> FORMATTED_DATES = CacheBuilder
+            .newBuilder()
+            .maximumSize(FORMATTED_DATES_CACHE_SIZE)
+            .build();
 
     private ClassUtils() {
     }
@@ -54,7 +73,7 @@ public class ClassUtils {
      * @throws InvalidParameterException in case transaction identifier is invalid
      */
     public static String validateCustomerId(String customerId) {
-        if (Ints.tryParse(customerId) == null) {
+        if (customerId == null || Ints.tryParse(customerId) == null) {
             throw new InvalidParameterException("customerId", customerId);
         }
 
@@ -94,6 +113,16 @@ public class ClassUtils {
                 Date.from(lastDayOfMonthDate.atZone(ZoneId.systemDefault()).toInstant()));
     }
 
+    /**
+     * Returns the year month of a given month number, consistently with {@link #toStartEndDate(int)}.
+     *
+     * @param month Month
+     * @return YearMonth instance
+     */
+    public static YearMonth toYearMonth(int month) {
+        return YearMonth.of(2016, month);
+    }
+
     /**
      * Converts {@code isoDate} argument to {@link Date}.
      *
@@ -108,13 +137,43 @@ public class ClassUtils {
     }
 
     /**
-     * Converts {@link Date} argument to {@code isoDate}.
+     * Converts {@link Date} argument to {@code isoDate}. Formatted dates are cached, the same transaction dates being
+     * formatted again on every summary.
      *
      * @param date Date to format
      * @return Date instance
      */
     public static String fromDate(Date date) {
-        return FORMATTER.format(LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault()));
+        long time = date.getTime();
+        String formattedDate = FORMATTED_DATES.getIfPresent(time);
+
+        if (formattedDate == null) {
+            formattedDate = FORMATTER.format(LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault()));
+            FORMATTED_DATES.put(time, formattedDate);
+        }
+
+        return formattedDate;
+    }
+
+    /**
+     * Converts an {@code amount} into cents, rounding it to 2 decimals if needed.
+     *
+     * @param amount Amount to convert
+     * @return Amount in cents
+     */
+    public static long toCents(BigDecimal amount) {
+        BigDecimal scaledAmount = amount.scale() == 2 ? amount : amount.setScale(2, RoundingMode.HALF_EVEN);
+        return scaledAmount.unscaledValue().longValue();
+    }
+
+    /**
+     * Converts an amount in {@code cents} into a {@link BigDecimal} with 2 decimals.
+     *
+     * @param cents Amount in cents
+     * @return Amount
+     */
+    public static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
     }
 
     /**
@@ -124,8 +183,12 @@ public class ClassUtils {
      * @return TransactionDto
      */
     public static TransactionDto convertToDto(Transaction transaction) {
-        TransactionDto transactionDto = MODEL_MAPPER.map(transaction, TransactionDto.class);
-        transactionDto.setDate(fromDate(transaction.getDate()));
+        TransactionDto transactionDto = new TransactionDto();
+        transactionDto.setId(transaction.getId());
+        transactionDto.setCustomer(transaction.getCustomer());
+        transactionDto.setDate(transaction.getDate() == null ? null : fromDate(transaction.getDate()));
+        transactionDto.setAmount(transaction.getAmount());
+        transactionDto.setDescription(transaction.getDescription());
         return transactionDto;
     }
 
@@ -1,13 +1,39 @@
 package com.ing.direct.config;
 
+import com.ing.direct.common.cache.CacheStatisticsEndpoint;
+import com.ing.direct.common.cache.CaffeineCacheManager;
+import com.ing.direct.common.cache.CustomerVersionedCache;
+import com.ing.direct.common.cache.InstrumentedCacheManager;
+import com.ing.direct.common.cache.TransactionCacheKeyGenerator;
+import com.ing.direct.common.service.CustomerVersionService;
+import com.ing.direct.transaction.dto.TransactionSummary;
+import com.ing.direct.transaction.model.TransactionPage;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CachingConfigurerSupport;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.interceptor.KeyGenerator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.util.Assert;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import static com.ing.direct.common.utils.ClassUtils.TRANSACTION_SUMMARIES_CACHE_NAME;
 
 /**
  * Configuration class enabling cache features and creating cache components such as the {@link KeyGenerator}.
+ * <p>
+ * <p>The cache regions and the transaction summary cache are Caffeine caches sharing a memory budget, each cached
+ * transaction weighing one unit (see {@link #cacheManager(String[], long, int, long)}). The cache manager is
+ * decorated with an {@link InstrumentedCacheManager} so that customer entries can be evicted one customer at a time
+ * and that the hits, misses and evictions of each cache region are published as metrics.</p>
  *
  * @see EnableCaching
  */
@@ -16,22 +42,145 @@ import org.springframework.context.annotation.Configuration;
 public class CacheConfig extends CachingConfigurerSupport {
 
     /**
-     * Returns a {@link KeyGenerator} instance that can be used by the implementation cache to store elements.
+     * Returns the default {@link KeyGenerator} instance used by the implementation cache to store elements.
      *
      * @return KeyGenerator instance
+     * @see TransactionCacheKeyGenerator
      */
     @Bean
+    @Override
     public KeyGenerator keyGenerator() {
-        return (o, method, objects) -> {
-            // This will generate a unique key of the class name, the method name,
-            // and all method parameters appended.
-            StringBuilder sb = new StringBuilder();
-            sb.append(o.getClass().getName());
-            sb.append(method.getName());
-            for (Object obj : objects) {
-                sb.append(obj.toString());
+        return new TransactionCacheKeyGenerator();
+    }
+
+    /**
+     * Returns the {@link CaffeineCacheManager} of the cache regions. The {@code analytics.cache.memory-budget-mb}
+     * budget is shared evenly by the configured regions and the transaction summary cache, and converted into a
+     * maximum number of cached transactions per cache, each transaction being estimated to use
+     * {@code analytics.cache.transaction-footprint-bytes}.
+     * Regions missing from {@code spring.cache.cache-names} are not created.
+     *
+     * @param cacheNames               Names of the cache regions
+     * @param memoryBudgetMegabytes    Memory budget of all the regions, in megabytes
+     * @param transactionFootprint     Estimated size of a cached transaction, in bytes
+     * @param expireAfterAccessSeconds Time after which unused entries expire, in seconds
+     * @return CacheManager instance
+     * @throws IllegalArgumentException if no region is configured or if the transaction footprint is not positive
+     */
+    @Bean
+    @Profile("!cacheDisabled")
+    public CacheManager cacheManager(
+            @Value("${spring.cache.cache-names:}") String[] cacheNames,
+            @Value("${analytics.cache.memory-budget-mb:64}") long memoryBudgetMegabytes,
+            @Value("${analytics.cache.transaction-footprint-bytes:512}") int transactionFootprint,
+            @Value("${analytics.cache.expire-after-access-seconds:600}") long expireAfterAccessSeconds) {
+
+        Assert.notEmpty(cacheNames, "spring.cache.cache-names must not be empty");
+
+        long maximumWeight = getMaximumWeight(memoryBudgetMegabytes, transactionFootprint, cacheNames.length);
+
+        return new CaffeineCacheManager(Arrays.asList(cacheNames), maximumWeight, CacheConfig::weigh,
+                expireAfterAccessSeconds);
+    }
+
+    /**
+     * Returns the maximum weight of each cache, i.e. the number of transactions fitting in its share of the memory
+     * budget, the budget being shared by the cache regions and the transaction summary cache.
+     */
+    static long getMaximumWeight(long memoryBudgetMegabytes, int transactionFootprint, int regions) {
+        Assert.isTrue(transactionFootprint > 0, "analytics.cache.transaction-footprint-bytes must be positive");
+
+        return memoryBudgetMegabytes * 1024 * 1024 / transactionFootprint / (regions + 1);
+    }
+
+    /**
+     * Returns the weight of a cached value, i.e. its number of transactions and 1 for any other value (e.g a single
+     * transaction, a balance).
+     */
+    static int weigh(Object key, Object value) {
+        if (value instanceof Collection) {
+            return Math.max(1, ((Collection<?>) value).size());
+        }
+        if (value instanceof TransactionSummary && ((TransactionSummary) value).getTransactions() != null) {
+            return Math.max(1, ((TransactionSummary) value).getTransactions().size());
+        }
+        if (value instanceof TransactionPage && ((TransactionPage) value).getTransactions() != null) {
+            return Math.max(1, ((TransactionPage) value).getTransactions().size());
+        }
+        return 1;
+    }
+
+    /**
+     * Returns the actuator endpoint publishing the size, weight and hit rate of the cache regions and of the
+     * transaction summary cache.
+     *
+     * @param cacheManager            Cache manager
+     * @param transactionSummaryCache Transaction summary cache
+     * @return CacheStatisticsEndpoint instance
+     */
+    @Bean
+    public CacheStatisticsEndpoint cacheStatisticsEndpoint(
+            CacheManager cacheManager, CustomerVersionedCache<TransactionSummary> transactionSummaryCache) {
+        return new CacheStatisticsEndpoint(cacheManager, transactionSummaryCache);
+    }
+
+    /**
+     * Returns a {@link BeanPostProcessor} decorating the {@link CacheManager} with an {@link InstrumentedCacheManager}.
+     *
+     * @return BeanPostProcessor instance
+     */
+    @Bean
+    public static BeanPostProcessor instrumentedCacheManagerPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+                return bean;
+            }
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof CacheManager && !(bean instanceof InstrumentedCacheManager)) {
+                    return new InstrumentedCacheManager((CacheManager) bean);
+                }
+                return bean;
             }
-            return sb.toString();
         };
     }
+
+    /**
+     * Returns a {@link PublicMetrics} instance publishing the metrics of every cache region.
+     *
+     * @param cacheManager Cache manager
+     * @return PublicMetrics instance
+     */
+    @Bean
+    public PublicMetrics cacheRegionMetrics(CacheManager cacheManager) {
+        return () -> cacheManager instanceof InstrumentedCacheManager
+                ? ((InstrumentedCacheManager) cacheManager).metrics()
+                : Collections.emptyList();
+    }
+
+    /**
+     * Returns the cache of the {@link TransactionSummary} built for a customer and a month, stamped with the
+     * customer version. The cache is bounded by its share of the {@code analytics.cache.memory-budget-mb} budget,
+     * like the cache regions (see {@link #cacheManager(String[], long, int, long)}).
+     *
+     * @param customerVersionService   Customer version service
+     * @param cacheNames               Names of the cache regions sharing the memory budget
+     * @param memoryBudgetMegabytes    Memory budget of all the caches, in megabytes
+     * @param transactionFootprint     Estimated size of a cached transaction, in bytes
+     * @param expireAfterAccessSeconds Time after which unused entries expire, in seconds
+     * @return CustomerVersionedCache instance
+     */
+    @Bean
+    public CustomerVersionedCache<TransactionSummary> transactionSummaryCache(
+            CustomerVersionService customerVersionService,
+            @Value("${spring.cache.cache-names:}") String[] cacheNames,
+            @Value("${analytics.cache.memory-budget-mb:64}") long memoryBudgetMegabytes,
+            @Value("${analytics.cache.transaction-footprint-bytes:512}") int transactionFootprint,
+            @Value("${analytics.cache.expire-after-access-seconds:600}") long expireAfterAccessSeconds) {
+        return new CustomerVersionedCache<>(TRANSACTION_SUMMARIES_CACHE_NAME, customerVersionService,
+                getMaximumWeight(memoryBudgetMegabytes, transactionFootprint, cacheNames.length), CacheConfig::weigh,
+                expireAfterAccessSeconds);
+    }
 }
@@ -0,0 +1,58 @@
+package com.ing.direct.config;
+
+import com.ing.direct.common.executor.InstrumentedExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Configuration class creating the thread pools used by the request handling paths, so that their size is bounded
+ * and configured through the {@code analytics.*} properties rather than shared with the common pool.
+ */
+@Configuration
+public class ExecutorConfig {
+
+    /**
+     * Returns the {@link ForkJoinPool} building the summaries of the batch summary endpoint. Its parallelism is set
+     * through the {@code analytics.summary-batch.parallelism} property (number of processors if not positive).
+     *
+     * @param parallelism Pool parallelism
+     * @return ForkJoinPool instance
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool summaryBatchPool(@Value("${analytics.summary-batch.parallelism:0}") int parallelism) {
+        return new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Returns the executor running the queries of the asynchronous summary endpoint. Its threads and queue capacity
+     * are set through the {@code analytics.summary-async.io.*} properties.
+     *
+     * @param threads       Number of threads
+     * @param queueCapacity Maximum number of pending queries
+     * @return InstrumentedExecutor instance
+     */
+    @Bean(destroyMethod = "shutdown")
+    public InstrumentedExecutor summaryIoExecutor(@Value("${analytics.summary-async.io.threads:16}") int threads,
+                                                  @Value("${analytics.summary-async.io.queue-capacity:200}") int queueCapacity) {
+        return new InstrumentedExecutor("summaryIo", threads, queueCapacity);
+    }
+
+    /**
+     * Returns the executor running the classification and conversion of the asynchronous summary endpoint. Its
+     * threads (number of processors if not positive) and queue capacity are set through the
+     * {@code analytics.summary-async.cpu.*} properties.
+     *
+     * @param threads       Number of threads
+     * @param queueCapacity Maximum number of pending classifications
+     * @return InstrumentedExecutor instance
+     */
+    @Bean(destroyMethod = "shutdown")
+    public InstrumentedExecutor summaryCpuExecutor(@Value("${analytics.summary-async.cpu.threads:0}") int threads,
+                                                   @Value("${analytics.summary-async.cpu.queue-capacity:100}") int queueCapacity) {
+        return new InstrumentedExecutor("summaryCpu",
+                threads > 0 ? threads : Runtime.getRuntime().availableProcessors(), queueCapacity);
+    }
+}
@@ -0,0 +1,60 @@
+package com.ing.direct.config;
+
+import com.ing.direct.common.mongo.AmountConverters;
+import com.ing.direct.common.mongo.CountingDBDecoder;
+import com.ing.direct.common.mongo.InstrumentedMongoTemplate;
+import com.mongodb.MongoClientOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDbFactory;
+import org.springframework.data.mongodb.core.convert.CustomConversions;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+/**
+ * Configuration class instrumenting the Mongo operations: the client decodes documents with a
+ * {@link CountingDBDecoder} and the template is an {@link InstrumentedMongoTemplate}, replacing the one of the auto
+ * configuration. Amounts are stored in cents through the {@link AmountConverters}.
+ */
+@Configuration
+public class MongoConfig {
+
+    /**
+     * Returns the options of the Mongo client, used by the auto configuration when creating the client.
+     *
+     * @return MongoClientOptions instance
+     */
+    @Bean
+    public MongoClientOptions mongoClientOptions() {
+        return MongoClientOptions
+                .builder()
+                .dbDecoderFactory(CountingDBDecoder.FACTORY)
+                .build();
+    }
+
+    /**
+     * Returns the custom conversions of the mapping converter, storing amounts in cents.
+     *
+     * @return CustomConversions instance
+     */
+    @Bean
+    public CustomConversions customConversions() {
+        return new CustomConversions(AmountConverters.getConverters());
+    }
+
+    /**
+     * Returns the {@link InstrumentedMongoTemplate} used by the repositories and services. Operations slower than
+     * {@code analytics.mongo.slow-query-millis} are logged.
+     *
+     * @param mongoDbFactory  Mongo database factory
+     * @param mongoConverter  Mongo converter
+     * @param slowQueryMillis Slow query threshold, in milliseconds
+     * @return InstrumentedMongoTemplate instance
+     */
+    @Bean
+    public InstrumentedMongoTemplate mongoTemplate(MongoDbFactory mongoDbFactory,
+                                                  MongoConverter mongoConverter,
+                                                  @Value("${analytics.mongo.slow-query-millis:100}") long slowQueryMillis) {
+        return new InstrumentedMongoTemplate(mongoDbFactory, mongoConverter, slowQueryMillis);
+    }
+}
@@ -4,6 +4,8 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.ing.direct.common.security.XssFilter;
+import com.ing.direct.transaction.dto.TransactionSummary;
+import com.ing.direct.transaction.metrics.SummaryLatencyRecorder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.web.ResourceProperties;
 import org.springframework.boot.context.embedded.FilterRegistrationBean;
@@ -13,6 +15,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.core.io.Resource;
 import org.springframework.data.web.config.EnableSpringDataWebSupport;
+import org.springframework.http.HttpOutputMessage;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
@@ -20,6 +23,7 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter
 import org.springframework.web.servlet.resource.PathResourceResolver;
 
 import java.io.IOException;
+import java.lang.reflect.Type;
 
 
 /**
@@ -99,13 +103,29 @@ public class WebConfig extends WebMvcConfigurerAdapter {
      * Returns a Jackson message converter customized with the following parameters:
      * <li> - {@link DeserializationFeature#FAIL_ON_UNKNOWN_PROPERTIES} disabled
      * <li> - {@link SerializationFeature#WRITE_DATES_AS_TIMESTAMPS} disabled
+     * <p>
+     * <p>The serialization of {@link TransactionSummary} responses is timed by the {@link SummaryLatencyRecorder}.</p>
      *
+     * @param summaryLatencyRecorder Summary latency recorder
      * @return MappingJackson2HttpMessageConverter
      */
     @Bean
     @Primary
-    public MappingJackson2HttpMessageConverter jacksonConvertor() {
-        MappingJackson2HttpMessageConverter converter = new MappingJackson2HttpMessageConverter();
+    public MappingJackson2HttpMessageConverter jacksonConvertor(SummaryLatencyRecorder summaryLatencyRecorder) {
+        MappingJackson2HttpMessageConverter converter = new MappingJackson2HttpMessageConverter() {
+            @Override
+            protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+                if (!(object instanceof TransactionSummary)) {
+                    super.writeInternal(object, type, outputMessage);
+                    return;
+                }
+
+                long start = summaryLatencyRecorder.start();
+                super.writeInternal(object, type, outputMessage);
+                summaryLatencyRecorder.record(SummaryLatencyRecorder.Stage.SERIALIZATION,
+                        ((TransactionSummary) object).getTransactions().size(), start);
+            }
+        };
         ObjectMapper mapper = new ObjectMapper();
         mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
         mapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
@@ -0,0 +1,60 @@
+package com.ing.direct.transaction.controller;
+
+import com.ing.direct.transaction.job.CustomerMonthRollupReconciliationJob;
+import com.ing.direct.transaction.repository.CustomerMonthRollupRepository;
+import com.ing.direct.transaction.repository.RollupConsistencyReport;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Admin controller class rebuilding the customer month rollups and checking their consistency with the transactions
+ * collection.
+ * <p>
+ * <p>The application not authenticating its callers, the controller is only registered if the
+ * {@code analytics.admin.rollups.enabled} property is {@code true} (e.g for a maintenance window). Rollups are
+ * otherwise reconciled by the {@link CustomerMonthRollupReconciliationJob}.</p>
+ *
+ * @see CustomerMonthRollupRepository
+ * @see CustomerMonthRollupReconciliationJob
+ */
+@RestController
+@RequestMapping("/admin/rollups")
+@ConditionalOnProperty(name = "analytics.admin.rollups.enabled", havingValue = "true")
+public class CustomerMonthRollupController {
+
+    private final CustomerMonthRollupRepository customerMonthRollupRepository;
+
+    @Autowired
+    public CustomerMonthRollupController(CustomerMonthRollupRepository customerMonthRollupRepository) {
+        this.customerMonthRollupRepository = customerMonthRollupRepository;
+    }
+
+    /**
+     * Recomputes every customer month rollup from the transactions collection (e.g after a deployment on an existing
+     * transactions collection).
+     *
+     * @return 204 once the rollups are rebuilt
+     */
+    @RequestMapping(value = "/rebuild", method = RequestMethod.POST)
+    public ResponseEntity<Void> rebuild() {
+        customerMonthRollupRepository.rebuild();
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Compares every customer month rollup with the transactions collection.
+     *
+     * @return Consistency report
+     */
+    @RequestMapping(value = "/consistency", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public ResponseEntity<RollupConsistencyReport> checkConsistency() {
+        return ResponseEntity
+                .ok()
+                .body(customerMonthRollupRepository.checkConsistency());
+    }
+}
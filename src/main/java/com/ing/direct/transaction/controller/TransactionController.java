@@ -1,34 +1,74 @@
 package com.ing.direct.transaction.controller;
 
-import com.ing.direct.transaction.dto.TransactionDto;
+import com.google.common.base.Throwables;
+import com.ing.direct.common.cache.CustomerVersionedCache;
+import com.ing.direct.common.executor.InstrumentedExecutor;
 import com.ing.direct.transaction.dto.TransactionSummary;
+import com.ing.direct.transaction.dto.TransactionSummaryBatch;
+import com.ing.direct.transaction.dto.TransactionSummaryBatchRequest;
+import com.ing.direct.transaction.exception.InvalidParameterException;
+import com.ing.direct.transaction.exception.SummaryUnavailableException;
 import com.ing.direct.transaction.exception.TransactionNotFoundException;
+import com.ing.direct.transaction.metrics.SummaryLatencyRecorder;
 import com.ing.direct.transaction.model.Transaction;
+import com.ing.direct.transaction.model.TransactionBatch;
 import com.ing.direct.transaction.service.ClassificationEnum;
 import com.ing.direct.transaction.service.ClassificationService;
+import com.ing.direct.transaction.service.ClassificationStatistics;
 import com.ing.direct.transaction.service.TransactionService;
+import com.netflix.hystrix.exception.HystrixRuntimeException;
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang3.tuple.Pair;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.time.temporal.TemporalAdjusters;
+import java.util.Date;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 import static com.ing.direct.common.utils.ClassUtils.*;
+import static com.ing.direct.transaction.metrics.SummaryLatencyRecorder.Stage.*;
 
 /**
  * Transaction controller class defining the HTTP operations available for the {@link Transaction} resource. This controller
  * is mainly used to return a customer transaction summary including its classification.
+ * <p>
+ * <p>Built summaries are cached per customer and month in a {@link CustomerVersionedCache}, so that repeated reads
+ * skip the queries, the classification and the DTO conversion until a transaction of the customer is written.</p>
+ * <p>
+ * <p>Summaries of several customers are built by the batch endpoint from a single query, their classification and
+ * conversion being run in parallel on the bounded {@code summaryBatchPool}.</p>
+ * <p>
+ * <p>The asynchronous summary endpoint releases the request thread while the summary is built: queries run on the
+ * {@code summaryIoExecutor} and the classification on the {@code summaryCpuExecutor}, both bounded, so that a few
+ * expensive customers cannot hold every request thread. Requests rejected by a saturated executor or not completed
+ * within {@code analytics.summary-async.timeout-millis} are answered with a 503 status.</p>
+ * <p>
+ * <p>While the transaction reads fail (see {@link HystrixRuntimeException}), single customer summaries are served from
+ * the last known summary of the cache, flagged as stale.</p>
+ * <p>
+ * <p>The stages of the summary requests (queries, statistics, classification, conversion) are timed by the
+ * {@link SummaryLatencyRecorder}.</p>
  *
  * @see Transaction
  * @see TransactionSummary
@@ -43,10 +83,37 @@ public class TransactionController {
 
     private final ClassificationService classificationService;
 
+    private final CustomerVersionedCache<TransactionSummary> transactionSummaryCache;
+
+    private final ForkJoinPool summaryBatchPool;
+
+    private final InstrumentedExecutor summaryIoExecutor;
+
+    private final InstrumentedExecutor summaryCpuExecutor;
+
+    private final SummaryLatencyRecorder latencyRecorder;
+
+    @Value("${analytics.summary-batch.max-customers:" + DEFAULT_SUMMARY_BATCH_MAX_CUSTOMERS + "}")
+    private int maxBatchCustomers = DEFAULT_SUMMARY_BATCH_MAX_CUSTOMERS;
+
+    @Value("${analytics.summary-async.timeout-millis:" + DEFAULT_SUMMARY_ASYNC_TIMEOUT_MILLIS + "}")
+    private long asyncTimeoutMillis = DEFAULT_SUMMARY_ASYNC_TIMEOUT_MILLIS;
+
     @Autowired
-    public TransactionController(TransactionService transactionService, ClassificationService classificationService) {
+    public TransactionController(TransactionService transactionService,
+                                 ClassificationService classificationService,
+                                 CustomerVersionedCache<TransactionSummary> transactionSummaryCache,
+                                 @Qualifier("summaryBatchPool") ForkJoinPool summaryBatchPool,
+                                 @Qualifier("summaryIoExecutor") InstrumentedExecutor summaryIoExecutor,
+                                 @Qualifier("summaryCpuExecutor") InstrumentedExecutor summaryCpuExecutor,
+                                 SummaryLatencyRecorder latencyRecorder) {
         this.transactionService = transactionService;
         this.classificationService = classificationService;
+        this.transactionSummaryCache = transactionSummaryCache;
+        this.summaryBatchPool = summaryBatchPool;
+        this.summaryIoExecutor = summaryIoExecutor;
+        this.summaryCpuExecutor = summaryCpuExecutor;
+        this.latencyRecorder = latencyRecorder;
     }
 
     /**
@@ -60,21 +127,19 @@ public class TransactionController {
     @RequestMapping(value = "/{customerId}/{month}", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
     public ResponseEntity<TransactionSummary> findByCustomerIdMonth(@PathVariable("customerId") String customerId, @PathVariable("month") String month) {
 
-        List<Transaction> transactions = transactionService.findByCustomerId(validateCustomerId(customerId));
-        List<Transaction> monthlyTransactions = getMonthlyTransactions(transactions, validateMonth(month));
+        long start = latencyRecorder.start();
+        Pair<Date, Date> monthRange = toStartEndDate(validateMonth(month));
+        validateCustomerId(customerId);
 
-        if (CollectionUtils.isEmpty(transactions) || CollectionUtils.isEmpty(monthlyTransactions)) {
-            throw new TransactionNotFoundException(customerId);
+        TransactionSummary transactionSummary;
+        try {
+            transactionSummary = transactionSummaryCache.get(customerId, month,
+                    () -> buildTransactionSummary(customerId, month, monthRange));
+        } catch (HystrixRuntimeException e) {
+            transactionSummary = getStaleTransactionSummary(customerId, month).orElseThrow(() -> e);
         }
 
-        TransactionSummary transactionSummary = TransactionSummary
-                .builder()
-                .customerId(customerId)
-                .month(month)
-                .currentBalance(getCurrentBalance(transactions))
-                .classification(getClassification(monthlyTransactions))
-                .transactions(convertToTransactionDtos(monthlyTransactions))
-                .build();
+        latencyRecorder.record(TOTAL, transactionSummary.getTransactions().size(), start);
 
         return ResponseEntity
                 .ok()
@@ -82,57 +147,284 @@ public class TransactionController {
     }
 
     /**
-     * Converts a list of transactions to its Dto representation.
+     * Returns asynchronously the transaction summary of a given {@code customerId} and {@code month} parameters.
      *
-     * @param transactions List of transactions to convert
-     * @return List of TransactionDtos
+     * @param customerId Customer identifier
+     * @param month      Month
+     * @return Deferred transaction summary for the given customer
+     * @throws TransactionNotFoundException if no transaction for the given customerId and month can be found
+     * @throws SummaryUnavailableException  if the summary executors are saturated or the summary is not built in time
      */
-    private List<TransactionDto> convertToTransactionDtos(List<Transaction> transactions) {
-        return transactions.stream()
-                .map(transaction -> convertToDto(transaction))
-                .collect(Collectors.toList());
+    @RequestMapping(value = "/async/{customerId}/{month}", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public DeferredResult<ResponseEntity<TransactionSummary>> findByCustomerIdMonthAsync(@PathVariable("customerId") String customerId, @PathVariable("month") String month) {
+
+        long start = latencyRecorder.start();
+        Pair<Date, Date> monthRange = toStartEndDate(validateMonth(month));
+        validateCustomerId(customerId);
+
+        DeferredResult<ResponseEntity<TransactionSummary>> result = new DeferredResult<>(asyncTimeoutMillis);
+        result.onTimeout(() -> result.setErrorResult(
+                new SummaryUnavailableException(customerId, "not built within " + asyncTimeoutMillis + "ms")));
+
+        CompletableFuture<TransactionSummary> transactionSummary;
+        try {
+            transactionSummary = transactionSummaryCache.getAsync(customerId, month,
+                    () -> buildTransactionSummaryAsync(customerId, month, monthRange));
+        } catch (RejectedExecutionException e) {
+            transactionSummary = new CompletableFuture<>();
+            transactionSummary.completeExceptionally(e);
+        }
+
+        transactionSummary.whenComplete((summary, error) -> {
+            if (error == null) {
+                latencyRecorder.record(TOTAL, summary.getTransactions().size(), start);
+                result.setResult(ResponseEntity.ok().body(summary));
+                return;
+            }
+
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            Optional<TransactionSummary> staleSummary = cause instanceof HystrixRuntimeException
+                    ? getStaleTransactionSummary(customerId, month)
+                    : Optional.empty();
+
+            if (staleSummary.isPresent()) {
+                latencyRecorder.record(TOTAL, staleSummary.get().getTransactions().size(), start);
+                result.setResult(ResponseEntity.ok().body(staleSummary.get()));
+            } else {
+                result.setErrorResult(cause instanceof RejectedExecutionException
+                        ? new SummaryUnavailableException(customerId, cause.getMessage())
+                        : cause);
+            }
+        });
+
+        return result;
     }
 
     /**
-     * Returns the classification label according to the list of transactions passed as argument.
+     * Returns the classification of a given {@code customerId} and {@code month} parameters. Unlike the transaction
+     * summary, the classification is computed from the customer month rollup without reading the transactions of the
+     * month, unless needed to resolve the fast spender classification. The reads of the rollup and transactions are
+     * timed as the {@link SummaryLatencyRecorder.Stage#FETCH} stage and the classification itself as the
+     * {@link SummaryLatencyRecorder.Stage#CLASSIFICATION} stage.
      *
-     * @param transactions List of transactions
-     * @return Customer classification label
+     * @param customerId Customer identifier
+     * @param month      Month
+     * @return Customer classification labels
+     * @throws TransactionNotFoundException if no transaction for the given customerId and month can be found
      */
-    private List<ClassificationEnum> getClassification(List<Transaction> transactions) {
-        return classificationService.classifyCustomer(transactions);
+    @RequestMapping(value = "/{customerId}/{month}/classification", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public ResponseEntity<List<ClassificationEnum>> findClassificationByCustomerIdMonth(@PathVariable("customerId") String customerId, @PathVariable("month") String month) {
+
+        long start = latencyRecorder.start();
+        int monthNumber = validateMonth(month);
+        validateCustomerId(customerId);
+
+        ClassificationStatistics statistics = transactionService
+                .getMonthlyStatistics(customerId, monthNumber)
+                .orElseThrow(() -> new TransactionNotFoundException(customerId));
+        int size = (int) statistics.getTotalTransactions();
+        latencyRecorder.record(FETCH, size, start);
+
+        start = latencyRecorder.start();
+        List<ClassificationEnum> classification = classificationService.classifyCustomer(statistics);
+        latencyRecorder.record(CLASSIFICATION, size, start);
+
+        return ResponseEntity
+                .ok()
+                .body(classification);
     }
 
     /**
-     * Returns the total balance given the list of transactions passed as argument.
+     * Returns the transaction summaries of several customers for a given month. The transactions of every customer
+     * are fetched with a single query and grouped by customer, then the summaries are built in parallel.
      *
-     * @param transactions List of transactions
-     * @return Total balance
+     * @param request Customer identifiers and month
+     * @return Transaction summaries of the customers having transactions during the month
+     * @throws InvalidParameterException if the month, a customer identifier or the number of customers is invalid
      */
-    private double getCurrentBalance(List<Transaction> transactions) {
-        return BigDecimal.valueOf(transactions.stream().mapToDouble(t -> t.getAmount().doubleValue()).sum())
-                .setScale(2, RoundingMode.CEILING)
-                .doubleValue();
+    @RequestMapping(value = "/batch", method = RequestMethod.POST, consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public ResponseEntity<TransactionSummaryBatch> findByCustomerIdsMonth(@RequestBody TransactionSummaryBatchRequest request) {
+
+        String month = request.getMonth();
+        Pair<Date, Date> monthRange = toStartEndDate(validateMonth(month));
+        Set<String> customerIds = validateCustomerIds(request.getCustomerIds());
+
+        Map<String, List<Transaction>> monthlyTransactions = transactionService.findByCustomerIdsAndDate(
+                customerIds, monthRange.getLeft(), monthRange.getRight());
+        Map<String, BigDecimal> balances = transactionService.getBalances(monthlyTransactions.keySet());
+
+        List<TransactionSummary> summaries = runOnSummaryBatchPool(() -> customerIds
+                .parallelStream()
+                .filter(monthlyTransactions::containsKey)
+                .map(customerId -> toTransactionSummary(customerId, month,
+                        monthlyTransactions.get(customerId), balances.get(customerId)))
+                .collect(Collectors.toList()));
+
+        return ResponseEntity
+                .ok()
+                .body(TransactionSummaryBatch
+                        .builder()
+                        .month(month)
+                        .summaries(summaries)
+                        .notFound(customerIds
+                                .stream()
+                                .filter(customerId -> !monthlyTransactions.containsKey(customerId))
+                                .collect(Collectors.toList()))
+                        .build());
     }
 
     /**
-     * Returns the related monthly transactions from an input list of transactions.
+     * Validates the customer identifiers of a batch request, removing duplicates.
      *
-     * @param transactions List of transactions
-     * @param month        Month filter
-     * @return Monthly transactions
+     * @param customerIds Customer identifiers
+     * @return Distinct customer identifiers, in request order
+     * @throws InvalidParameterException if there is no identifier, too many or an invalid one
      */
-    private List<Transaction> getMonthlyTransactions(List<Transaction> transactions, int month) {
+    private Set<String> validateCustomerIds(List<String> customerIds) {
+
+        if (CollectionUtils.isEmpty(customerIds) || customerIds.size() > maxBatchCustomers) {
+            throw new InvalidParameterException("customerIds",
+                    customerIds == null ? null : customerIds.size() + " customers");
+        }
 
-        LocalDateTime firstDayOfMonthDate = LocalDateTime.of(2016, month, 1, 0, 0, 0);
-        LocalDateTime lastDayOfMonthDate = firstDayOfMonthDate.with(TemporalAdjusters.lastDayOfMonth()).plusDays(1);
+        customerIds.forEach(customerId -> validateCustomerId(customerId));
 
-        return transactions
-                .stream()
-                .filter(t -> t.getDate().toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime().isAfter(firstDayOfMonthDate)
-                        && t.getDate().toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime().isBefore(lastDayOfMonthDate))
-                .collect(Collectors.toList());
+        return new LinkedHashSet<>(customerIds);
+    }
+
+    /**
+     * Runs a task on the summary batch pool, so that the parallel streams it creates use the pool workers rather than
+     * the common pool.
+     */
+    private <T> T runOnSummaryBatchPool(Callable<T> task) {
+        try {
+            return summaryBatchPool.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while building transaction summaries", e);
+        } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
 
+    /**
+     * Builds the transaction summary of a given {@code customerId} and {@code month}.
+     *
+     * @param customerId Customer identifier
+     * @param month      Month
+     * @param monthRange Start and end dates of the month
+     * @return Transaction summary for the given customer
+     * @throws TransactionNotFoundException if no transaction for the given customerId and month can be found
+     */
+    private TransactionSummary buildTransactionSummary(String customerId, String month, Pair<Date, Date> monthRange) {
+
+        long start = latencyRecorder.start();
+        List<Transaction> monthlyTransactions = transactionService.findByCustomerIdAndDate(
+                customerId, monthRange.getLeft(), monthRange.getRight());
+        int size = monthlyTransactions == null ? 0 : monthlyTransactions.size();
+        latencyRecorder.record(FETCH, size, start);
+
+        if (CollectionUtils.isEmpty(monthlyTransactions)) {
+            throw new TransactionNotFoundException(customerId);
+        }
+
+        start = latencyRecorder.start();
+        BigDecimal balance = transactionService.getBalance(customerId);
+        latencyRecorder.record(BALANCE, size, start);
+
+        return toTransactionSummary(customerId, month, monthlyTransactions, balance);
+    }
+
+    /**
+     * Builds asynchronously the transaction summary of a given {@code customerId} and {@code month}, querying the
+     * transactions and balance on the {@code summaryIoExecutor} then classifying them on the
+     * {@code summaryCpuExecutor}.
+     *
+     * @param customerId Customer identifier
+     * @param month      Month
+     * @param monthRange Start and end dates of the month
+     * @return Future of the transaction summary, completed with a {@link TransactionNotFoundException} if no
+     * transaction for the given customerId and month can be found
+     * @throws RejectedExecutionException if the {@code summaryIoExecutor} is saturated
+     */
+    private CompletableFuture<TransactionSummary> buildTransactionSummaryAsync(String customerId, String month,
+                                                                              Pair<Date, Date> monthRange) {
+        return CompletableFuture
+                .supplyAsync(() -> {
+                    List<Transaction> monthlyTransactions = transactionService.findByCustomerIdAndDate(
+                            customerId, monthRange.getLeft(), monthRange.getRight());
+
+                    if (CollectionUtils.isEmpty(monthlyTransactions)) {
+                        throw new TransactionNotFoundException(customerId);
+                    }
+
+                    return Pair.of(monthlyTransactions, transactionService.getBalance(customerId));
+                }, summaryIoExecutor)
+                .thenApplyAsync(monthly -> toTransactionSummary(customerId, month,
+                        monthly.getLeft(), monthly.getRight()), summaryCpuExecutor);
+    }
+
+    /**
+     * Returns the last known transaction summary of a given {@code customerId} and {@code month}, flagged as stale.
+     *
+     * @param customerId Customer identifier
+     * @param month      Month
+     * @return Optional stale transaction summary, empty if no summary has been cached
+     */
+    private Optional<TransactionSummary> getStaleTransactionSummary(String customerId, String month) {
+        return transactionSummaryCache
+                .getLastKnown(customerId, month)
+                .map(summary -> TransactionSummary
+                        .builder()
+                        .customerId(summary.getCustomerId())
+                        .month(summary.getMonth())
+                        .currentBalance(summary.getCurrentBalance())
+                        .classification(summary.getClassification())
+                        .transactions(summary.getTransactions())
+                        .stale(true)
+                        .build());
+    }
+
+    /**
+     * Builds the transaction summary of a given {@code customerId} and {@code month} from its monthly transactions
+     * and current balance, timing the statistics and classification stages.
+     *
+     * @param customerId          Customer identifier
+     * @param month               Month
+     * @param monthlyTransactions Transactions of the month
+     * @param balance             Current balance
+     * @return Transaction summary for the given customer
+     */
+    private TransactionSummary toTransactionSummary(String customerId, String month,
+                                                    List<Transaction> monthlyTransactions, BigDecimal balance) {
+        int size = monthlyTransactions.size();
+
+        long start = latencyRecorder.start();
+        TransactionBatch batch = TransactionBatch.of(monthlyTransactions);
+        latencyRecorder.record(BATCH, size, start);
+
+        start = latencyRecorder.start();
+        List<ClassificationEnum> classification = getClassification(batch);
+        latencyRecorder.record(CLASSIFICATION, size, start);
+
+        return TransactionSummary
+                .builder()
+                .customerId(customerId)
+                .month(month)
+                .currentBalance(balance.doubleValue())
+                .classification(classification)
+                .transactions(monthlyTransactions)
+                .build();
+    }
+
+    /**
+     * Returns the classification label according to the batch of transactions passed as argument.
+     *
+     * @param transactions Batch of transactions
+     * @return Customer classification label
+     */
+    private List<ClassificationEnum> getClassification(TransactionBatch transactions) {
+        return classificationService.classifyCustomer(transactions);
     }
 
 }
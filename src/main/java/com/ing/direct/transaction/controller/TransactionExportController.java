@@ -0,0 +1,54 @@
+package com.ing.direct.transaction.controller;
+
+import com.ing.direct.transaction.dto.TransactionSummary;
+import com.ing.direct.transaction.exception.InvalidParameterException;
+import com.ing.direct.transaction.export.TransactionSummaryExporter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import static com.ing.direct.common.utils.ClassUtils.validateMonth;
+
+/**
+ * Export controller class streaming the {@link TransactionSummary} of every customer for a given month as
+ * newline-delimited JSON, e.g to feed a data warehouse.
+ *
+ * @see TransactionSummaryExporter
+ */
+@RestController
+@RequestMapping("/transaction-summary/export")
+public class TransactionExportController {
+
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    private final TransactionSummaryExporter transactionSummaryExporter;
+
+    @Autowired
+    public TransactionExportController(TransactionSummaryExporter transactionSummaryExporter) {
+        this.transactionSummaryExporter = transactionSummaryExporter;
+    }
+
+    /**
+     * Streams the transaction summaries of every customer having transactions during {@code month}, one JSON
+     * document per line. The response is written from an async request thread as the summaries are built.
+     *
+     * @param month Month
+     * @return Streaming response body
+     * @throws InvalidParameterException if the month is invalid
+     */
+    @RequestMapping(method = RequestMethod.GET, produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportTransactionSummaries(@RequestParam("month") String month) {
+
+        int monthNumber = validateMonth(month);
+
+        return ResponseEntity
+                .ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .body(outputStream -> transactionSummaryExporter.export(monthNumber, outputStream));
+    }
+}
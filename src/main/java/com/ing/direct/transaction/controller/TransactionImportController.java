@@ -0,0 +1,64 @@
+package com.ing.direct.transaction.controller;
+
+import com.ing.direct.transaction.exception.ImportInProgressException;
+import com.ing.direct.transaction.exception.InvalidParameterException;
+import com.ing.direct.transaction.importer.ImportProgress;
+import com.ing.direct.transaction.importer.TransactionImporter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Admin controller class starting transaction imports and reporting their progress.
+ * <p>
+ * <p>The application not authenticating its callers, the controller is only registered if the
+ * {@code analytics.admin.import.enabled} property is {@code true} (e.g for the time of an import).</p>
+ *
+ * @see TransactionImporter
+ * @see ImportProgress
+ */
+@RestController
+@RequestMapping("/admin/import")
+@ConditionalOnProperty(name = "analytics.admin.import.enabled", havingValue = "true")
+public class TransactionImportController {
+
+    private final TransactionImporter transactionImporter;
+
+    @Autowired
+    public TransactionImportController(TransactionImporter transactionImporter) {
+        this.transactionImporter = transactionImporter;
+    }
+
+    /**
+     * Starts importing the transactions of the file located at {@code location} in the background.
+     *
+     * @param location File path relative to the {@code analytics.import.directory} directory (e.g
+     *                 {@code transactions.csv})
+     * @return Progress of the started import
+     * @throws InvalidParameterException in case the location is not a file of the import directory
+     * @throws ImportInProgressException in case another import is running
+     */
+    @RequestMapping(method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public ResponseEntity<ImportProgress> startImport(@RequestParam("location") String location) {
+        return ResponseEntity
+                .accepted()
+                .body(transactionImporter.startImport(location));
+    }
+
+    /**
+     * Returns the progress of the last import.
+     *
+     * @return Progress of the last import, or 404 if no import has been run
+     */
+    @RequestMapping(method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public ResponseEntity<ImportProgress> getLastImport() {
+        return transactionImporter.getLastImport()
+                .map(progress -> ResponseEntity.ok().body(progress))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
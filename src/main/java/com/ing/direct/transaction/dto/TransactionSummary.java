@@ -1,5 +1,7 @@
 package com.ing.direct.transaction.dto;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.ing.direct.transaction.model.Transaction;
 import com.ing.direct.transaction.service.ClassificationEnum;
 import lombok.Builder;
 import lombok.Data;
@@ -9,16 +11,25 @@ import java.util.List;
 /**
  * Transaction Summary DTO class gathering customer transaction details including {@link #customerId}, {@link #month}
  * {@link #classification} and {@link #transactions}.
+ * <p>
+ * <p>The transactions are held as {@link Transaction} and written by the {@link TransactionSummarySerializer} in the
+ * {@link TransactionDto} representation, without building the intermediate DTOs.</p>
+ * <p>
+ * <p>A summary served from the last known summaries while the transactions cannot be read is flagged as
+ * {@link #stale}.</p>
  *
  * @see TransactionDto
  * @see ClassificationEnum
+ * @see TransactionSummarySerializer
  */
 @Data
 @Builder
+@JsonSerialize(using = TransactionSummarySerializer.class)
 public class TransactionSummary {
     private String customerId;
     private String month;
     private double currentBalance;
     private List<ClassificationEnum> classification;
-    private List<TransactionDto> transactions;
+    private List<Transaction> transactions;
+    private boolean stale;
 }
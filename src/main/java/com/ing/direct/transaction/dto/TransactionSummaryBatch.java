@@ -0,0 +1,21 @@
+package com.ing.direct.transaction.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Transaction summary batch DTO class gathering the {@link #summaries} of the requested customers having
+ * transactions during {@link #month}, the other ones being listed in {@link #notFound}.
+ *
+ * @see TransactionSummary
+ * @see TransactionSummaryBatchRequest
+ */
+@Data
+@Builder
+public class TransactionSummaryBatch {
+    private String month;
+    private List<TransactionSummary> summaries;
+    private List<String> notFound;
+}
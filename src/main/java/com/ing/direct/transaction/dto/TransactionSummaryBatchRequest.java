@@ -0,0 +1,17 @@
+package com.ing.direct.transaction.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Transaction summary batch request DTO class gathering the {@link #customerIds} whose summary of a given
+ * {@link #month} is requested.
+ *
+ * @see TransactionSummaryBatch
+ */
+@Data
+public class TransactionSummaryBatchRequest {
+    private List<String> customerIds;
+    private String month;
+}
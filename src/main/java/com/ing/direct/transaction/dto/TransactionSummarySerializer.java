@@ -0,0 +1,76 @@
+package com.ing.direct.transaction.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.ing.direct.transaction.model.Transaction;
+import com.ing.direct.transaction.service.ClassificationEnum;
+
+import java.io.IOException;
+
+import static com.ing.direct.common.utils.ClassUtils.fromDate;
+
+/**
+ * Jackson serializer writing a {@link TransactionSummary} field by field, its transactions being written straight
+ * from the {@link Transaction} objects in the {@link TransactionDto} representation. The output is the same as the
+ * default bean serialization of a summary holding {@link TransactionDto}, without any reflection nor intermediate
+ * object. The {@code stale} flag is only written on stale summaries.
+ *
+ * @see TransactionSummary
+ */
+public class TransactionSummarySerializer extends StdSerializer<TransactionSummary> {
+
+    public TransactionSummarySerializer() {
+        super(TransactionSummary.class);
+    }
+
+    @Override
+    public void serialize(TransactionSummary summary, JsonGenerator generator, SerializerProvider provider)
+            throws IOException {
+
+        generator.writeStartObject();
+        generator.writeStringField("customerId", summary.getCustomerId());
+        generator.writeStringField("month", summary.getMonth());
+        generator.writeNumberField("currentBalance", summary.getCurrentBalance());
+
+        if (summary.getClassification() == null) {
+            generator.writeNullField("classification");
+        } else {
+            generator.writeArrayFieldStart("classification");
+            for (ClassificationEnum classification : summary.getClassification()) {
+                generator.writeString(classification.name());
+            }
+            generator.writeEndArray();
+        }
+
+        if (summary.getTransactions() == null) {
+            generator.writeNullField("transactions");
+        } else {
+            generator.writeArrayFieldStart("transactions");
+            for (Transaction transaction : summary.getTransactions()) {
+                writeTransaction(transaction, generator);
+            }
+            generator.writeEndArray();
+        }
+
+        if (summary.isStale()) {
+            generator.writeBooleanField("stale", true);
+        }
+
+        generator.writeEndObject();
+    }
+
+    /**
+     * Writes a transaction as its {@link TransactionDto} representation, the date being formatted with
+     * {@link com.ing.direct.common.utils.ClassUtils#fromDate}.
+     */
+    private void writeTransaction(Transaction transaction, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("id", transaction.getId());
+        generator.writeStringField("customer", transaction.getCustomer());
+        generator.writeStringField("date", transaction.getDate() == null ? null : fromDate(transaction.getDate()));
+        generator.writeNumberField("amount", transaction.getAmount());
+        generator.writeStringField("description", transaction.getDescription());
+        generator.writeEndObject();
+    }
+}
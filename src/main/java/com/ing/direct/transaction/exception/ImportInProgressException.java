@@ -0,0 +1,16 @@
+package com.ing.direct.transaction.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception thrown when a transaction import is requested while another one is still running.
+ *
+ * @see HttpStatus
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ImportInProgressException extends RuntimeException {
+    public ImportInProgressException(String location) {
+        super("An import is already running, cannot import location:" + location);
+    }
+}
@@ -0,0 +1,16 @@
+package com.ing.direct.transaction.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception thrown when a transaction summary cannot be built in time because its executors are saturated.
+ *
+ * @see HttpStatus
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class SummaryUnavailableException extends RuntimeException {
+    public SummaryUnavailableException(String customerId, String reason) {
+        super("Transaction summary temporarily unavailable for customer id:" + customerId + ", " + reason);
+    }
+}
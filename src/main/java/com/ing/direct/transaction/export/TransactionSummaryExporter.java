@@ -0,0 +1,165 @@
+package com.ing.direct.transaction.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import com.google.common.collect.PeekingIterator;
+import com.ing.direct.transaction.dto.TransactionSummary;
+import com.ing.direct.transaction.model.CustomerBalance;
+import com.ing.direct.transaction.model.Transaction;
+import com.ing.direct.transaction.model.TransactionBatch;
+import com.ing.direct.transaction.repository.CustomerBalanceRepository;
+import com.ing.direct.transaction.repository.TransactionRepository;
+import com.ing.direct.transaction.service.ClassificationService;
+import org.apache.commons.lang3.tuple.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static com.ing.direct.common.utils.ClassUtils.fromCents;
+import static com.ing.direct.common.utils.ClassUtils.toStartEndDate;
+
+/**
+ * Export engine writing the {@link TransactionSummary} of every customer for a given month as newline-delimited
+ * JSON (one summary per line).
+ * <p>
+ * <p>The transactions of the month are read through a single cursor sorted by customer then date, so that the
+ * transactions of a customer are contiguous: each summary is built and written as soon as the cursor moves to the
+ * next customer, and the memory used is bounded by the transactions of one customer whatever the size of the
+ * collection. Balances are read through a second cursor over the running balances, walked in the same customer
+ * order.</p>
+ *
+ * @see TransactionRepository#streamByDateOrderByCustomer(Date, Date)
+ * @see CustomerBalanceRepository#streamBalances()
+ */
+@Component
+public class TransactionSummaryExporter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TransactionSummaryExporter.class);
+
+    private final TransactionRepository transactionRepository;
+    private final CustomerBalanceRepository customerBalanceRepository;
+    private final ClassificationService classificationService;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public TransactionSummaryExporter(TransactionRepository transactionRepository,
+                                      CustomerBalanceRepository customerBalanceRepository,
+                                      ClassificationService classificationService,
+                                      ObjectMapper objectMapper) {
+        this.transactionRepository = transactionRepository;
+        this.customerBalanceRepository = customerBalanceRepository;
+        this.classificationService = classificationService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes the transaction summary of every customer having transactions during {@code month} to
+     * {@code outputStream}, one JSON document per line. The stream is flushed after each summary but not closed.
+     *
+     * @param month        Month
+     * @param outputStream Output stream
+     * @return Number of summaries written
+     * @throws IOException in case the output stream cannot be written
+     */
+    public long export(int month, OutputStream outputStream) throws IOException {
+
+        LOG.info("start exporting transaction summaries [month:{}]", month);
+
+        Pair<Date, Date> monthRange = toStartEndDate(month);
+        String monthValue = String.valueOf(month);
+        long exported = 0;
+
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+
+        CloseableIterator<Transaction> transactions = transactionRepository
+                .streamByDateOrderByCustomer(monthRange.getLeft(), monthRange.getRight());
+        CloseableIterator<CustomerBalance> balanceCursor = customerBalanceRepository.streamBalances();
+
+        try {
+            PeekingIterator<CustomerBalance> balances = Iterators.peekingIterator(balanceCursor);
+            List<Transaction> customerTransactions = new ArrayList<>();
+
+            while (transactions.hasNext()) {
+                Transaction transaction = transactions.next();
+
+                if (!customerTransactions.isEmpty()
+                        && !customerTransactions.get(0).getCustomer().equals(transaction.getCustomer())) {
+                    write(generator, toTransactionSummary(monthValue, customerTransactions, balances));
+                    exported++;
+                    customerTransactions = new ArrayList<>();
+                }
+
+                customerTransactions.add(transaction);
+            }
+
+            if (!customerTransactions.isEmpty()) {
+                write(generator, toTransactionSummary(monthValue, customerTransactions, balances));
+                exported++;
+            }
+        } finally {
+            balanceCursor.close();
+            transactions.close();
+            generator.close();
+        }
+
+        LOG.info("end of transaction summaries export [month:{}, summaries:{}]", month, exported);
+
+        return exported;
+    }
+
+    private void write(JsonGenerator generator, TransactionSummary transactionSummary) throws IOException {
+        objectMapper.writeValue(generator, transactionSummary);
+        generator.writeRaw('\n');
+        generator.flush();
+    }
+
+    /**
+     * Builds the summary of a customer from its transactions, sorted by ascending date.
+     */
+    private TransactionSummary toTransactionSummary(String month,
+                                                    List<Transaction> customerTransactions,
+                                                    PeekingIterator<CustomerBalance> balances) {
+
+        String customerId = customerTransactions.get(0).getCustomer();
+        List<Transaction> monthlyTransactions = Lists.reverse(customerTransactions);
+
+        return TransactionSummary
+                .builder()
+                .customerId(customerId)
+                .month(month)
+                .currentBalance(getBalance(customerId, balances).doubleValue())
+                .classification(classificationService.classifyCustomer(TransactionBatch.of(monthlyTransactions)))
+                .transactions(monthlyTransactions)
+                .build();
+    }
+
+    /**
+     * Returns the balance of a given customer by moving the balance cursor forward to it. Customers are visited in
+     * ascending order by both cursors. Customers without a running balance yet have their balance computed.
+     */
+    private BigDecimal getBalance(String customerId, PeekingIterator<CustomerBalance> balances) {
+
+        while (balances.hasNext() && balances.peek().getCustomer().compareTo(customerId) < 0) {
+            balances.next();
+        }
+
+        if (balances.hasNext() && balances.peek().getCustomer().equals(customerId)) {
+            return fromCents(balances.next().getBalance());
+        }
+
+        return transactionRepository.findBalanceByCustomerId(customerId);
+    }
+}
@@ -1,9 +1,12 @@
 package com.ing.direct.transaction.handler;
 
+import com.ing.direct.transaction.exception.ImportInProgressException;
+import com.ing.direct.transaction.exception.SummaryUnavailableException;
 import com.ing.direct.transaction.exception.TransactionNotFoundException;
 import com.ing.direct.transaction.exception.InvalidTransactionException;
 import com.ing.direct.transaction.exception.InvalidParameterException;
 import com.ing.direct.common.handler.GlobalExceptionHandler;
+import com.netflix.hystrix.exception.HystrixRuntimeException;
 import org.springframework.hateoas.VndErrors;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -20,6 +23,9 @@ import org.springframework.web.bind.annotation.ResponseStatus;
  * @see InvalidTransactionException
  * @see InvalidParameterException
  * @see TransactionNotFoundException
+ * @see ImportInProgressException
+ * @see SummaryUnavailableException
+ * @see HystrixRuntimeException
  */
 @ControllerAdvice
 public class TransactionExceptionHandler extends GlobalExceptionHandler {
@@ -45,4 +51,25 @@ public class TransactionExceptionHandler extends GlobalExceptionHandler {
         return getVndErrors(ex);
     }
 
-}
+    @ResponseBody
+    @ExceptionHandler(ImportInProgressException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    VndErrors handleImportInProgressException(ImportInProgressException ex) {
+        return getVndErrors(ex);
+    }
+
+    @ResponseBody
+    @ExceptionHandler(SummaryUnavailableException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    VndErrors handleSummaryUnavailableException(SummaryUnavailableException ex) {
+        return getVndErrors(ex);
+    }
+
+    @ResponseBody
+    @ExceptionHandler(HystrixRuntimeException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    VndErrors handleHystrixRuntimeException(HystrixRuntimeException ex) {
+        return getVndErrors(ex);
+    }
+
+}
\ No newline at end of file
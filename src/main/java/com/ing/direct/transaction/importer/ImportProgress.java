@@ -0,0 +1,106 @@
+package com.ing.direct.transaction.importer;
+
+import com.ing.direct.transaction.repository.BulkWriteReport;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Progress class tracking the rows read, rejected and written by a {@link TransactionImporter} run. Counters are
+ * updated concurrently by the reader, parse workers and writer of the import.
+ *
+ * @see TransactionImporter
+ */
+public class ImportProgress {
+
+    public enum State {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    private final String location;
+    private final long startTime = System.currentTimeMillis();
+    private final LongAdder rowsRead = new LongAdder();
+    private final LongAdder rowsRejected = new LongAdder();
+    private final LongAdder inserted = new LongAdder();
+    private final LongAdder updated = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    private volatile State state = State.RUNNING;
+    private volatile long endTime;
+    private volatile String error;
+
+    ImportProgress(String location) {
+        this.location = location;
+    }
+
+    void read(int rows) {
+        rowsRead.add(rows);
+    }
+
+    void rejected() {
+        rowsRejected.increment();
+    }
+
+    void written(BulkWriteReport report) {
+        inserted.add(report.getInserted());
+        updated.add(report.getUpdated());
+        failed.add(report.getFailures().size());
+    }
+
+    void complete() {
+        endTime = System.currentTimeMillis();
+        state = State.COMPLETED;
+    }
+
+    void fail(Throwable cause) {
+        endTime = System.currentTimeMillis();
+        error = cause.getMessage();
+        state = State.FAILED;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public long getElapsedMillis() {
+        return (state == State.RUNNING ? System.currentTimeMillis() : endTime) - startTime;
+    }
+
+    public long getRowsRead() {
+        return rowsRead.sum();
+    }
+
+    public long getRowsRejected() {
+        return rowsRejected.sum();
+    }
+
+    public long getInserted() {
+        return inserted.sum();
+    }
+
+    public long getUpdated() {
+        return updated.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    /**
+     * Returns the number of rows written (inserted or updated) per second since the start of the import.
+     */
+    public double getRowsPerSecond() {
+        return (getInserted() + getUpdated()) * 1000d / Math.max(1, getElapsedMillis());
+    }
+}
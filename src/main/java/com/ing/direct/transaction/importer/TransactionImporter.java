@@ -0,0 +1,354 @@
+package com.ing.direct.transaction.importer;
+
+import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.ing.direct.transaction.exception.ImportInProgressException;
+import com.ing.direct.transaction.exception.InvalidParameterException;
+import com.ing.direct.transaction.model.Transaction;
+import com.ing.direct.transaction.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.ing.direct.common.utils.ClassUtils.DEFAULT_BULK_BATCH_SIZE;
+import static com.ing.direct.common.utils.ClassUtils.toDate;
+
+/**
+ * Streaming import engine loading transactions from a CSV resource ({@code customerId,date,amount,description}).
+ * <p>
+ * <p>The resource is read line by line and split into chunks of {@code analytics.import.chunk-size} lines, each
+ * chunk being parsed by a pool of {@code analytics.import.parse-workers} threads. Parsed chunks are handed over in
+ * order to the writer through a queue bounded to {@code analytics.import.queue-capacity} chunks, so that the reader
+ * blocks whenever the bulk writes fall behind and the memory used stays constant whatever the size of the
+ * resource.</p>
+ * <p>
+ * <p>Imports started on demand (see {@link #startImport(String)}) only read the regular files of the
+ * {@code analytics.import.directory} directory, whereas the bootstrap import reads any configured resource location.
+ * The customers of the written transactions are evicted from the caches and versioned by the bulk writes.</p>
+ * <p>
+ * <p>Only one import runs at a time. The progress of the last import is published as actuator metrics
+ * (e.g {@code counter.import.rows.read}, {@code gauge.import.rows-per-second}).</p>
+ *
+ * @see TransactionRepository#bulkSaveOrUpdate(List)
+ * @see ImportProgress
+ */
+@Component
+public class TransactionImporter implements PublicMetrics {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TransactionImporter.class);
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int POLL_TIMEOUT_MILLIS = 100;
+    private static final String FILE_URL_PREFIX = "file:";
+
+    private final TransactionRepository transactionRepository;
+    private final ResourceLoader resourceLoader;
+    private final Path importDirectory;
+    private final int chunkSize;
+    private final int queueCapacity;
+    private final ExecutorService parseExecutor;
+    private final ExecutorService importExecutor;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicReference<ImportProgress> lastImport = new AtomicReference<>();
+
+    @Autowired
+    public TransactionImporter(TransactionRepository transactionRepository,
+                               ResourceLoader resourceLoader,
+                               @Value("${analytics.import.directory:import}") String importDirectory,
+                               @Value("${analytics.import.parse-workers:0}") int parseWorkers,
+                               @Value("${analytics.import.chunk-size:" + DEFAULT_BULK_BATCH_SIZE + "}") int chunkSize,
+                               @Value("${analytics.import.queue-capacity:8}") int queueCapacity) {
+        this.transactionRepository = transactionRepository;
+        this.resourceLoader = resourceLoader;
+        this.importDirectory = Paths.get(importDirectory).toAbsolutePath().normalize();
+        this.chunkSize = chunkSize;
+        this.queueCapacity = queueCapacity;
+        this.parseExecutor = Executors.newFixedThreadPool(
+                parseWorkers > 0 ? parseWorkers : Runtime.getRuntime().availableProcessors(),
+                new ThreadFactoryBuilder().setNameFormat("import-parser-%d").setDaemon(true).build());
+        this.importExecutor = Executors.newCachedThreadPool(
+                new ThreadFactoryBuilder().setNameFormat("import-%d").setDaemon(true).build());
+    }
+
+    /**
+     * Imports the transactions of the resource located at {@code location} and waits for the import to complete.
+     *
+     * @param location Resource location (e.g {@code classpath:data.txt}, {@code file:/data/transactions.csv})
+     * @return Progress of the completed import
+     * @throws InvalidParameterException in case the resource does not exist
+     * @throws ImportInProgressException in case another import is running
+     */
+    public ImportProgress importTransactions(String location) {
+        Resource resource = getResource(location);
+        ImportProgress progress = begin(location);
+        run(progress, resource);
+        return progress;
+    }
+
+    /**
+     * Starts importing the transactions of the file located at {@code location} in the background.
+     *
+     * @param location File path relative to the {@code analytics.import.directory} directory (e.g
+     *                 {@code transactions.csv}) or {@code file:} URL of a file of that directory
+     * @return Progress of the running import
+     * @throws InvalidParameterException in case the location has another scheme, is outside of the import directory
+     *                                   or is not a regular file
+     * @throws ImportInProgressException in case another import is running
+     */
+    public ImportProgress startImport(String location) {
+        Resource resource = getImportFile(location);
+        ImportProgress progress = begin(location);
+        importExecutor.execute(() -> run(progress, resource));
+        return progress;
+    }
+
+    /**
+     * Returns the progress of the last import, if any.
+     *
+     * @return Last import progress
+     */
+    public Optional<ImportProgress> getLastImport() {
+        return Optional.ofNullable(lastImport.get());
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        List<Metric<?>> metrics = new ArrayList<>();
+
+        getLastImport().ifPresent(progress -> {
+            metrics.add(new Metric<>("counter.import.rows.read", progress.getRowsRead()));
+            metrics.add(new Metric<>("counter.import.rows.rejected", progress.getRowsRejected()));
+            metrics.add(new Metric<>("counter.import.rows.inserted", progress.getInserted()));
+            metrics.add(new Metric<>("counter.import.rows.updated", progress.getUpdated()));
+            metrics.add(new Metric<>("counter.import.rows.failed", progress.getFailed()));
+            metrics.add(new Metric<>("gauge.import.rows-per-second", progress.getRowsPerSecond()));
+            metrics.add(new Metric<>("gauge.import.running", running.get() ? 1 : 0));
+        });
+
+        return metrics;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        importExecutor.shutdownNow();
+        parseExecutor.shutdownNow();
+    }
+
+    private Resource getResource(String location) {
+        Resource resource = resourceLoader.getResource(location);
+
+        if (!resource.exists()) {
+            throw new InvalidParameterException("location", location);
+        }
+
+        return resource;
+    }
+
+    /**
+     * Resolves a location against the import directory, following symbolic links before checking that the file is
+     * located in the import directory.
+     */
+    private Resource getImportFile(String location) {
+        String path = location.startsWith(FILE_URL_PREFIX) ? location.substring(FILE_URL_PREFIX.length()) : location;
+
+        // any other scheme (e.g classpath:, http:) is rejected
+        if (path.contains(":")) {
+            throw new InvalidParameterException("location", location);
+        }
+
+        try {
+            Path file = importDirectory.resolve(path).normalize();
+
+            if (!file.startsWith(importDirectory) || !Files.isRegularFile(file)
+                    || !file.toRealPath().startsWith(importDirectory.toRealPath())) {
+                throw new InvalidParameterException("location", location);
+            }
+
+            return new FileSystemResource(file.toFile());
+        } catch (InvalidPathException | IOException e) {
+            throw new InvalidParameterException("location", location);
+        }
+    }
+
+    private ImportProgress begin(String location) {
+        if (!running.compareAndSet(false, true)) {
+            throw new ImportInProgressException(location);
+        }
+
+        ImportProgress progress = new ImportProgress(location);
+        lastImport.set(progress);
+        return progress;
+    }
+
+    /**
+     * Runs an import: the resource is read on a separate thread while the current thread writes the parsed chunks.
+     */
+    private void run(ImportProgress progress, Resource resource) {
+
+        LOG.info("start importing transactions [location:{}]", progress.getLocation());
+
+        BlockingQueue<CompletableFuture<List<Transaction>>> chunks = new ArrayBlockingQueue<>(queueCapacity);
+        Future<?> reader = importExecutor.submit(() -> {
+            read(resource, chunks, progress);
+            return null;
+        });
+
+        try {
+            write(chunks, reader, progress);
+            reader.get();
+            progress.complete();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reader.cancel(true);
+            progress.fail(e);
+        } catch (ExecutionException e) {
+            progress.fail(e.getCause());
+        } catch (RuntimeException e) {
+            reader.cancel(true);
+            progress.fail(e);
+        } finally {
+            running.set(false);
+        }
+
+        LOG.info("end of transactions import [location:{}, state:{}, read:{}, rejected:{}, inserted:{}, updated:{}, " +
+                        "failed:{}, rows/s:{}]", progress.getLocation(), progress.getState(), progress.getRowsRead(),
+                progress.getRowsRejected(), progress.getInserted(), progress.getUpdated(), progress.getFailed(),
+                (long) progress.getRowsPerSecond());
+    }
+
+    /**
+     * Reads the resource in chunks of lines, submitting each chunk to the parse workers. Blocks while the queue of
+     * pending chunks is full.
+     */
+    private void read(Resource resource,
+                      BlockingQueue<CompletableFuture<List<Transaction>>> chunks,
+                      ImportProgress progress) throws IOException, InterruptedException {
+
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8), READ_BUFFER_SIZE)) {
+
+            List<String> lines = new ArrayList<>(chunkSize);
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+
+                if (lines.size() == chunkSize) {
+                    chunks.put(parse(lines, progress));
+                    lines = new ArrayList<>(chunkSize);
+                }
+            }
+
+            if (!lines.isEmpty()) {
+                chunks.put(parse(lines, progress));
+            }
+        }
+    }
+
+    private CompletableFuture<List<Transaction>> parse(List<String> lines, ImportProgress progress) {
+        progress.read(lines.size());
+
+        return CompletableFuture.supplyAsync(() -> {
+            List<Transaction> transactions = new ArrayList<>(lines.size());
+
+            for (String line : lines) {
+                Transaction transaction = parseLine(line);
+
+                if (transaction != null) {
+                    transactions.add(transaction);
+                } else {
+                    progress.rejected();
+                }
+            }
+
+            return transactions;
+        }, parseExecutor);
+    }
+
+    /**
+     * Writes the parsed chunks in reading order until the reader is done and every pending chunk is written.
+     */
+    private void write(BlockingQueue<CompletableFuture<List<Transaction>>> chunks,
+                       Future<?> reader,
+                       ImportProgress progress) throws InterruptedException {
+
+        while (true) {
+            CompletableFuture<List<Transaction>> chunk = chunks.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+
+            if (chunk == null) {
+                // every chunk is queued before the reader completes
+                if (reader.isDone() && chunks.isEmpty()) {
+                    return;
+                }
+                continue;
+            }
+
+            List<Transaction> transactions = chunk.join();
+
+            if (!transactions.isEmpty()) {
+                progress.written(transactionRepository.bulkSaveOrUpdate(transactions));
+            }
+        }
+    }
+
+    /**
+     * Parses a CSV line into a {@link Transaction}.
+     *
+     * @param line CSV line
+     * @return Transaction or {@code null} in case the line is not a valid transaction (e.g header)
+     */
+    static Transaction parseLine(String line) {
+
+        String[] fields = line.split(",");
+
+        if (fields.length != 4 || Ints.tryParse(fields[0]) == null) {
+            return null;
+        }
+
+        try {
+            return Transaction
+                    .builder()
+                    .customer(fields[0])
+                    .date(toDate(fields[1]))
+                    .amount(new BigDecimal(fields[2]))
+                    .description(fields[3])
+                    .build();
+        } catch (DateTimeParseException | NumberFormatException e) {
+            LOG.debug("rejected transaction line [line:{}, error:{}]", line, e.getMessage());
+            return null;
+        }
+    }
+}
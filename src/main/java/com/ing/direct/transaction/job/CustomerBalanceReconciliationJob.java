@@ -0,0 +1,42 @@
+package com.ing.direct.transaction.job;
+
+import com.ing.direct.transaction.repository.CustomerBalanceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduled job reconciling the customer running balances with the transactions collection. The schedule is set
+ * through the {@code analytics.balance.reconcile-cron} property (every day at 3am by default).
+ *
+ * @see CustomerBalanceRepository#rebuild()
+ */
+@Component
+public class CustomerBalanceReconciliationJob {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CustomerBalanceReconciliationJob.class);
+
+    private final CustomerBalanceRepository customerBalanceRepository;
+
+    @Autowired
+    public CustomerBalanceReconciliationJob(CustomerBalanceRepository customerBalanceRepository) {
+        this.customerBalanceRepository = customerBalanceRepository;
+    }
+
+    /**
+     * Rebuilds the customer balances.
+     */
+    @Scheduled(cron = "${analytics.balance.reconcile-cron:0 0 3 * * *}")
+    public void reconcile() {
+
+        LOG.info("start reconciling customer balances...");
+
+        try {
+            customerBalanceRepository.rebuild();
+        } finally {
+            LOG.info("end of customer balances reconciliation...");
+        }
+    }
+}
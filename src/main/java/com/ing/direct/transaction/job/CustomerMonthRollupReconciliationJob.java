@@ -0,0 +1,50 @@
+package com.ing.direct.transaction.job;
+
+import com.ing.direct.transaction.repository.CustomerMonthRollupRepository;
+import com.ing.direct.transaction.repository.RollupConsistencyReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduled job checking the customer month rollups against the transactions collection and rebuilding them when
+ * they drifted (e.g a rollup update lost after its transactions were written). The schedule is set through the
+ * {@code analytics.rollup.reconcile-cron} property (every day at 3:30am by default).
+ *
+ * @see CustomerMonthRollupRepository#checkConsistency()
+ * @see CustomerMonthRollupRepository#rebuild()
+ */
+@Component
+public class CustomerMonthRollupReconciliationJob {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CustomerMonthRollupReconciliationJob.class);
+
+    private final CustomerMonthRollupRepository customerMonthRollupRepository;
+
+    @Autowired
+    public CustomerMonthRollupReconciliationJob(CustomerMonthRollupRepository customerMonthRollupRepository) {
+        this.customerMonthRollupRepository = customerMonthRollupRepository;
+    }
+
+    /**
+     * Rebuilds the customer month rollups if any of them is inconsistent.
+     */
+    @Scheduled(cron = "${analytics.rollup.reconcile-cron:0 30 3 * * *}")
+    public void reconcile() {
+
+        LOG.info("start reconciling customer month rollups...");
+
+        try {
+            RollupConsistencyReport report = customerMonthRollupRepository.checkConsistency();
+
+            if (!report.isConsistent()) {
+                LOG.warn("inconsistent customer month rollups {}, rebuilding...", report.getInconsistentIds());
+                customerMonthRollupRepository.rebuild();
+            }
+        } finally {
+            LOG.info("end of customer month rollups reconciliation...");
+        }
+    }
+}
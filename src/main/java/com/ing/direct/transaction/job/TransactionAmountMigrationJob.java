@@ -0,0 +1,65 @@
+package com.ing.direct.transaction.job;
+
+import com.ing.direct.transaction.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import static com.ing.direct.common.utils.ClassUtils.DEFAULT_BULK_BATCH_SIZE;
+
+/**
+ * Scheduled job migrating the transaction amounts still stored as strings to cents, while the application keeps
+ * serving reads and writes. The job runs every {@code analytics.amount-migration.fixed-delay} milliseconds (every
+ * hour by default) until a run has no amount left to migrate: amounts being written in cents, none is stored as a
+ * string afterwards and the later runs are skipped.
+ *
+ * @see TransactionRepository#migrateAmounts(int)
+ * @see com.ing.direct.common.mongo.AmountConverters
+ */
+@Component
+public class TransactionAmountMigrationJob {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TransactionAmountMigrationJob.class);
+
+    private final TransactionRepository transactionRepository;
+
+    private final int batchSize;
+
+    private volatile boolean completed;
+
+    @Autowired
+    public TransactionAmountMigrationJob(TransactionRepository transactionRepository,
+                                         @Value("${analytics.bulk.batch-size:" + DEFAULT_BULK_BATCH_SIZE + "}") int batchSize) {
+        this.transactionRepository = transactionRepository;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Migrates the transaction amounts stored as strings, unless a previous run has migrated them all.
+     */
+    @Scheduled(initialDelayString = "${analytics.amount-migration.initial-delay:60000}",
+            fixedDelayString = "${analytics.amount-migration.fixed-delay:3600000}")
+    public void migrate() {
+
+        if (completed) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        long migrated = transactionRepository.migrateAmounts(batchSize);
+
+        if (migrated > 0) {
+            LOG.info("migrated {} transaction amounts to cents in {}ms", migrated, System.currentTimeMillis() - start);
+        } else {
+            completed = true;
+            LOG.info("every transaction amount is stored in cents, amount migration completed");
+        }
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+}
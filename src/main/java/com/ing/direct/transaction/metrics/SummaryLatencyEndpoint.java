@@ -0,0 +1,30 @@
+package com.ing.direct.transaction.metrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.AbstractEndpoint;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint publishing the p50, p99 and p999 latencies of the transaction summary request stages, by customer
+ * size bucket, in microseconds (e.g {@code GET /latency}).
+ *
+ * @see SummaryLatencyRecorder
+ */
+@Component
+public class SummaryLatencyEndpoint extends AbstractEndpoint<Map<String, Map<String, Map<String, Object>>>> {
+
+    private final SummaryLatencyRecorder summaryLatencyRecorder;
+
+    @Autowired
+    public SummaryLatencyEndpoint(SummaryLatencyRecorder summaryLatencyRecorder) {
+        super("latency");
+        this.summaryLatencyRecorder = summaryLatencyRecorder;
+    }
+
+    @Override
+    public Map<String, Map<String, Map<String, Object>>> invoke() {
+        return summaryLatencyRecorder.getPercentiles();
+    }
+}
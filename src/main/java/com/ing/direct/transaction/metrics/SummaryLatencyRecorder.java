@@ -0,0 +1,141 @@
+package com.ing.direct.transaction.metrics;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recorder class timing the stages of the transaction summary requests into HdrHistogram latency histograms, one
+ * histogram per {@link Stage} and customer size bucket (number of transactions of the summarized month), so that the
+ * tail latency of large customers does not hide in the one of the others.
+ * <p>
+ * <p>Recording a duration is lock-free and allocation-free once the histogram of its stage and bucket exists.
+ * Histograms are cumulative since the start of the application and published by the {@link SummaryLatencyEndpoint}.</p>
+ *
+ * @see SummaryLatencyEndpoint
+ */
+@Component
+public class SummaryLatencyRecorder {
+
+    private static final int SIGNIFICANT_DIGITS = 2;
+    private static final int[] BUCKET_LIMITS = {10, 100, 1000};
+    private static final String[] BUCKET_NAMES = {"0-9", "10-99", "100-999", "1000+"};
+
+    /**
+     * Stages of a summary request.
+     */
+    public enum Stage {
+        /**
+         * Query of the transactions of the month, or of the month rollup for the classification requests
+         */
+        FETCH,
+        /**
+         * Statistics of the transactions of the month ({@link com.ing.direct.transaction.model.TransactionBatch})
+         */
+        BATCH,
+        /**
+         * Classification of the customer from the statistics of the month
+         */
+        CLASSIFICATION,
+        /**
+         * Query of the current balance
+         */
+        BALANCE,
+        /**
+         * Conversion of the transactions and JSON serialization of the summary into the response
+         */
+        SERIALIZATION,
+        /**
+         * Whole request handling excluding serialization, cached summaries and asynchronous requests included
+         */
+        TOTAL
+    }
+
+    private final ConcurrentMap<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the current time to be passed as {@code startNanos} to {@link #record(Stage, int, long)}.
+     *
+     * @return Current value of the monotonic clock, in nanoseconds
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Records the time elapsed since {@code startNanos} into the histogram of a given stage and customer size.
+     *
+     * @param stage        Stage
+     * @param transactions Number of transactions of the summarized month
+     * @param startNanos   Start of the stage, as returned by {@link #start()}
+     */
+    public void record(Stage stage, int transactions, long startNanos) {
+        long elapsed = Math.max(0, System.nanoTime() - startNanos);
+        String key = stage.name() + '/' + getBucket(transactions);
+
+        Histogram histogram = histograms.get(key);
+        if (histogram == null) {
+            histogram = histograms.computeIfAbsent(key, k -> new ConcurrentHistogram(SIGNIFICANT_DIGITS));
+        }
+
+        histogram.recordValue(elapsed);
+    }
+
+    /**
+     * Returns the latency percentiles of every recorded stage and customer size bucket, in microseconds.
+     *
+     * @return Percentiles by customer size bucket by stage (e.g {@code fetch -> 10-99 -> p99})
+     */
+    public Map<String, Map<String, Map<String, Object>>> getPercentiles() {
+        Map<String, Map<String, Map<String, Object>>> percentiles = new LinkedHashMap<>();
+
+        for (Stage stage : Stage.values()) {
+            Map<String, Map<String, Object>> buckets = new LinkedHashMap<>();
+
+            for (String bucket : BUCKET_NAMES) {
+                Histogram histogram = histograms.get(stage.name() + '/' + bucket);
+                if (histogram != null) {
+                    buckets.put(bucket, toPercentiles(histogram.copy()));
+                }
+            }
+
+            if (!buckets.isEmpty()) {
+                percentiles.put(stage.name().toLowerCase(), buckets);
+            }
+        }
+
+        return Collections.unmodifiableMap(percentiles);
+    }
+
+    private static Map<String, Object> toPercentiles(Histogram histogram) {
+        Map<String, Object> percentiles = new LinkedHashMap<>();
+
+        percentiles.put("count", histogram.getTotalCount());
+        percentiles.put("p50", toMicros(histogram.getValueAtPercentile(50)));
+        percentiles.put("p99", toMicros(histogram.getValueAtPercentile(99)));
+        percentiles.put("p999", toMicros(histogram.getValueAtPercentile(99.9)));
+        percentiles.put("max", toMicros(histogram.getMaxValue()));
+
+        return percentiles;
+    }
+
+    private static long toMicros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    static String getBucket(int transactions) {
+        for (int i = 0; i < BUCKET_LIMITS.length; i++) {
+            if (transactions < BUCKET_LIMITS[i]) {
+                return BUCKET_NAMES[i];
+            }
+        }
+        return BUCKET_NAMES[BUCKET_NAMES.length - 1];
+    }
+}
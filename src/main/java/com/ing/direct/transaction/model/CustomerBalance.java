@@ -0,0 +1,30 @@
+package com.ing.direct.transaction.model;
+
+import lombok.Builder;
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import static com.ing.direct.common.utils.ClassUtils.CUSTOMER_BALANCES_COLLECTION_NAME;
+
+/**
+ * Customer balance document class holding up the running balance of a customer, in cents.
+ * <p>
+ * <p>The balance is maintained on write by {@link com.ing.direct.transaction.repository.TransactionRepositoryImpl}
+ * and reconciled from the transactions collection by
+ * {@link com.ing.direct.transaction.job.CustomerBalanceReconciliationJob}, which also seeds the balances of
+ * transactions inserted before balances were maintained.</p>
+ *
+ * @see com.ing.direct.transaction.repository.CustomerBalanceRepository
+ */
+@Data
+@Builder
+@Document(collection = CUSTOMER_BALANCES_COLLECTION_NAME)
+public class CustomerBalance {
+    @Id
+    private String customer;
+
+    @Field
+    private long balance;
+}
@@ -0,0 +1,69 @@
+package com.ing.direct.transaction.model;
+
+import lombok.Builder;
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import static com.ing.direct.common.utils.ClassUtils.CUSTOMER_MONTH_ROLLUPS_COLLECTION_NAME;
+
+/**
+ * Customer month rollup document class holding up the monthly aggregates of a customer needed by the classification
+ * rules: number of transactions before and after midday, total deposits and expenditures, lowest amount and
+ * smallest deposit, amounts being in cents. Its identifier is {@code <customer>:<yyyyMM>}.
+ * <p>
+ * <p>The counters are incremented on write by {@link com.ing.direct.transaction.repository.TransactionRepositoryImpl}.
+ * Since a minimum cannot be decremented, a rollup whose lowest amount or smallest deposit is updated away is flagged
+ * {@link #dirty} and recomputed from the transactions collection on its next read.</p>
+ *
+ * @see com.ing.direct.transaction.repository.CustomerMonthRollupRepository
+ */
+@Data
+@Builder
+@Document(collection = CUSTOMER_MONTH_ROLLUPS_COLLECTION_NAME)
+public class CustomerMonthRollup {
+    @Id
+    private String id;
+
+    @Field
+    private String customer;
+
+    @Field
+    private int month;
+
+    @Field
+    private long transactions;
+
+    @Field
+    private long morningTransactions;
+
+    @Field
+    private long afternoonTransactions;
+
+    @Field
+    private long deposits;
+
+    @Field
+    private long expenditures;
+
+    @Field
+    private long lowestAmount;
+
+    @Field
+    private long smallestDeposit;
+
+    @Field
+    private boolean dirty;
+
+    /**
+     * Returns the identifier of the rollup of a given customer and month.
+     *
+     * @param customer Customer identifier
+     * @param month    Month as {@code yyyyMM}
+     * @return Rollup identifier
+     */
+    public static String toId(String customer, int month) {
+        return customer + ":" + month;
+    }
+}
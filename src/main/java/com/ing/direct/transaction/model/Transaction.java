@@ -20,11 +20,14 @@ import static com.ing.direct.common.utils.ClassUtils.DATE_FORMAT_PATTERN;
 /**
  * Plain java class representing an transaction resource.
  * <p>
- * <p>This class also declares a compound-index based on {@code customer} and {@code date} fields.</p>
+ * <p>This class also declares a compound-index based on {@code customer}, {@code date} and {@code amount} fields,
+ * serving the queries by customer and date and covering the projected reads of the amounts of a customer, and one
+ * based on {@code date} and {@code _id} fields serving the keyset pagination of the transactions.</p>
  */
 @Document
 @CompoundIndexes({
-        @CompoundIndex(name = "transaction_customer_date_idx", def = "{'customer': 1, 'date': 1}")
+        @CompoundIndex(name = "transaction_customer_date_amount_idx", def = "{'customer': 1, 'date': 1, 'amount': 1}"),
+        @CompoundIndex(name = "transaction_date_id_idx", def = "{'date': 1, '_id': 1}")
 })
 @Data
 @Builder
@@ -0,0 +1,202 @@
+package com.ing.direct.transaction.model;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.ing.direct.common.utils.ClassUtils.toCents;
+
+/**
+ * Columnar representation of a list of {@link Transaction} used by the analytics paths (classification, balance).
+ * <p>
+ * <p>Amounts are stored in cents, dates in epoch milliseconds and the local time of day in milliseconds since
+ * midnight, all in primitive arrays sorted by ascending date.</p>
+ *
+ * @see Transaction
+ */
+public class TransactionBatch {
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final TransactionBatch EMPTY = new TransactionBatch(new long[0], new long[0], new int[0], 0);
+
+    private final long[] amounts;
+    private final long[] timestamps;
+    private final int[] timesOfDay;
+    private final int length;
+
+    private TransactionBatch(long[] amounts, long[] timestamps, int[] timesOfDay, int length) {
+        this.amounts = amounts;
+        this.timestamps = timestamps;
+        this.timesOfDay = timesOfDay;
+        this.length = length;
+    }
+
+    /**
+     * Builds a batch from a list of transactions. The local time of day is computed in the system default zone.
+     *
+     * @param transactions List of transactions, in any order
+     * @return TransactionBatch instance
+     */
+    public static TransactionBatch of(List<Transaction> transactions) {
+        return of(transactions, ZoneId.systemDefault());
+    }
+
+    /**
+     * Builds a batch from a list of transactions.
+     *
+     * @param transactions List of transactions, in any order
+     * @param zoneId       Zone used to compute the local time of day
+     * @return TransactionBatch instance
+     */
+    public static TransactionBatch of(List<Transaction> transactions, ZoneId zoneId) {
+
+        int size = transactions.size();
+
+        if (size == 0) {
+            return EMPTY;
+        }
+
+        int[] order = sortedOrder(transactions);
+
+        long[] amounts = new long[size];
+        long[] timestamps = new long[size];
+
+        for (int i = 0; i < size; i++) {
+            Transaction transaction = transactions.get(order[i]);
+            amounts[i] = toCents(transaction.getAmount());
+            timestamps[i] = transaction.getDate().getTime();
+        }
+
+        return new TransactionBatch(amounts, timestamps, getTimesOfDay(timestamps, size, zoneId), size);
+    }
+
+    /**
+     * Builds a batch from columns of amounts and dates already sorted by ascending date (e.g. decoded from a
+     * projected query). The columns are not copied and must not be modified afterwards.
+     *
+     * @param amounts    Amounts in cents
+     * @param timestamps Dates in epoch milliseconds, sorted in ascending order
+     * @param size       Number of transactions held by the columns
+     * @param zoneId     Zone used to compute the local time of day
+     * @return TransactionBatch instance
+     * @throws IllegalArgumentException if the dates are not sorted in ascending order
+     */
+    public static TransactionBatch of(long[] amounts, long[] timestamps, int size, ZoneId zoneId) {
+
+        if (size == 0) {
+            return EMPTY;
+        }
+
+        for (int i = 1; i < size; i++) {
+            if (timestamps[i - 1] > timestamps[i]) {
+                throw new IllegalArgumentException("timestamps must be sorted in ascending order");
+            }
+        }
+
+        return new TransactionBatch(amounts, timestamps, getTimesOfDay(timestamps, size, zoneId), size);
+    }
+
+    /**
+     * Returns the local time of day of each timestamp, in milliseconds since midnight.
+     */
+    private static int[] getTimesOfDay(long[] timestamps, int size, ZoneId zoneId) {
+
+        int[] timesOfDay = new int[size];
+
+        ZoneRules zoneRules = zoneId.getRules();
+        boolean fixedOffset = zoneRules.isFixedOffset();
+        long offsetMillis = fixedOffset ? zoneRules.getOffset(Instant.EPOCH).getTotalSeconds() * 1000L : 0;
+
+        for (int i = 0; i < size; i++) {
+            long timestamp = timestamps[i];
+
+            if (!fixedOffset) {
+                offsetMillis = zoneRules.getOffset(Instant.ofEpochMilli(timestamp)).getTotalSeconds() * 1000L;
+            }
+
+            timesOfDay[i] = (int) Math.floorMod(timestamp + offsetMillis, MILLIS_PER_DAY);
+        }
+
+        return timesOfDay;
+    }
+
+    /**
+     * Returns the indexes of the transactions sorted by ascending date. Lists already sorted in ascending or descending order
+     * (e.g. as returned by the repository) are not sorted again.
+     */
+    private static int[] sortedOrder(List<Transaction> transactions) {
+
+        int size = transactions.size();
+        int[] order = new int[size];
+
+        boolean ascending = true;
+        boolean descending = true;
+
+        for (int i = 1; i < size && (ascending || descending); i++) {
+            int comparison = transactions.get(i - 1).getDate().compareTo(transactions.get(i).getDate());
+            ascending &= comparison <= 0;
+            descending &= comparison >= 0;
+        }
+
+        if (ascending || descending) {
+            for (int i = 0; i < size; i++) {
+                order[i] = ascending ? i : size - 1 - i;
+            }
+            return order;
+        }
+
+        Integer[] boxedOrder = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            boxedOrder[i] = i;
+        }
+        Arrays.sort(boxedOrder, (a, b) -> transactions.get(a).getDate().compareTo(transactions.get(b).getDate()));
+        for (int i = 0; i < size; i++) {
+            order[i] = boxedOrder[i];
+        }
+
+        return order;
+    }
+
+    /**
+     * Returns the sum of the transaction amounts, in cents.
+     *
+     * @return Total amount in cents
+     */
+    public long getTotalAmount() {
+        long total = 0;
+        for (int i = 0; i < length; i++) {
+            total += amounts[i];
+        }
+        return total;
+    }
+
+    public int size() {
+        return length;
+    }
+
+    public boolean isEmpty() {
+        return length == 0;
+    }
+
+    /**
+     * Returns the amount of the {@code i}th transaction, in cents.
+     */
+    public long getAmount(int i) {
+        return amounts[i];
+    }
+
+    /**
+     * Returns the date of the {@code i}th transaction, in epoch milliseconds.
+     */
+    public long getTimestamp(int i) {
+        return timestamps[i];
+    }
+
+    /**
+     * Returns the local time of day of the {@code i}th transaction, in milliseconds since midnight.
+     */
+    public int getTimeOfDay(int i) {
+        return timesOfDay[i];
+    }
+}
@@ -0,0 +1,19 @@
+package com.ing.direct.transaction.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Page of {@link Transaction} returned by the keyset pagination, holding the opaque {@link #nextPageToken} to pass
+ * to get the following page ({@code null} on the last page).
+ *
+ * @see com.ing.direct.transaction.repository.PageToken
+ */
+@Data
+@Builder
+public class TransactionPage {
+    private List<Transaction> transactions;
+    private String nextPageToken;
+}
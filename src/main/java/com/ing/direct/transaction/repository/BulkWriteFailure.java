@@ -0,0 +1,18 @@
+package com.ing.direct.transaction.repository;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Failure class describing a document rejected by a bulk write, identified by its {@link #index}
+ * in the list of documents submitted.
+ *
+ * @see BulkWriteReport
+ */
+@Data
+@Builder
+public class BulkWriteFailure {
+    private int index;
+    private int code;
+    private String message;
+}
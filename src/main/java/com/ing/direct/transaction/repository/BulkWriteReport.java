@@ -0,0 +1,36 @@
+package com.ing.direct.transaction.repository;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Report class gathering the outcome of a bulk write: number of inserted and updated documents and
+ * the {@link BulkWriteFailure} of each rejected document.
+ *
+ * @see TransactionRepositoryCustom#bulkSaveOrUpdate(List, int)
+ */
+@Data
+public class BulkWriteReport {
+    private int inserted;
+    private int updated;
+    private List<BulkWriteFailure> failures = new ArrayList<>();
+
+    /**
+     * Adds the counters and failures of another report to this report.
+     *
+     * @param report Report to merge
+     * @return This report
+     */
+    public BulkWriteReport merge(BulkWriteReport report) {
+        inserted += report.getInserted();
+        updated += report.getUpdated();
+        failures.addAll(report.getFailures());
+        return this;
+    }
+
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+}
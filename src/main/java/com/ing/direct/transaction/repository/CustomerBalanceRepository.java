@@ -0,0 +1,10 @@
+package com.ing.direct.transaction.repository;
+
+import com.ing.direct.transaction.model.CustomerBalance;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CustomerBalanceRepository extends MongoRepository<CustomerBalance, String>, CustomerBalanceRepositoryCustom {
+
+}
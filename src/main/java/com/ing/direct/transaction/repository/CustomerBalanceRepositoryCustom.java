@@ -0,0 +1,58 @@
+package com.ing.direct.transaction.repository;
+
+import com.ing.direct.transaction.model.CustomerBalance;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Repository interface declaring custom methods to maintain the {@link CustomerBalance} running balances.
+ *
+ * @see CustomerBalanceRepository
+ * @see CustomerBalanceRepositoryImpl
+ */
+@Repository
+public interface CustomerBalanceRepositoryCustom {
+
+    /**
+     * Atomically adds amounts to the balances of several customers with a single bulk write. Customers having an
+     * initial balance get their balance created with it instead, if they have none yet.
+     *
+     * @param amounts         Amounts to add by customer identifier, in cents
+     * @param initialBalances Balances of the customers without a balance yet, already including their amount to
+     *                        add, by customer identifier, in cents
+     */
+    void incrementBalances(Map<String, Long> amounts, Map<String, Long> initialBalances);
+
+    /**
+     * Returns the running balance of a given customer.
+     *
+     * @param customerId Customer identifier
+     * @return Optional balance, empty if no balance has been maintained for the customer yet
+     */
+    Optional<BigDecimal> findBalance(String customerId);
+
+    /**
+     * Returns the running balances of several customers with a single query.
+     *
+     * @param customerIds Customer identifiers
+     * @return Balances by customer identifier, customers without a maintained balance being left out
+     */
+    Map<String, BigDecimal> findBalances(Collection<String> customerIds);
+
+    /**
+     * Streams every running balance in ascending customer order.
+     *
+     * @return Cursor over the balances, to be closed by the caller
+     */
+    CloseableIterator<CustomerBalance> streamBalances();
+
+    /**
+     * Recomputes every customer balance from the transactions collection.
+     */
+    void rebuild();
+}
@@ -0,0 +1,193 @@
+package com.ing.direct.transaction.repository;
+
+import com.ing.direct.transaction.model.CustomerBalance;
+import com.ing.direct.transaction.model.Transaction;
+import com.mongodb.AggregationOptions;
+import com.mongodb.BasicDBObject;
+import com.mongodb.BulkWriteOperation;
+import com.mongodb.Cursor;
+import com.mongodb.DBObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.ing.direct.common.mongo.InstrumentedMongoTemplate.timeDriverOperation;
+import static com.ing.direct.common.utils.ClassUtils.CUSTOMER_BALANCES_COLLECTION_NAME;
+import static com.ing.direct.common.utils.ClassUtils.TRANSACTIONS_COLLECTION_NAME;
+import static com.ing.direct.common.utils.ClassUtils.fromCents;
+import static com.ing.direct.common.utils.ClassUtils.toCents;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Repository implementation class maintaining the {@link CustomerBalance} documents of the
+ * {@link com.ing.direct.common.utils.ClassUtils#CUSTOMER_BALANCES_COLLECTION_NAME} collection.
+ *
+ * @see CustomerBalanceRepositoryCustom
+ */
+@Repository
+public class CustomerBalanceRepositoryImpl implements CustomerBalanceRepositoryCustom {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CustomerBalanceRepositoryImpl.class);
+
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    public CustomerBalanceRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Adds amounts to the customer balances with a single unordered bulk write, a customer having an initial balance
+     * being upserted with a {@code $setOnInsert} of that balance rather than a {@code $inc} of its amount.
+     * <p>
+     * <p>Note that a balance created concurrently between the computation of an initial balance and this write is
+     * left as is, the amount being lost until the next reconciliation.</p>
+     */
+    @Override
+    public void incrementBalances(Map<String, Long> amounts, Map<String, Long> initialBalances) {
+
+        if (amounts.isEmpty()) {
+            return;
+        }
+
+        BulkWriteOperation bulk = mongoTemplate
+                .getCollection(CUSTOMER_BALANCES_COLLECTION_NAME)
+                .initializeUnorderedBulkOperation();
+
+        amounts.forEach((customerId, amount) -> bulk
+                .find(new BasicDBObject("_id", customerId))
+                .upsert()
+                .updateOne(initialBalances.containsKey(customerId)
+                        ? new BasicDBObject("$setOnInsert", new BasicDBObject("balance", initialBalances.get(customerId)))
+                        : new BasicDBObject("$inc", new BasicDBObject("balance", amount))));
+
+        timeDriverOperation(mongoTemplate, "bulkWrite", CUSTOMER_BALANCES_COLLECTION_NAME,
+                new BasicDBObject("_id", "?"), bulk::execute);
+    }
+
+    @Override
+    public Optional<BigDecimal> findBalance(String customerId) {
+        return Optional
+                .ofNullable(mongoTemplate.findById(customerId, CustomerBalance.class))
+                .map(customerBalance -> fromCents(customerBalance.getBalance()));
+    }
+
+    @Override
+    public Map<String, BigDecimal> findBalances(Collection<String> customerIds) {
+
+        Map<String, BigDecimal> balances = new HashMap<>();
+
+        if (customerIds.isEmpty()) {
+            return balances;
+        }
+
+        mongoTemplate
+                .find(query(where("customer").in(customerIds)), CustomerBalance.class)
+                .forEach(customerBalance -> balances.put(customerBalance.getCustomer(), fromCents(customerBalance.getBalance())));
+
+        return balances;
+    }
+
+    @Override
+    public CloseableIterator<CustomerBalance> streamBalances() {
+        return mongoTemplate.stream(new Query().with(new Sort(Sort.Direction.ASC, "customer")), CustomerBalance.class);
+    }
+
+    /**
+     * Recomputes every customer balance from the transactions collection. Balances of customers without any
+     * transaction are removed.
+     * <p>
+     * <p>Amounts are summed by the aggregation framework once every amount is stored in cents, and by streaming the
+     * {@code customer} and {@code amount} fields of the transactions while some amounts are still stored as strings
+     * (see {@link com.ing.direct.transaction.job.TransactionAmountMigrationJob}).</p>
+     * <p>
+     * <p>Note that increments applied by concurrent writes while the transactions are being summed may be
+     * overwritten, hence this method should be run during a low write activity window.</p>
+     */
+    @Override
+    public void rebuild() {
+
+        Map<String, Long> balances = mongoTemplate.exists(query(where("amount").type(2)), Transaction.class)
+                ? sumByStreaming()
+                : sumByAggregation();
+
+        if (!balances.isEmpty()) {
+            BulkWriteOperation bulk = mongoTemplate
+                    .getCollection(CUSTOMER_BALANCES_COLLECTION_NAME)
+                    .initializeUnorderedBulkOperation();
+
+            balances.forEach((customerId, balance) -> bulk
+                    .find(new BasicDBObject("_id", customerId))
+                    .upsert()
+                    .updateOne(new BasicDBObject("$set", new BasicDBObject("balance", balance))));
+
+            timeDriverOperation(mongoTemplate, "bulkWrite", CUSTOMER_BALANCES_COLLECTION_NAME,
+                    new BasicDBObject("_id", "?"), bulk::execute);
+        }
+
+        mongoTemplate.remove(query(where("customer").nin(balances.keySet())), CustomerBalance.class);
+
+        LOG.info("rebuilt {} customer balances", balances.size());
+    }
+
+    private Map<String, Long> sumByAggregation() {
+
+        Map<String, Long> balances = new HashMap<>();
+
+        DBObject group = new BasicDBObject("$group", new BasicDBObject()
+                .append("_id", "$customer")
+                .append("balance", new BasicDBObject("$sum", "$amount")));
+
+        List<DBObject> pipeline = Arrays.asList(group);
+
+        return timeDriverOperation(mongoTemplate, "aggregate", TRANSACTIONS_COLLECTION_NAME, pipeline, () -> {
+            Cursor cursor = mongoTemplate
+                    .getCollection(TRANSACTIONS_COLLECTION_NAME)
+                    .aggregate(pipeline, AggregationOptions
+                            .builder()
+                            .outputMode(AggregationOptions.OutputMode.CURSOR)
+                            .allowDiskUse(true)
+                            .build());
+            try {
+                cursor.forEachRemaining(balance ->
+                        balances.put((String) balance.get("_id"), ((Number) balance.get("balance")).longValue()));
+            } finally {
+                cursor.close();
+            }
+
+            return balances;
+        });
+    }
+
+    private Map<String, Long> sumByStreaming() {
+
+        Query transactionQuery = new Query();
+        transactionQuery.fields().include("customer").include("amount");
+
+        Map<String, Long> balances = new HashMap<>();
+
+        CloseableIterator<Transaction> transactions = mongoTemplate.stream(transactionQuery, Transaction.class);
+        try {
+            transactions.forEachRemaining(transaction ->
+                    balances.merge(transaction.getCustomer(), toCents(transaction.getAmount()), Long::sum));
+        } finally {
+            transactions.close();
+        }
+
+        return balances;
+    }
+}
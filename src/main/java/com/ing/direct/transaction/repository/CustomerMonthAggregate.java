@@ -0,0 +1,230 @@
+package com.ing.direct.transaction.repository;
+
+import com.ing.direct.transaction.model.CustomerMonthRollup;
+import com.ing.direct.transaction.model.Transaction;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+
+import static com.ing.direct.common.utils.ClassUtils.toCents;
+
+/**
+ * Aggregate class accumulating the {@link CustomerMonthRollup} counters of a customer month, either as deltas
+ * applied on write or as absolute values recomputed from the transactions collection.
+ */
+class CustomerMonthAggregate {
+    private static final long MIDDAY = 12 * 60 * 60 * 1000L;
+
+    static final String VERSION = "version";
+
+    private final String customer;
+    private final int month;
+
+    private long transactions;
+    private long morningTransactions;
+    private long afternoonTransactions;
+    private long deposits;
+    private long expenditures;
+    private long lowestAmount = Long.MAX_VALUE;
+    private long smallestDeposit = Long.MAX_VALUE;
+    private long removedLowestAmount = Long.MAX_VALUE;
+    private long removedSmallestDeposit = Long.MAX_VALUE;
+
+    private CustomerMonthAggregate(String customer, int month) {
+        this.customer = customer;
+        this.month = month;
+    }
+
+    /**
+     * Returns the month of a given transaction as {@code yyyyMM}.
+     */
+    static int getMonth(Transaction transaction, ZoneId zoneId) {
+        LocalDateTime date = LocalDateTime.ofInstant(transaction.getDate().toInstant(), zoneId);
+        return date.getYear() * 100 + date.getMonthValue();
+    }
+
+    /**
+     * Returns the rollup identifier of a given transaction.
+     */
+    static String getId(Transaction transaction, ZoneId zoneId) {
+        return CustomerMonthRollup.toId(transaction.getCustomer(), getMonth(transaction, zoneId));
+    }
+
+    static CustomerMonthAggregate of(Transaction transaction, ZoneId zoneId) {
+        return new CustomerMonthAggregate(transaction.getCustomer(), getMonth(transaction, zoneId));
+    }
+
+    String getId() {
+        return CustomerMonthRollup.toId(customer, month);
+    }
+
+    long getTransactions() {
+        return transactions;
+    }
+
+    /**
+     * Adds a transaction to the aggregate.
+     */
+    void add(Transaction transaction, ZoneId zoneId) {
+        long amount = toCents(transaction.getAmount());
+
+        accumulate(transaction, zoneId, amount, 1);
+
+        lowestAmount = Math.min(lowestAmount, amount);
+        if (amount > 0) {
+            smallestDeposit = Math.min(smallestDeposit, amount);
+        }
+    }
+
+    /**
+     * Subtracts a transaction from the aggregate, remembering the lowest amounts removed.
+     */
+    void remove(Transaction transaction, ZoneId zoneId) {
+        long amount = toCents(transaction.getAmount());
+
+        accumulate(transaction, zoneId, amount, -1);
+
+        removedLowestAmount = Math.min(removedLowestAmount, amount);
+        if (amount > 0) {
+            removedSmallestDeposit = Math.min(removedSmallestDeposit, amount);
+        }
+    }
+
+    private void accumulate(Transaction transaction, ZoneId zoneId, long amount, int sign) {
+        long timeOfDay = LocalDateTime.ofInstant(transaction.getDate().toInstant(), zoneId)
+                .toLocalTime()
+                .toNanoOfDay() / 1_000_000;
+
+        transactions += sign;
+
+        if (timeOfDay > MIDDAY) {
+            afternoonTransactions += sign;
+        } else if (timeOfDay < MIDDAY) {
+            morningTransactions += sign;
+        }
+
+        if (amount > 0) {
+            deposits += sign * amount;
+        } else if (amount < 0) {
+            expenditures -= sign * amount;
+        }
+    }
+
+    /**
+     * Returns the filter matching the rollup of this aggregate.
+     */
+    DBObject toQuery() {
+        return new BasicDBObject("_id", getId());
+    }
+
+    /**
+     * Returns the filter matching the rollup of this aggregate if its {@link #VERSION} is still {@code version}.
+     *
+     * @param version Version read, null if the rollup was missing or has never been versioned
+     */
+    DBObject toVersionQuery(Object version) {
+        return toVersionQuery(getId(), version);
+    }
+
+    static DBObject toVersionQuery(String id, Object version) {
+        return new BasicDBObject("_id", id)
+                .append(VERSION, version == null ? new BasicDBObject("$exists", false) : version);
+    }
+
+    /**
+     * Returns the update incrementing the rollup counters and version with this aggregate, creating the rollup if
+     * needed. A created rollup is flagged dirty, since its month may hold transactions written before the rollups
+     * were maintained.
+     */
+    DBObject toIncrementUpdate() {
+        DBObject update = new BasicDBObject()
+                .append("$inc", new BasicDBObject()
+                        .append("transactions", transactions)
+                        .append("morningTransactions", morningTransactions)
+                        .append("afternoonTransactions", afternoonTransactions)
+                        .append("deposits", deposits)
+                        .append("expenditures", expenditures)
+                        .append(VERSION, 1L))
+                .append("$setOnInsert", new BasicDBObject()
+                        .append("customer", customer)
+                        .append("month", month)
+                        .append("dirty", true));
+
+        BasicDBObject min = new BasicDBObject();
+        if (lowestAmount != Long.MAX_VALUE) {
+            min.append("lowestAmount", lowestAmount);
+        }
+        if (smallestDeposit != Long.MAX_VALUE) {
+            min.append("smallestDeposit", smallestDeposit);
+        }
+        if (!min.isEmpty()) {
+            update.put("$min", min);
+        }
+
+        return update;
+    }
+
+    /**
+     * Returns the filter matching the rollup of this aggregate if one of its minimums has been removed, null if
+     * nothing lower than or equal to a minimum has been removed.
+     */
+    DBObject toRemovedMinimumQuery() {
+        if (removedLowestAmount == Long.MAX_VALUE) {
+            return null;
+        }
+
+        return new BasicDBObject("_id", getId()).append("$or", Arrays.asList(
+                new BasicDBObject("lowestAmount", new BasicDBObject("$gte", removedLowestAmount)),
+                new BasicDBObject("smallestDeposit", new BasicDBObject("$gte", removedSmallestDeposit))));
+    }
+
+    /**
+     * Returns the update replacing every rollup field with this aggregate, which must hold absolute values. The
+     * smallest deposit is unset rather than zeroed when there is no deposit, so that later {@code $min} apply. The
+     * version is incremented as well.
+     */
+    DBObject toReplacementUpdate() {
+        BasicDBObject inc = new BasicDBObject(VERSION, 1L);
+
+        BasicDBObject set = new BasicDBObject()
+                .append("customer", customer)
+                .append("month", month)
+                .append("transactions", transactions)
+                .append("morningTransactions", morningTransactions)
+                .append("afternoonTransactions", afternoonTransactions)
+                .append("deposits", deposits)
+                .append("expenditures", expenditures)
+                .append("lowestAmount", lowestAmount == Long.MAX_VALUE ? 0 : lowestAmount)
+                .append("dirty", false);
+
+        if (smallestDeposit != Long.MAX_VALUE) {
+            return new BasicDBObject("$set", set.append("smallestDeposit", smallestDeposit)).append("$inc", inc);
+        }
+
+        return new BasicDBObject("$set", set)
+                .append("$unset", new BasicDBObject("smallestDeposit", ""))
+                .append("$inc", inc);
+    }
+
+    /**
+     * Returns this aggregate as a rollup, the aggregate holding absolute values.
+     */
+    CustomerMonthRollup toRollup() {
+        return CustomerMonthRollup
+                .builder()
+                .id(getId())
+                .customer(customer)
+                .month(month)
+                .transactions(transactions)
+                .morningTransactions(morningTransactions)
+                .afternoonTransactions(afternoonTransactions)
+                .deposits(deposits)
+                .expenditures(expenditures)
+                .lowestAmount(lowestAmount == Long.MAX_VALUE ? 0 : lowestAmount)
+                .smallestDeposit(smallestDeposit == Long.MAX_VALUE ? 0 : smallestDeposit)
+                .build();
+    }
+}
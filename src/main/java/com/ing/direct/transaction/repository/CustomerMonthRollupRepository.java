@@ -0,0 +1,15 @@
+package com.ing.direct.transaction.repository;
+
+import com.ing.direct.transaction.model.CustomerMonthRollup;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface of the {@link CustomerMonthRollup} documents.
+ *
+ * @see CustomerMonthRollupRepositoryCustom
+ */
+@Repository
+public interface CustomerMonthRollupRepository extends MongoRepository<CustomerMonthRollup, String>,
+        CustomerMonthRollupRepositoryCustom {
+}
@@ -0,0 +1,51 @@
+package com.ing.direct.transaction.repository;
+
+import com.ing.direct.transaction.model.CustomerMonthRollup;
+import com.ing.direct.transaction.model.Transaction;
+import org.springframework.stereotype.Repository;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface declaring custom methods to maintain the {@link CustomerMonthRollup} monthly aggregates.
+ *
+ * @see CustomerMonthRollupRepository
+ * @see CustomerMonthRollupRepositoryImpl
+ */
+@Repository
+public interface CustomerMonthRollupRepositoryCustom {
+
+    /**
+     * Applies written transactions to the rollups with a single bulk write: {@code added} transactions are added
+     * to the rollup of their customer and month, {@code removed} ones (previous versions of updated transactions)
+     * are subtracted from theirs.
+     *
+     * @param added   Transactions to add
+     * @param removed Transactions to subtract
+     */
+    void applyChanges(List<Transaction> added, List<Transaction> removed);
+
+    /**
+     * Returns the rollup of a given customer and month, recomputing it from the transactions collection if it is
+     * missing or dirty.
+     *
+     * @param customerId Customer identifier
+     * @param month      Month
+     * @return Optional rollup, empty if the customer has no transaction during that month
+     */
+    Optional<CustomerMonthRollup> findRollup(String customerId, YearMonth month);
+
+    /**
+     * Recomputes every rollup from the transactions collection.
+     */
+    void rebuild();
+
+    /**
+     * Compares every rollup with the aggregates recomputed from the transactions collection.
+     *
+     * @return Consistency report
+     */
+    RollupConsistencyReport checkConsistency();
+}
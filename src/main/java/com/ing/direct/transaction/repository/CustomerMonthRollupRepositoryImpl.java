@@ -0,0 +1,333 @@
+package com.ing.direct.transaction.repository;
+
+import com.ing.direct.transaction.model.CustomerMonthRollup;
+import com.ing.direct.transaction.model.Transaction;
+import com.mongodb.BasicDBObject;
+import com.mongodb.BulkWriteException;
+import com.mongodb.BulkWriteOperation;
+import com.mongodb.DBCollection;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+import com.mongodb.DuplicateKeyException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Repository;
+
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static com.ing.direct.common.mongo.InstrumentedMongoTemplate.timeDriverOperation;
+import static com.ing.direct.common.utils.ClassUtils.CUSTOMER_MONTH_ROLLUPS_COLLECTION_NAME;
+import static com.ing.direct.transaction.repository.CustomerMonthAggregate.VERSION;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Repository implementation class maintaining the {@link CustomerMonthRollup} documents of the
+ * {@link com.ing.direct.common.utils.ClassUtils#CUSTOMER_MONTH_ROLLUPS_COLLECTION_NAME} collection. Months and times
+ * of day are computed in the system default zone, consistently with
+ * {@link com.ing.direct.transaction.model.TransactionBatch}.
+ * <p>
+ * <p>Every update of a rollup increments its {@code version} field, which is not mapped on
+ * {@link CustomerMonthRollup}. Rollups recomputed from the transactions collection are only written if their version
+ * is still the one read before streaming the transactions, so that the increments of concurrent writes are never
+ * overwritten.</p>
+ *
+ * @see CustomerMonthRollupRepositoryCustom
+ */
+@Repository
+public class CustomerMonthRollupRepositoryImpl implements CustomerMonthRollupRepositoryCustom {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CustomerMonthRollupRepositoryImpl.class);
+
+    private static final int MAX_RECOMPUTE_ATTEMPTS = 3;
+
+    private final ZoneId zoneId = ZoneId.systemDefault();
+
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    public CustomerMonthRollupRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * <p>Subtracting a transaction whose amount is the lowest amount or the smallest deposit of its rollup flags the
+     * rollup as dirty, since the new minimum is unknown. The updates are ordered, so that the rollup is flagged
+     * after its counters and minimums are updated.</p>
+     * <p>
+     * <p>Rollups created by these changes are flagged as dirty as well, their month possibly holding transactions
+     * written before the rollups were maintained: each of them is recomputed once, on its first read.</p>
+     */
+    @Override
+    public void applyChanges(List<Transaction> added, List<Transaction> removed) {
+
+        if (added.isEmpty() && removed.isEmpty()) {
+            return;
+        }
+
+        Map<String, CustomerMonthAggregate> aggregates = new HashMap<>();
+
+        added.forEach(transaction -> getAggregate(aggregates, transaction).add(transaction, zoneId));
+        removed.forEach(transaction -> getAggregate(aggregates, transaction).remove(transaction, zoneId));
+
+        BulkWriteOperation bulk = getCollection().initializeOrderedBulkOperation();
+
+        for (CustomerMonthAggregate aggregate : aggregates.values()) {
+            bulk.find(aggregate.toQuery()).upsert().updateOne(aggregate.toIncrementUpdate());
+
+            DBObject removedMinimumQuery = aggregate.toRemovedMinimumQuery();
+            if (removedMinimumQuery != null) {
+                bulk.find(removedMinimumQuery).updateOne(new BasicDBObject("$set", new BasicDBObject("dirty", true)));
+            }
+        }
+
+        timeDriverOperation(mongoTemplate, "bulkWrite", CUSTOMER_MONTH_ROLLUPS_COLLECTION_NAME,
+                new BasicDBObject("_id", "?"), bulk::execute);
+    }
+
+    private CustomerMonthAggregate getAggregate(Map<String, CustomerMonthAggregate> aggregates, Transaction transaction) {
+        return aggregates.computeIfAbsent(CustomerMonthAggregate.getId(transaction, zoneId),
+                id -> CustomerMonthAggregate.of(transaction, zoneId));
+    }
+
+    @Override
+    public Optional<CustomerMonthRollup> findRollup(String customerId, YearMonth month) {
+
+        CustomerMonthRollup rollup = mongoTemplate.findById(
+                CustomerMonthRollup.toId(customerId, month.getYear() * 100 + month.getMonthValue()),
+                CustomerMonthRollup.class);
+
+        if (rollup != null && !rollup.isDirty()) {
+            return Optional.of(rollup);
+        }
+
+        return recompute(customerId, month);
+    }
+
+    /**
+     * Recomputes the rollup of a given customer and month from its transactions, removing it if there is none. The
+     * recomputed rollup is only written if no concurrent write has updated it meanwhile, otherwise it is recomputed
+     * again up to {@link #MAX_RECOMPUTE_ATTEMPTS} times before being returned without being written.
+     */
+    private Optional<CustomerMonthRollup> recompute(String customerId, YearMonth month) {
+
+        Date start = Date.from(month.atDay(1).atStartOfDay(zoneId).toInstant());
+        Date end = Date.from(month.plusMonths(1).atDay(1).atStartOfDay(zoneId).toInstant());
+
+        Query transactionQuery = new Query(new Criteria().andOperator(
+                where("customer").is(customerId),
+                where("date").gte(start),
+                where("date").lt(end)));
+        transactionQuery.fields().include("customer").include("date").include("amount");
+
+        String id = CustomerMonthRollup.toId(customerId, month.getYear() * 100 + month.getMonthValue());
+
+        for (int attempt = 1; ; attempt++) {
+            DBObject current = getCollection().findOne(new BasicDBObject("_id", id), new BasicDBObject(VERSION, 1));
+            CustomerMonthAggregate aggregate = aggregate(transactionQuery).get(id);
+
+            if (replace(id, current, aggregate) || attempt == MAX_RECOMPUTE_ATTEMPTS) {
+                return Optional.ofNullable(aggregate).map(CustomerMonthAggregate::toRollup);
+            }
+
+            LOG.debug("customer month rollup updated while being recomputed [id:{}, attempt:{}]", id, attempt);
+        }
+    }
+
+    /**
+     * Replaces the rollup {@code current} (null if missing) with {@code aggregate}, or removes it if the aggregate is
+     * null, provided that its version has not changed.
+     *
+     * @return {@code false} if the rollup has been updated concurrently
+     */
+    private boolean replace(String id, DBObject current, CustomerMonthAggregate aggregate) {
+        Object version = current == null ? null : current.get(VERSION);
+
+        if (aggregate == null) {
+            return current == null
+                    || getCollection().remove(CustomerMonthAggregate.toVersionQuery(id, version)).getN() == 1;
+        }
+
+        try {
+            return getCollection()
+                    .update(aggregate.toVersionQuery(version), aggregate.toReplacementUpdate(), current == null, false)
+                    .getN() == 1;
+        } catch (DuplicateKeyException e) {
+            // the rollup has been created concurrently
+            return false;
+        }
+    }
+
+    /**
+     * Recomputes every rollup by streaming the {@code customer}, {@code date} and {@code amount} fields of the
+     * transactions collection. Rollups of months without any transaction are removed.
+     * <p>
+     * <p>The versions of the rollups are read before streaming the transactions and each rollup is only replaced or
+     * removed if its version has not changed. Rollups updated by concurrent writes meanwhile are flagged dirty
+     * instead, so that they are recomputed on their next read.</p>
+     */
+    @Override
+    public void rebuild() {
+
+        Map<String, Object> versions = getVersions();
+        Map<String, CustomerMonthAggregate> aggregates = aggregateAll();
+        Set<String> orphans = versions.keySet()
+                .stream()
+                .filter(id -> !aggregates.containsKey(id))
+                .collect(Collectors.toSet());
+
+        Set<String> conflicts = new HashSet<>();
+
+        if (!aggregates.isEmpty() || !orphans.isEmpty()) {
+            BulkWriteOperation bulk = getCollection().initializeUnorderedBulkOperation();
+            List<String> operationIds = new ArrayList<>();
+
+            aggregates.values().forEach(aggregate -> {
+                if (versions.containsKey(aggregate.getId())) {
+                    bulk.find(aggregate.toVersionQuery(versions.get(aggregate.getId())))
+                            .updateOne(aggregate.toReplacementUpdate());
+                } else {
+                    bulk.find(aggregate.toVersionQuery(null)).upsert().updateOne(aggregate.toReplacementUpdate());
+                }
+                operationIds.add(aggregate.getId());
+            });
+            orphans.forEach(id -> {
+                bulk.find(CustomerMonthAggregate.toVersionQuery(id, versions.get(id))).removeOne();
+                operationIds.add(id);
+            });
+
+            try {
+                timeDriverOperation(mongoTemplate, "bulkWrite", CUSTOMER_MONTH_ROLLUPS_COLLECTION_NAME,
+                        CustomerMonthAggregate.toVersionQuery("?", "?"), bulk::execute);
+            } catch (BulkWriteException e) {
+                // rollups created concurrently
+                e.getWriteErrors().forEach(error -> conflicts.add(operationIds.get(error.getIndex())));
+            }
+        }
+
+        getVersions().forEach((id, version) -> {
+            boolean updatedConcurrently = aggregates.containsKey(id)
+                    ? getVersion(version) != getVersion(versions.get(id)) + 1
+                    : orphans.contains(id);
+
+            if (updatedConcurrently) {
+                conflicts.add(id);
+            }
+        });
+
+        if (!conflicts.isEmpty()) {
+            getCollection().update(new BasicDBObject("_id", new BasicDBObject("$in", conflicts)),
+                    new BasicDBObject("$set", new BasicDBObject("dirty", true)), false, true);
+        }
+
+        LOG.info("rebuilt {} customer month rollups [removed:{}, updated concurrently:{}]",
+                aggregates.size(), orphans.size(), conflicts.size());
+    }
+
+    /**
+     * Returns the version of every rollup by identifier, null for the rollups never versioned.
+     */
+    private Map<String, Object> getVersions() {
+
+        Map<String, Object> versions = new HashMap<>();
+
+        DBCursor rollups = getCollection().find(new BasicDBObject(), new BasicDBObject(VERSION, 1));
+        try {
+            rollups.forEach(rollup -> versions.put((String) rollup.get("_id"), rollup.get(VERSION)));
+        } finally {
+            rollups.close();
+        }
+
+        return versions;
+    }
+
+    private static long getVersion(Object version) {
+        return version == null ? 0 : ((Number) version).longValue();
+    }
+
+    private DBCollection getCollection() {
+        return mongoTemplate.getCollection(CUSTOMER_MONTH_ROLLUPS_COLLECTION_NAME);
+    }
+
+    /**
+     * Compares every rollup with the aggregates recomputed by streaming the transactions collection. Dirty rollups
+     * are not reported since they are recomputed on their next read.
+     */
+    @Override
+    public RollupConsistencyReport checkConsistency() {
+
+        Map<String, CustomerMonthAggregate> aggregates = aggregateAll();
+        Set<String> checkedIds = new HashSet<>();
+        RollupConsistencyReport report = new RollupConsistencyReport();
+
+        CloseableIterator<CustomerMonthRollup> rollups = mongoTemplate.stream(new Query(), CustomerMonthRollup.class);
+        try {
+            rollups.forEachRemaining(rollup -> {
+                CustomerMonthAggregate aggregate = aggregates.get(rollup.getId());
+                checkedIds.add(rollup.getId());
+
+                if (rollup.isDirty()) {
+                    return;
+                }
+
+                if (aggregate == null) {
+                    report.orphaned(rollup.getId());
+                } else if (!aggregate.toRollup().equals(rollup)) {
+                    report.mismatched(rollup.getId());
+                }
+            });
+        } finally {
+            rollups.close();
+        }
+
+        aggregates.keySet()
+                .stream()
+                .filter(id -> !checkedIds.contains(id))
+                .forEach(report::missing);
+
+        report.setChecked(checkedIds.size());
+
+        LOG.info("checked {} customer month rollups [mismatched:{}, missing:{}, orphaned:{}]",
+                report.getChecked(), report.getMismatched(), report.getMissing(), report.getOrphaned());
+
+        return report;
+    }
+
+    private Map<String, CustomerMonthAggregate> aggregateAll() {
+
+        Query transactionQuery = new Query();
+        transactionQuery.fields().include("customer").include("date").include("amount");
+
+        return aggregate(transactionQuery);
+    }
+
+    private Map<String, CustomerMonthAggregate> aggregate(Query transactionQuery) {
+
+        Map<String, CustomerMonthAggregate> aggregates = new HashMap<>();
+
+        CloseableIterator<Transaction> transactions = mongoTemplate.stream(transactionQuery, Transaction.class);
+        try {
+            transactions.forEachRemaining(transaction -> getAggregate(aggregates, transaction).add(transaction, zoneId));
+        } finally {
+            transactions.close();
+        }
+
+        return aggregates;
+    }
+}
@@ -0,0 +1,89 @@
+package com.ing.direct.transaction.repository;
+
+import com.google.common.base.Strings;
+import com.ing.direct.transaction.exception.InvalidParameterException;
+import com.ing.direct.transaction.model.Transaction;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Continuation token of the transactions keyset pagination, holding the {@code date} and {@code id} of the last
+ * transaction of a page. Pages are sorted by descending date then identifier, so that the next page is the range of
+ * the {@code transaction_date_id_idx} index strictly after this key.
+ * <p>
+ * <p>Tokens are exposed as opaque URL-safe strings.</p>
+ *
+ * @see TransactionRepositoryCustom#findPage(String, int)
+ */
+public final class PageToken {
+    private static final char SEPARATOR = ':';
+
+    private final long date;
+    private final String id;
+
+    private PageToken(long date, String id) {
+        this.date = date;
+        this.id = id;
+    }
+
+    /**
+     * Returns the token pointing after a given transaction.
+     *
+     * @param transaction Last transaction of a page
+     * @return PageToken instance
+     */
+    public static PageToken after(Transaction transaction) {
+        return new PageToken(transaction.getDate().getTime(), transaction.getId());
+    }
+
+    /**
+     * Decodes an opaque token.
+     *
+     * @param token Opaque token
+     * @return PageToken instance
+     * @throws InvalidParameterException in case the token is malformed
+     */
+    public static PageToken decode(String token) {
+        try {
+            String key = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = key.indexOf(SEPARATOR);
+
+            if (separator <= 0 || separator == key.length() - 1) {
+                throw new InvalidParameterException("pageToken", token);
+            }
+
+            return new PageToken(Long.parseLong(key.substring(0, separator)), key.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidParameterException("pageToken", token);
+        }
+    }
+
+    /**
+     * Returns if a token is the one of the first page.
+     *
+     * @param token Opaque token, possibly null
+     * @return If no token is given
+     */
+    public static boolean isFirstPage(String token) {
+        return Strings.isNullOrEmpty(token);
+    }
+
+    /**
+     * Encodes this token as an opaque URL-safe string.
+     *
+     * @return Opaque token
+     */
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((Long.toString(date) + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public long getDate() {
+        return date;
+    }
+
+    public String getId() {
+        return id;
+    }
+}
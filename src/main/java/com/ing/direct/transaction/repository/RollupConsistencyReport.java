@@ -0,0 +1,48 @@
+package com.ing.direct.transaction.repository;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Report class gathering the outcome of a rollup consistency check: number of rollups checked and the identifiers
+ * of the rollups differing from the transactions collection, missing or left without any transaction.
+ *
+ * @see CustomerMonthRollupRepositoryCustom#checkConsistency()
+ */
+@Data
+public class RollupConsistencyReport {
+    private static final int MAX_REPORTED_IDS = 100;
+
+    private long checked;
+    private long mismatched;
+    private long missing;
+    private long orphaned;
+    private List<String> inconsistentIds = new ArrayList<>();
+
+    void mismatched(String id) {
+        mismatched++;
+        report(id);
+    }
+
+    void missing(String id) {
+        missing++;
+        report(id);
+    }
+
+    void orphaned(String id) {
+        orphaned++;
+        report(id);
+    }
+
+    public boolean isConsistent() {
+        return mismatched == 0 && missing == 0 && orphaned == 0;
+    }
+
+    private void report(String id) {
+        if (inconsistentIds.size() < MAX_REPORTED_IDS) {
+            inconsistentIds.add(id);
+        }
+    }
+}
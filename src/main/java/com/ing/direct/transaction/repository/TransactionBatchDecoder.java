@@ -0,0 +1,237 @@
+package com.ing.direct.transaction.repository;
+
+import com.ing.direct.common.mongo.CountingDBDecoder;
+import com.ing.direct.transaction.model.TransactionBatch;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Date;
+
+import static com.ing.direct.common.utils.ClassUtils.toCents;
+
+/**
+ * Hand-written decoder reading the {@code date} and {@code amount} fields of projected transaction documents straight
+ * from their BSON bytes into primitive columns, without building any {@link DBObject} nor going through the mapping
+ * converter. Every document decoded this way is returned as the same empty marker object.
+ * <p>
+ * <p>Documents holding any other field or type (e.g. a query error) are decoded by the default decoder and returned
+ * as is, those documents being appended by the caller with {@link #append(DBObject)}. A decoder accumulates the
+ * documents of a single query and must not be shared.</p>
+ * <p>
+ * <p>Documents missing their {@code date} or holding an amount which is not a number are skipped with a warning,
+ * rather than failing the whole read.</p>
+ *
+ * @see TransactionRepositoryImpl#findBatchByCustomerIdAndDate(String, java.util.Date, java.util.Date)
+ */
+class TransactionBatchDecoder extends CountingDBDecoder {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TransactionBatchDecoder.class);
+
+    static final DBObject DECODED = new BasicDBObject();
+
+    private static final byte[] ID = "_id".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] DATE = "date".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] AMOUNT = "amount".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte DOUBLE = 0x01;
+    private static final byte STRING = 0x02;
+    private static final byte OBJECT_ID = 0x07;
+    private static final byte DATE_TIME = 0x09;
+    private static final byte INT32 = 0x10;
+    private static final byte INT64 = 0x12;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] amounts = new long[INITIAL_CAPACITY];
+    private long[] timestamps = new long[INITIAL_CAPACITY];
+    private int size;
+
+    @Override
+    public DBObject decode(byte[] bytes, DBCollection collection) {
+        if (decodeColumns(bytes)) {
+            count(bytes.length);
+            return DECODED;
+        }
+        return super.decode(bytes, collection);
+    }
+
+    @Override
+    public DBObject decode(InputStream in, DBCollection collection) throws IOException {
+        byte[] bytes = new byte[4];
+        readFully(in, bytes, 0, 4);
+
+        int length = readInt(bytes, 0);
+        bytes = Arrays.copyOf(bytes, length);
+        readFully(in, bytes, 4, length - 4);
+
+        return decode(bytes, collection);
+    }
+
+    /**
+     * Appends a document decoded by the default decoder.
+     *
+     * @param document Document holding the {@code date} and {@code amount} fields, amounts being read as cents if
+     *                 they are integers and as units otherwise. Documents without a date or a numeric amount are
+     *                 skipped
+     */
+    void append(DBObject document) {
+        Object date = document.get("date");
+        Object amount = document.get("amount");
+        Long cents;
+
+        if (amount instanceof Long || amount instanceof Integer) {
+            cents = ((Number) amount).longValue();
+        } else if (amount instanceof Double) {
+            cents = toCents(BigDecimal.valueOf((Double) amount));
+        } else if (amount instanceof String) {
+            cents = parseCents((String) amount);
+        } else {
+            cents = null;
+        }
+
+        if (!(date instanceof Date) || cents == null) {
+            LOG.warn("skipping transaction with date {} and amount {}", date, amount);
+            return;
+        }
+
+        add(((Date) date).getTime(), cents);
+    }
+
+    /**
+     * Returns the decoded transactions as a batch, the documents having been read in ascending date order.
+     *
+     * @param zoneId Zone used to compute the local time of day
+     * @return TransactionBatch instance
+     */
+    TransactionBatch toBatch(ZoneId zoneId) {
+        return TransactionBatch.of(amounts, timestamps, size, zoneId);
+    }
+
+    /**
+     * Decodes a document made of an optional {@code _id}, a {@code date} and an {@code amount} into the columns.
+     *
+     * @return {@code false} if the document holds any other field or type, the columns being left unchanged
+     */
+    private boolean decodeColumns(byte[] bytes) {
+
+        int end = readInt(bytes, 0) - 1;
+        int position = 4;
+
+        long timestamp = 0;
+        long amount = 0;
+        boolean hasDate = false;
+        boolean hasAmount = false;
+
+        while (position < end) {
+            byte type = bytes[position++];
+
+            int nameStart = position;
+            while (bytes[position] != 0) {
+                position++;
+            }
+            int nameEnd = position++;
+
+            if (matches(bytes, nameStart, nameEnd, DATE) && type == DATE_TIME) {
+                timestamp = readLong(bytes, position);
+                hasDate = true;
+                position += 8;
+            } else if (matches(bytes, nameStart, nameEnd, AMOUNT) && type == INT64) {
+                amount = readLong(bytes, position);
+                hasAmount = true;
+                position += 8;
+            } else if (matches(bytes, nameStart, nameEnd, AMOUNT) && type == INT32) {
+                amount = readInt(bytes, position);
+                hasAmount = true;
+                position += 4;
+            } else if (matches(bytes, nameStart, nameEnd, AMOUNT) && type == STRING) {
+                // amounts not migrated to cents yet, invalid ones being left to append
+                int length = readInt(bytes, position);
+                Long cents = parseCents(new String(bytes, position + 4, length - 1, StandardCharsets.UTF_8));
+                if (cents == null) {
+                    return false;
+                }
+                amount = cents;
+                hasAmount = true;
+                position += 4 + length;
+            } else if (matches(bytes, nameStart, nameEnd, AMOUNT) && type == DOUBLE) {
+                amount = toCents(BigDecimal.valueOf(Double.longBitsToDouble(readLong(bytes, position))));
+                hasAmount = true;
+                position += 8;
+            } else if (matches(bytes, nameStart, nameEnd, ID) && type == OBJECT_ID) {
+                position += 12;
+            } else if (matches(bytes, nameStart, nameEnd, ID) && type == STRING) {
+                position += 4 + readInt(bytes, position);
+            } else {
+                return false;
+            }
+        }
+
+        if (!hasDate || !hasAmount) {
+            return false;
+        }
+
+        add(timestamp, amount);
+        return true;
+    }
+
+    private void add(long timestamp, long amount) {
+        if (size == amounts.length) {
+            amounts = Arrays.copyOf(amounts, size * 2);
+            timestamps = Arrays.copyOf(timestamps, size * 2);
+        }
+        amounts[size] = amount;
+        timestamps[size] = timestamp;
+        size++;
+    }
+
+    private static Long parseCents(String amount) {
+        try {
+            return toCents(new BigDecimal(amount));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean matches(byte[] bytes, int start, int end, byte[] name) {
+        if (end - start != name.length) {
+            return false;
+        }
+        for (int i = 0; i < name.length; i++) {
+            if (bytes[start + i] != name[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int readInt(byte[] bytes, int position) {
+        return (bytes[position] & 0xff)
+                | (bytes[position + 1] & 0xff) << 8
+                | (bytes[position + 2] & 0xff) << 16
+                | (bytes[position + 3] & 0xff) << 24;
+    }
+
+    private static long readLong(byte[] bytes, int position) {
+        return (readInt(bytes, position) & 0xffffffffL) | (long) readInt(bytes, position + 4) << 32;
+    }
+
+    private static void readFully(InputStream in, byte[] bytes, int offset, int length) throws IOException {
+        while (length > 0) {
+            int read = in.read(bytes, offset, length);
+            if (read < 0) {
+                throw new IOException("unexpected end of document");
+            }
+            offset += read;
+            length -= read;
+        }
+    }
+}
@@ -1,21 +1,50 @@
 package com.ing.direct.transaction.repository;
 
+import com.ing.direct.transaction.model.CustomerMonthRollup;
 import com.ing.direct.transaction.model.Transaction;
+import com.ing.direct.transaction.model.TransactionBatch;
+import com.ing.direct.transaction.model.TransactionPage;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.util.CloseableIterator;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @Repository
 public interface TransactionRepositoryCustom {
 
     void saveOrUpdate(Transaction... transaction);
 
+    BulkWriteReport bulkSaveOrUpdate(List<Transaction> transactions);
+
+    BulkWriteReport bulkSaveOrUpdate(List<Transaction> transactions, int batchSize);
+
     List<Transaction> findByCustomerIdAndDate(String customerId, Date start, Date end);
 
     List<Transaction> findByCustomerId(String customerId);
 
+    BigDecimal findBalanceByCustomerId(String customerId);
+
+    List<Transaction> findByCustomerIdsAndDate(Collection<String> customerIds, Date start, Date end);
+
+    Map<String, BigDecimal> findBalancesByCustomerIds(Collection<String> customerIds);
+
+    CloseableIterator<Transaction> streamByDateOrderByCustomer(Date start, Date end);
+
+    TransactionPage findPage(String pageToken, int size);
+
+    Optional<CustomerMonthRollup> findMonthRollup(String customerId, YearMonth month);
+
+    TransactionBatch findBatchByCustomerIdAndDate(String customerId, Date start, Date end);
+
+    long migrateAmounts(int batchSize);
+
     MongoTemplate getMongoTemplate();
 
     void setMongoTemplate(MongoTemplate template);
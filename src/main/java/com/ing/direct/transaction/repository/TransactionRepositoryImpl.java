@@ -2,23 +2,65 @@ package com.ing.direct.transaction.repository;
 
 import com.google.common.base.Strings;
 import com.ing.direct.common.service.CounterService;
+import com.ing.direct.common.service.CustomerCacheEvictionService;
+import com.ing.direct.common.service.CustomerVersionService;
+import com.ing.direct.transaction.model.CustomerMonthRollup;
 import com.ing.direct.transaction.model.Transaction;
+import com.ing.direct.transaction.model.TransactionBatch;
+import com.ing.direct.transaction.model.TransactionPage;
+import com.mongodb.AggregationOptions;
+import com.mongodb.BasicDBObject;
+import com.mongodb.BulkWriteError;
+import com.mongodb.BulkWriteException;
+import com.mongodb.BulkWriteOperation;
+import com.mongodb.BulkWriteResult;
+import com.mongodb.BulkWriteUpsert;
+import com.mongodb.Cursor;
+import com.mongodb.DBCollection;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
 import com.mongodb.MongoException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.convert.UpdateMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
 import org.springframework.stereotype.Repository;
+import org.springframework.util.Assert;
 
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import static com.ing.direct.common.mongo.InstrumentedMongoTemplate.timeDriverOperation;
+import static com.ing.direct.common.utils.ClassUtils.DEFAULT_BULK_BATCH_SIZE;
+import static com.ing.direct.common.utils.ClassUtils.TRANSACTIONS_COLLECTION_NAME;
+import static com.ing.direct.common.utils.ClassUtils.fromCents;
+import static com.ing.direct.common.utils.ClassUtils.toCents;
 import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
 
 /**
  * Repository implementation class methods to manipulate {@link Transaction} resource in database.
@@ -31,14 +73,36 @@ public class TransactionRepositoryImpl implements TransactionRepositoryCustom {
 
     private static final Logger LOG = LoggerFactory.getLogger(com.ing.direct.transaction.repository.TransactionRepositoryImpl.class);
 
+    private final ZoneId zoneId = ZoneId.systemDefault();
+
     private MongoTemplate mongoTemplate;
 
     private CounterService counterService;
 
+    private CustomerBalanceRepository customerBalanceRepository;
+
+    private CustomerMonthRollupRepository customerMonthRollupRepository;
+
+    private CustomerVersionService customerVersionService;
+
+    private CustomerCacheEvictionService customerCacheEvictionService;
+
+    @Value("${analytics.bulk.batch-size:1000}")
+    private int batchSize = DEFAULT_BULK_BATCH_SIZE;
+
     @Autowired
-    public TransactionRepositoryImpl(MongoTemplate mongoTemplate, CounterService counterService) {
+    public TransactionRepositoryImpl(MongoTemplate mongoTemplate,
+                                     CounterService counterService,
+                                     CustomerBalanceRepository customerBalanceRepository,
+                                     CustomerMonthRollupRepository customerMonthRollupRepository,
+                                     CustomerVersionService customerVersionService,
+                                     CustomerCacheEvictionService customerCacheEvictionService) {
         this.mongoTemplate = mongoTemplate;
         this.counterService = counterService;
+        this.customerBalanceRepository = customerBalanceRepository;
+        this.customerMonthRollupRepository = customerMonthRollupRepository;
+        this.customerVersionService = customerVersionService;
+        this.customerCacheEvictionService = customerCacheEvictionService;
     }
 
     @Override
@@ -64,30 +128,526 @@ public class TransactionRepositoryImpl implements TransactionRepositoryCustom {
 
     }
 
+    /**
+     * Returns the {@code date} and {@code amount} fields of the transactions of a given customer between two dates.
+     * The query projects these fields only, so that it is covered by the {@code transaction_customer_date_amount_idx}
+     * index, and the documents are decoded straight into the columns of the batch by a {@link TransactionBatchDecoder}.
+     *
+     * @param customerId Customer identifier
+     * @param start      Start date, inclusive
+     * @param end        End date, exclusive
+     * @return Batch of the transactions
+     */
     @Override
-    public void saveOrUpdate(Transaction... transactions) {
+    public TransactionBatch findBatchByCustomerIdAndDate(String customerId, Date start, Date end) {
+        return findBatch(new BasicDBObject("customer", customerId)
+                .append("date", new BasicDBObject("$gte", start).append("$lt", end)));
+    }
+
+    @Override
+    public Optional<CustomerMonthRollup> findMonthRollup(String customerId, YearMonth month) {
+        return customerMonthRollupRepository.findRollup(customerId, month);
+    }
+
+    /**
+     * Returns the balance of a given customer from its running balance. Customers without a running balance yet
+     * (e.g. transactions inserted before balances were maintained) have their balance computed from the
+     * {@code amount} field of their transactions.
+     *
+     * @param customerId Customer identifier
+     * @return Customer balance
+     */
+    @Override
+    public BigDecimal findBalanceByCustomerId(String customerId) {
+        return customerBalanceRepository
+                .findBalance(customerId)
+                .orElseGet(() -> computeBalance(customerId));
+    }
+
+    /**
+     * Returns the transactions of several customers between two dates with a single {@code $in} query. The
+     * {@code $in} and date range bounds are both served by the {@code transaction_customer_date_amount_idx} index.
+     *
+     * @param customerIds Customer identifiers
+     * @param start       Start date, inclusive
+     * @param end         End date, exclusive
+     * @return Transactions of all the customers, in descending date order
+     */
+    @Override
+    public List<Transaction> findByCustomerIdsAndDate(Collection<String> customerIds, Date start, Date end) {
+
+        if (customerIds.isEmpty()) {
+            return Collections.emptyList();
+        }
 
-        Arrays.asList(transactions).stream().forEach(transaction -> {
-            Criteria criteria = getCriteria(transaction);
+        Query query = new Query(new Criteria().andOperator(
+                where("customer").in(customerIds),
+                where("date").gte(start),
+                where("date").lt(end)));
+        query.with(new Sort(Sort.Direction.DESC, "date"));
 
-            Update update = getUpdate(transaction);
+        return mongoTemplate.find(query, Transaction.class);
+    }
+
+    /**
+     * Returns the balances of several customers from their running balances, fetched with a single query. Balances
+     * of customers without a running balance yet are computed from their transactions with a single query as well,
+     * see {@link #computeBalances(Collection)}.
+     *
+     * @param customerIds Customer identifiers
+     * @return Balances by customer identifier
+     */
+    @Override
+    public Map<String, BigDecimal> findBalancesByCustomerIds(Collection<String> customerIds) {
+
+        Map<String, BigDecimal> balances = customerBalanceRepository.findBalances(customerIds);
+
+        Set<String> missingCustomerIds = customerIds
+                .stream()
+                .filter(customerId -> !balances.containsKey(customerId))
+                .collect(Collectors.toSet());
+
+        if (!missingCustomerIds.isEmpty()) {
+            Map<String, Long> computedBalances = computeBalances(missingCustomerIds);
+            missingCustomerIds.forEach(customerId ->
+                    balances.put(customerId, fromCents(computedBalances.getOrDefault(customerId, 0L))));
+        }
+
+        return balances;
+    }
+
+    /**
+     * Streams the transactions of every customer between two dates, sorted by ascending customer then date so that
+     * the sort is served by the {@code transaction_customer_date_amount_idx} index rather than done in memory.
+     *
+     * @param start Start date, inclusive
+     * @param end   End date, exclusive
+     * @return Cursor over the transactions, to be closed by the caller
+     */
+    @Override
+    public CloseableIterator<Transaction> streamByDateOrderByCustomer(Date start, Date end) {
+
+        Query query = new Query(new Criteria().andOperator(
+                where("date").gte(start),
+                where("date").lt(end)));
+        query.with(new Sort(Sort.Direction.ASC, "customer", "date"));
+
+        return mongoTemplate.stream(query, Transaction.class);
+    }
+
+    /**
+     * Returns a page of transactions sorted by descending date then identifier, using keyset pagination: the page
+     * following a token is read from the {@code transaction_date_id_idx} index range strictly after the key of the
+     * token, without skipping documents nor counting them, so that every page costs the same whatever its depth.
+     *
+     * @param pageToken Continuation token returned with the previous page, null or empty for the first page
+     * @param size      Page size
+     * @return Page of transactions
+     * @throws com.ing.direct.transaction.exception.InvalidParameterException in case the token is malformed
+     */
+    @Override
+    public TransactionPage findPage(String pageToken, int size) {
+
+        Assert.isTrue(size > 0, "page size must be positive");
+
+        Query query = new Query();
+
+        if (!PageToken.isFirstPage(pageToken)) {
+            PageToken token = PageToken.decode(pageToken);
+            Date date = new Date(token.getDate());
+
+            query.addCriteria(where("date").lte(date).orOperator(
+                    where("date").lt(date),
+                    where("id").lt(token.getId())));
+        }
 
-            Query query = new Query(criteria);
+        query.with(new Sort(Sort.Direction.DESC, "date", "id"));
+        // one more transaction tells if there is a next page without counting
+        query.limit(size + 1);
 
+        List<Transaction> transactions = mongoTemplate.find(query, Transaction.class);
+
+        if (transactions.size() <= size) {
+            return TransactionPage.builder().transactions(transactions).build();
+        }
+
+        List<Transaction> page = new ArrayList<>(transactions.subList(0, size));
+
+        return TransactionPage
+                .builder()
+                .transactions(page)
+                .nextPageToken(PageToken.after(page.get(size - 1)).encode())
+                .build();
+    }
+
+    /**
+     * Sums the amounts of the transactions of several customers, in cents. Amounts are summed by a {@code $match} and
+     * {@code $group} aggregation once every amount of these customers is stored in cents, and by streaming their
+     * {@code customer} and {@code amount} fields while some amounts are still stored as strings.
+     *
+     * @return Balances by customer identifier, customers without any transaction being left out
+     */
+    private Map<String, Long> computeBalances(Collection<String> customerIds) {
+
+        Map<String, Long> balances = new HashMap<>();
+
+        if (mongoTemplate.exists(query(where("customer").in(customerIds).and("amount").type(2)), Transaction.class)) {
+            Query transactionQuery = query(where("customer").in(customerIds));
+            transactionQuery.fields().include("customer").include("amount");
+
+            CloseableIterator<Transaction> transactions = mongoTemplate.stream(transactionQuery, Transaction.class);
+            try {
+                transactions.forEachRemaining(transaction ->
+                        balances.merge(transaction.getCustomer(), toCents(transaction.getAmount()), Long::sum));
+            } finally {
+                transactions.close();
+            }
+
+            return balances;
+        }
+
+        DBObject match = new BasicDBObject("$match",
+                new BasicDBObject("customer", new BasicDBObject("$in", customerIds)));
+        DBObject group = new BasicDBObject("$group", new BasicDBObject()
+                .append("_id", "$customer")
+                .append("balance", new BasicDBObject("$sum", "$amount")));
+
+        List<DBObject> pipeline = Arrays.asList(match, group);
+
+        return timeDriverOperation(mongoTemplate, "aggregate", TRANSACTIONS_COLLECTION_NAME, pipeline, () -> {
+            Cursor cursor = mongoTemplate
+                    .getCollection(TRANSACTIONS_COLLECTION_NAME)
+                    .aggregate(pipeline, AggregationOptions
+                            .builder()
+                            .outputMode(AggregationOptions.OutputMode.CURSOR)
+                            .build());
+            try {
+                cursor.forEachRemaining(balance ->
+                        balances.put((String) balance.get("_id"), ((Number) balance.get("balance")).longValue()));
+            } finally {
+                cursor.close();
+            }
+
+            return balances;
+        });
+    }
+
+    private BigDecimal computeBalance(String customerId) {
+        return fromCents(computeBalances(Collections.singleton(customerId)).getOrDefault(customerId, 0L));
+    }
+
+    /**
+     * Returns the {@code date} and {@code amount} fields of the transactions matching a given filter on the
+     * {@code customer} and {@code date} fields, in ascending date order.
+     */
+    private TransactionBatch findBatch(DBObject filter) {
+
+        DBObject projection = new BasicDBObject("_id", 0).append("date", 1).append("amount", 1);
+        TransactionBatchDecoder decoder = new TransactionBatchDecoder();
+
+        timeDriverOperation(mongoTemplate, "findBatch", TRANSACTIONS_COLLECTION_NAME, filter, () -> {
+            DBCursor cursor = mongoTemplate
+                    .getCollection(TRANSACTIONS_COLLECTION_NAME)
+                    .find(filter, projection)
+                    .sort(new BasicDBObject("date", 1))
+                    .setDecoderFactory(() -> decoder);
             try {
+                cursor.forEach(document -> {
+                    if (document != TransactionBatchDecoder.DECODED) {
+                        decoder.append(document);
+                    }
+                });
+            } finally {
+                cursor.close();
+            }
+            return null;
+        });
+
+        return decoder.toBatch(zoneId);
+    }
+
+    /**
+     * Inserts or updates transactions through {@link #bulkSaveOrUpdate(List, int)}, logging each failure.
+     *
+     * @param transactions Transactions to save
+     */
+    @Override
+    public void saveOrUpdate(Transaction... transactions) {
+
+        List<Transaction> transactionList = Arrays.asList(transactions);
+
+        bulkSaveOrUpdate(transactionList).getFailures().forEach(failure ->
+                LOG.error("An error occurred while upserting transaction[{},{}]: {}",
+                        transactionList.get(failure.getIndex()).getCustomer(),
+                        transactionList.get(failure.getIndex()).getDate(),
+                        failure.getMessage()));
+    }
+
+    @Override
+    public BulkWriteReport bulkSaveOrUpdate(List<Transaction> transactions) {
+        return bulkSaveOrUpdate(transactions, batchSize);
+    }
+
+    /**
+     * Inserts or updates transactions with unordered bulk writes of {@code batchSize} documents, applying the amount
+     * differences to the customer running balances and to the customer month rollups.
+     * <p>
+     * <p>Each batch costs a handful of round trips whatever its size: one query fetching the previous version of the
+     * transactions holding an identifier, one {@code $inc} reserving a block of identifiers for the other ones, the
+     * bulk upsert itself and the bulk balance and rollup updates. Identifiers reserved for transactions turning out
+     * to be updates are not reused, leaving gaps in the sequence.</p>
+     * <p>
+     * <p>Once a batch is written, the Spring cache entries of each customer it touches (including the previous
+     * customer of the updated transactions) are evicted along with the updated transactions and the cached pages,
+     * then the {@link CustomerVersionService} version of these customers is incremented so that the results cached
+     * for them are detected as stale. Evicting first ensures that a result rebuilt for the new version is not built
+     * from a cache entry older than the write.</p>
+     *
+     * @param transactions Transactions to save
+     * @param batchSize    Maximum number of transactions sent per bulk write
+     * @return Report holding the number of inserted and updated transactions and the failures, indexed by their
+     * position in {@code transactions}
+     */
+    @Override
+    public BulkWriteReport bulkSaveOrUpdate(List<Transaction> transactions, int batchSize) {
+
+        Assert.isTrue(batchSize > 0, "batchSize must be positive");
+
+        BulkWriteReport report = new BulkWriteReport();
+
+        for (int offset = 0; offset < transactions.size(); offset += batchSize) {
+            List<Transaction> batch = transactions.subList(offset, Math.min(offset + batchSize, transactions.size()));
+            report.merge(writeBatch(batch, offset));
+        }
+
+        return report;
+    }
+
+    private BulkWriteReport writeBatch(List<Transaction> batch, int offset) {
+
+        BulkWriteReport report = new BulkWriteReport();
+        Map<String, Transaction> previousTransactions = Collections.emptyMap();
+
+        try {
+            previousTransactions = findPreviousTransactions(batch);
+
+            int nextId = reserveIds(batch);
+
+            MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext()
+                    .getPersistentEntity(Transaction.class);
+            QueryMapper queryMapper = new QueryMapper(mongoTemplate.getConverter());
+            UpdateMapper updateMapper = new UpdateMapper(mongoTemplate.getConverter());
+
+            String collectionName = mongoTemplate.getCollectionName(Transaction.class);
+            BulkWriteOperation bulk = mongoTemplate
+                    .getCollection(collectionName)
+                    .initializeUnorderedBulkOperation();
+            DBObject firstFilter = null;
+
+            for (Transaction transaction : batch) {
+                Query query = new Query(getCriteria(transaction));
+                Update update = getUpdate(transaction);
+
                 // add an identifier only for new entry
-                if (!mongoTemplate.exists(query, Transaction.class)) {
-                    update.set("id", new Integer(counterService.getNextSequence("transactions")).toString());
+                if (Strings.isNullOrEmpty(transaction.getId())) {
+                    update.setOnInsert("id", Integer.toString(nextId++));
                 }
 
-                // insert or update transaction
-                mongoTemplate.upsert(query, update, Transaction.class);
-            } catch (MongoException me) {
-                LOG.error("An error occurred while upserting transaction[{},{}] ",
-                        transaction.getCustomer(), transaction.getDate(), me);
+                DBObject filter = queryMapper.getMappedObject(query.getQueryObject(), entity);
+                if (firstFilter == null) {
+                    firstFilter = filter;
+                }
+
+                bulk.find(filter)
+                        .upsert()
+                        .updateOne(updateMapper.getMappedObject(update.getUpdateObject(), entity));
             }
-        });
 
+            BulkWriteResult result;
+            Set<Integer> failedIndexes = new HashSet<>();
+
+            try {
+                result = timeDriverOperation(mongoTemplate, "bulkWrite", collectionName, firstFilter, bulk::execute);
+            } catch (BulkWriteException bwe) {
+                result = bwe.getWriteResult();
+                for (BulkWriteError error : bwe.getWriteErrors()) {
+                    failedIndexes.add(error.getIndex());
+                    report.getFailures().add(BulkWriteFailure
+                            .builder()
+                            .index(offset + error.getIndex())
+                            .code(error.getCode())
+                            .message(error.getMessage())
+                            .build());
+                }
+            }
+
+            Set<Integer> insertedIndexes = result.getUpserts()
+                    .stream()
+                    .map(BulkWriteUpsert::getIndex)
+                    .collect(Collectors.toSet());
+
+            report.setInserted(insertedIndexes.size());
+            report.setUpdated(result.getMatchedCount());
+
+            updateAggregates(batch, previousTransactions, insertedIndexes, failedIndexes);
+
+        } catch (MongoException me) {
+            LOG.error("An error occurred while upserting transactions[{}..{}] ",
+                    offset, offset + batch.size() - 1, me);
+
+            for (int i = 0; i < batch.size(); i++) {
+                report.getFailures().add(BulkWriteFailure
+                        .builder()
+                        .index(offset + i)
+                        .code(me.getCode())
+                        .message(me.getMessage())
+                        .build());
+            }
+        } finally {
+            // even a failed batch may have been partially written
+            Set<String> customers = getCustomers(batch, previousTransactions.values());
+            customerCacheEvictionService.evict(customers, previousTransactions.keySet());
+            customerVersionService.increment(customers);
+        }
+
+        return report;
+    }
+
+    private Set<String> getCustomers(List<Transaction> batch, Collection<Transaction> previousTransactions) {
+
+        Set<String> customers = new HashSet<>();
+
+        batch.forEach(transaction -> customers.add(transaction.getCustomer()));
+        previousTransactions.forEach(transaction -> customers.add(transaction.getCustomer()));
+
+        return customers;
+    }
+
+    /**
+     * Returns the previous version of the batch transactions holding an identifier, fetched with a single query.
+     */
+    private Map<String, Transaction> findPreviousTransactions(List<Transaction> batch) {
+
+        List<String> ids = batch
+                .stream()
+                .map(Transaction::getId)
+                .filter(id -> !Strings.isNullOrEmpty(id))
+                .collect(Collectors.toList());
+
+        if (ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Query query = new Query(where("id").in(ids));
+        query.fields().include("customer").include("date").include("amount");
+
+        return mongoTemplate
+                .find(query, Transaction.class)
+                .stream()
+                .collect(Collectors.toMap(Transaction::getId, Function.identity()));
+    }
+
+    /**
+     * Reserves one identifier for each batch transaction without identifier and returns the first one.
+     */
+    private int reserveIds(List<Transaction> batch) {
+
+        int count = (int) batch
+                .stream()
+                .filter(transaction -> Strings.isNullOrEmpty(transaction.getId()))
+                .count();
+
+        return count == 0 ? 0 : counterService.getNextSequenceBlock(TRANSACTIONS_COLLECTION_NAME, count);
+    }
+
+    /**
+     * Applies the written transactions to the customer balances and month rollups: inserted transactions are added,
+     * updated ones are added while their previous version is subtracted. Transactions matched without identifier
+     * share the fields of the matched document, hence leave aggregates as is.
+     */
+    private void updateAggregates(List<Transaction> batch,
+                                  Map<String, Transaction> previousTransactions,
+                                  Set<Integer> insertedIndexes,
+                                  Set<Integer> failedIndexes) {
+
+        List<Transaction> added = new ArrayList<>();
+        List<Transaction> removed = new ArrayList<>();
+
+        for (int i = 0; i < batch.size(); i++) {
+            Transaction transaction = batch.get(i);
+
+            if (failedIndexes.contains(i)) {
+                continue;
+            }
+
+            if (insertedIndexes.contains(i)) {
+                added.add(transaction);
+            } else if (previousTransactions.containsKey(transaction.getId())) {
+                Transaction previous = previousTransactions.get(transaction.getId());
+
+                if (!isSameAggregate(previous, transaction)) {
+                    added.add(transaction);
+                    removed.add(previous);
+                }
+            }
+        }
+
+        updateBalances(added, removed);
+        updateRollups(added, removed);
+    }
+
+    private boolean isSameAggregate(Transaction previous, Transaction transaction) {
+        return Objects.equals(previous.getCustomer(), transaction.getCustomer())
+                && Objects.equals(previous.getDate(), transaction.getDate())
+                && toCents(previous.getAmount()) == toCents(transaction.getAmount());
+    }
+
+    /**
+     * Applies the amount differences of the written transactions to the customer balances with a single bulk write.
+     * <p>
+     * <p>Customers without a balance yet (e.g. transactions inserted before balances were maintained) get their
+     * balance created from the sum of their transactions, the written ones included, so that it accounts for their
+     * whole history rather than for the written amounts only.</p>
+     */
+    private void updateBalances(List<Transaction> added, List<Transaction> removed) {
+
+        Map<String, Long> amounts = new HashMap<>();
+
+        added.forEach(transaction -> amounts.merge(transaction.getCustomer(), toCents(transaction.getAmount()), Long::sum));
+        removed.forEach(transaction -> amounts.merge(transaction.getCustomer(), -toCents(transaction.getAmount()), Long::sum));
+
+        amounts.values().removeIf(amount -> amount == 0);
+
+        if (amounts.isEmpty()) {
+            return;
+        }
+
+        try {
+            Set<String> unbalancedCustomerIds = new HashSet<>(amounts.keySet());
+            unbalancedCustomerIds.removeAll(customerBalanceRepository.findBalances(amounts.keySet()).keySet());
+
+            Map<String, Long> initialBalances = unbalancedCustomerIds.isEmpty()
+                    ? Collections.emptyMap()
+                    : computeBalances(unbalancedCustomerIds);
+            unbalancedCustomerIds.forEach(customerId -> initialBalances.putIfAbsent(customerId, 0L));
+
+            customerBalanceRepository.incrementBalances(amounts, initialBalances);
+        } catch (MongoException me) {
+            LOG.error("An error occurred while updating customer balances {}, "
+                    + "balances will be fixed by the next reconciliation", amounts.keySet(), me);
+        }
+    }
+
+    /**
+     * Applies the written transactions to the customer month rollups with a single bulk write.
+     */
+    private void updateRollups(List<Transaction> added, List<Transaction> removed) {
+        try {
+            customerMonthRollupRepository.applyChanges(added, removed);
+        } catch (MongoException me) {
+            LOG.error("An error occurred while updating customer month rollups, "
+                    + "rollups will be fixed by the next reconciliation", me);
+        }
     }
 
     private Update getUpdate(Transaction transaction) {
@@ -99,6 +659,11 @@ public class TransactionRepositoryImpl implements TransactionRepositoryCustom {
                 .set("description", transaction.getDescription());
     }
 
+    /**
+     * Returns the criteria matching the stored version of a transaction: by identifier if it has one, by all of its
+     * fields otherwise. The amount is matched both in cents and as the string stored before the amounts were
+     * migrated, so that re-importing a transaction not migrated yet updates it rather than inserting a duplicate.
+     */
     private Criteria getCriteria(Transaction transaction) {
 
         Criteria criteria;
@@ -110,13 +675,94 @@ public class TransactionRepositoryImpl implements TransactionRepositoryCustom {
                     .andOperator(
                             where("customer").is(transaction.getCustomer()),
                             where("date").is(transaction.getDate()),
-                            where("amount").is(transaction.getAmount()),
+                            getAmountCriteria(transaction.getAmount()),
                             where("description").is(transaction.getDescription()));
         }
 
         return criteria;
     }
 
+    /**
+     * Returns the criteria matching an amount in cents or as a string, the string being matched as given, with 2
+     * decimals (i.e. as read once migrated) and with the fewest decimals.
+     */
+    private static Criteria getAmountCriteria(BigDecimal amount) {
+
+        if (amount == null) {
+            return where("amount").is(null);
+        }
+
+        List<Object> amounts = new ArrayList<>();
+        amounts.add(amount);
+        Arrays.asList(
+                amount.toString(),
+                fromCents(toCents(amount)).toString(),
+                amount.stripTrailingZeros().toPlainString())
+                .stream()
+                .distinct()
+                .forEach(amounts::add);
+
+        return where("amount").in(amounts);
+    }
+
+    /**
+     * Migrates the amounts still stored as strings to cents, by batches of {@code batchSize} transactions scanned in
+     * identifier order. Each update only matches if the amount is still the string read, so that concurrent writes
+     * (which store cents) are never overwritten. Amounts that cannot be parsed are logged and left untouched.
+     *
+     * @param batchSize Number of transactions migrated per bulk write
+     * @return Number of migrated transactions
+     * @see com.ing.direct.common.mongo.AmountConverters
+     */
+    @Override
+    public long migrateAmounts(int batchSize) {
+
+        Assert.isTrue(batchSize > 0, "batchSize must be positive");
+
+        DBCollection collection = mongoTemplate.getCollection(TRANSACTIONS_COLLECTION_NAME);
+        DBObject projection = new BasicDBObject("amount", 1);
+        DBObject sort = new BasicDBObject("_id", 1);
+
+        Object lastId = null;
+        long migrated = 0;
+
+        while (true) {
+            BasicDBObject filter = new BasicDBObject("amount", new BasicDBObject("$type", 2));
+            if (lastId != null) {
+                filter.append("_id", new BasicDBObject("$gt", lastId));
+            }
+
+            List<DBObject> documents = timeDriverOperation(mongoTemplate, "find", TRANSACTIONS_COLLECTION_NAME, filter,
+                    () -> collection.find(filter, projection).sort(sort).limit(batchSize).toArray());
+
+            if (documents.isEmpty()) {
+                return migrated;
+            }
+
+            BulkWriteOperation bulk = collection.initializeUnorderedBulkOperation();
+            int updates = 0;
+
+            for (DBObject document : documents) {
+                lastId = document.get("_id");
+                String amount = (String) document.get("amount");
+
+                try {
+                    bulk.find(new BasicDBObject("_id", lastId).append("amount", amount))
+                            .updateOne(new BasicDBObject("$set",
+                                    new BasicDBObject("amount", toCents(new BigDecimal(amount)))));
+                    updates++;
+                } catch (NumberFormatException e) {
+                    LOG.warn("unable to migrate transaction amount [id:{}, amount:{}]", lastId, amount);
+                }
+            }
+
+            if (updates > 0) {
+                migrated += timeDriverOperation(mongoTemplate, "bulkWrite", TRANSACTIONS_COLLECTION_NAME,
+                        new BasicDBObject("_id", lastId).append("amount", "?"), bulk::execute).getMatchedCount();
+            }
+        }
+    }
+
     @Override
     public MongoTemplate getMongoTemplate() {
         return mongoTemplate;
@@ -1,6 +1,7 @@
 package com.ing.direct.transaction.service;
 
 import com.ing.direct.transaction.model.Transaction;
+import com.ing.direct.transaction.model.TransactionBatch;
 
 import java.util.List;
 
@@ -10,4 +11,8 @@ import java.util.List;
 public interface ClassificationService {
 
     List<ClassificationEnum> classifyCustomer(List<Transaction> transactions);
+
+    List<ClassificationEnum> classifyCustomer(TransactionBatch transactions);
+
+    List<ClassificationEnum> classifyCustomer(ClassificationStatistics statistics);
 }
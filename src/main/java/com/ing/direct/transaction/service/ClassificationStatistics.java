@@ -0,0 +1,225 @@
+package com.ing.direct.transaction.service;
+
+import com.ing.direct.transaction.model.CustomerMonthRollup;
+import com.ing.direct.transaction.model.TransactionBatch;
+
+import java.time.Instant;
+import java.time.ZoneId;
+
+/**
+ * Statistics class gathering every aggregate needed by the classification rules of {@link ClassificationServiceImpl}.
+ * <p>
+ * <p>The statistics are accumulated in a single pass over the columns of a {@link TransactionBatch}, amounts being
+ * handled in cents. The fast spender flag is then resolved with a sliding 7-day window delimited by two pointers,
+ * making the whole computation linear in the number of transactions.</p>
+ * <p>
+ * <p>Statistics may also be read from a {@link CustomerMonthRollup}, in which case the transactions of the month are
+ * only needed to resolve the fast spender flag, and only when the rollup totals allow it.</p>
+ *
+ * @see ClassificationServiceImpl
+ * @see TransactionBatch
+ */
+public class ClassificationStatistics {
+    private static final int MIDDAY = 12 * 60 * 60 * 1000;
+    private static final int FAST_SPENDER_WINDOW_DAYS = 7;
+    private static final int FAST_SPENDER_PERCENTAGE = 75;
+
+    private long totalTransactions;
+    private long morningTransactions;
+    private long afternoonTransactions;
+    private long deposits;
+    private long expenditures;
+    private long lowestAmount;
+    private boolean fastSpender;
+
+    private ClassificationStatistics() {
+    }
+
+    /**
+     * Computes the classification statistics of a batch of transactions.
+     *
+     * @param batch Batch of transactions
+     * @return ClassificationStatistics instance
+     */
+    public static ClassificationStatistics of(TransactionBatch batch) {
+        return of(batch, ZoneId.systemDefault());
+    }
+
+    /**
+     * Computes the classification statistics of a batch of transactions.
+     *
+     * @param batch  Batch of transactions
+     * @param zoneId Zone used to compute the 7-day fast spender window
+     * @return ClassificationStatistics instance
+     */
+    public static ClassificationStatistics of(TransactionBatch batch, ZoneId zoneId) {
+
+        ClassificationStatistics statistics = new ClassificationStatistics();
+
+        int size = batch.size();
+
+        for (int i = 0; i < size; i++) {
+            statistics.accumulate(batch.getAmount(i), batch.getTimeOfDay(i));
+        }
+
+        statistics.totalTransactions = size;
+        statistics.fastSpender = isFastSpender(batch, zoneId);
+
+        return statistics;
+    }
+
+    /**
+     * Builds the classification statistics of a customer month from its rollup.
+     *
+     * @param rollup Customer month rollup
+     * @param window Batch of the transactions of the month, only read if {@link #mayBeFastSpender(CustomerMonthRollup)}
+     * @return ClassificationStatistics instance
+     */
+    public static ClassificationStatistics of(CustomerMonthRollup rollup, TransactionBatch window) {
+        return of(rollup, window, ZoneId.systemDefault());
+    }
+
+    /**
+     * Builds the classification statistics of a customer month from its rollup.
+     *
+     * @param rollup Customer month rollup
+     * @param window Batch of the transactions of the month, only read if {@link #mayBeFastSpender(CustomerMonthRollup)}
+     * @param zoneId Zone used to compute the 7-day fast spender window
+     * @return ClassificationStatistics instance
+     */
+    public static ClassificationStatistics of(CustomerMonthRollup rollup, TransactionBatch window, ZoneId zoneId) {
+
+        ClassificationStatistics statistics = new ClassificationStatistics();
+
+        statistics.totalTransactions = rollup.getTransactions();
+        statistics.morningTransactions = rollup.getMorningTransactions();
+        statistics.afternoonTransactions = rollup.getAfternoonTransactions();
+        statistics.deposits = rollup.getDeposits();
+        statistics.expenditures = rollup.getExpenditures();
+        statistics.lowestAmount = Math.min(0, rollup.getLowestAmount());
+        statistics.fastSpender = mayBeFastSpender(rollup) && isFastSpender(window, zoneId);
+
+        return statistics;
+    }
+
+    /**
+     * Determines from the rollup totals if a customer may be a fast spender: no deposit can be followed by
+     * expenditures exceeding 75% of its amount unless the expenditures of the whole month exceed 75% of the smallest
+     * deposit.
+     *
+     * @param rollup Customer month rollup
+     * @return If the transactions of the month are needed to resolve the fast spender flag
+     */
+    public static boolean mayBeFastSpender(CustomerMonthRollup rollup) {
+        return rollup.getDeposits() > 0
+                && rollup.getExpenditures() * 100 > rollup.getSmallestDeposit() * FAST_SPENDER_PERCENTAGE;
+    }
+
+    private void accumulate(long amount, int timeOfDay) {
+        if (timeOfDay > MIDDAY) {
+            afternoonTransactions++;
+        } else if (timeOfDay < MIDDAY) {
+            morningTransactions++;
+        }
+
+        if (amount > 0) {
+            deposits += amount;
+        } else if (amount < 0) {
+            expenditures -= amount;
+        }
+
+        lowestAmount = Math.min(lowestAmount, amount);
+    }
+
+    /**
+     * Determines if any deposit is followed by expenditures exceeding 75% of its amount within 7 days.
+     * <p>
+     * <p>Since deposits are visited in chronological order, both ends of the window only move forward: the leading
+     * pointer adds the expenditures made before the end of the window and the trailing pointer removes the ones
+     * made at or before the deposit itself.</p>
+     *
+     * @param batch  Batch of transactions sorted by ascending date
+     * @param zoneId Zone used to compute the 7-day window
+     * @return If customer is a fast spender
+     */
+    private static boolean isFastSpender(TransactionBatch batch, ZoneId zoneId) {
+
+        int size = batch.size();
+        int leading = 0;
+        int trailing = 0;
+        long windowExpenditures = 0;
+
+        for (int i = 0; i < size; i++) {
+
+            long deposit = batch.getAmount(i);
+
+            if (deposit <= 0) {
+                continue;
+            }
+
+            long depositTimestamp = batch.getTimestamp(i);
+            long windowEnd = Instant.ofEpochMilli(depositTimestamp)
+                    .atZone(zoneId)
+                    .plusDays(FAST_SPENDER_WINDOW_DAYS)
+                    .toInstant()
+                    .toEpochMilli();
+
+            while (leading < size && batch.getTimestamp(leading) < windowEnd) {
+                if (batch.getAmount(leading) < 0) {
+                    windowExpenditures -= batch.getAmount(leading);
+                }
+                leading++;
+            }
+
+            while (trailing < leading && batch.getTimestamp(trailing) <= depositTimestamp) {
+                if (batch.getAmount(trailing) < 0) {
+                    windowExpenditures += batch.getAmount(trailing);
+                }
+                trailing++;
+            }
+
+            if (windowExpenditures * 100 > deposit * FAST_SPENDER_PERCENTAGE) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public long getTotalTransactions() {
+        return totalTransactions;
+    }
+
+    public long getMorningTransactions() {
+        return morningTransactions;
+    }
+
+    public long getAfternoonTransactions() {
+        return afternoonTransactions;
+    }
+
+    /**
+     * Returns the total of the deposits, in cents.
+     */
+    public long getDeposits() {
+        return deposits;
+    }
+
+    /**
+     * Returns the total of the expenditures as a positive amount, in cents.
+     */
+    public long getExpenditures() {
+        return expenditures;
+    }
+
+    /**
+     * Returns the lowest transaction amount, in cents.
+     */
+    public long getLowestAmount() {
+        return lowestAmount;
+    }
+
+    public boolean isFastSpender() {
+        return fastSpender;
+    }
+}
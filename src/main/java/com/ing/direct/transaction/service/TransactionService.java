@@ -1,11 +1,15 @@
 package com.ing.direct.transaction.service;
 
 import com.ing.direct.transaction.model.Transaction;
+import com.ing.direct.transaction.model.TransactionPage;
 import com.ing.direct.transaction.repository.TransactionRepository;
 import org.springframework.data.domain.Pageable;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -40,6 +44,17 @@ public interface TransactionService {
      */
     List<Transaction> findByCustomerIdAndDate(String customerId, Date start, Date end);
 
+    /**
+     * Returns the {@link Transaction} of several customers between two dates, fetched with a single query and grouped
+     * by customer.
+     *
+     * @param customerIds Customer identifiers
+     * @param start       Start of the month
+     * @param end         End of the month
+     * @return Transactions by customer identifier, customers without any transaction being left out
+     */
+    Map<String, List<Transaction>> findByCustomerIdsAndDate(Collection<String> customerIds, Date start, Date end);
+
     /**
      * Return a list of {@link Transaction} given {@code customerId} argument.
      *
@@ -48,6 +63,32 @@ public interface TransactionService {
      */
     List<Transaction> findByCustomerId(String customerId);
 
+    /**
+     * Returns the current balance of a given {@code customerId}, computed over all the customer transactions.
+     *
+     * @param customerId Customer identifier
+     * @return Customer balance
+     */
+    BigDecimal getBalance(String customerId);
+
+    /**
+     * Returns the current balances of several customers.
+     *
+     * @param customerIds Customer identifiers
+     * @return Balances by customer identifier
+     */
+    Map<String, BigDecimal> getBalances(Collection<String> customerIds);
+
+    /**
+     * Returns the classification statistics of a given {@code customerId} and {@code month}, read from the customer
+     * month rollup rather than from the transactions of the month.
+     *
+     * @param customerId Customer identifier
+     * @param month      Month
+     * @return Optional statistics, empty if the customer has no transaction during that month
+     */
+    Optional<ClassificationStatistics> getMonthlyStatistics(String customerId, int month);
+
     /**
      * Returns a list of all {@link Transaction}.
      *
@@ -56,13 +97,24 @@ public interface TransactionService {
     List<Transaction> findAll();
 
     /**
-     * Return a list of {@link Transaction} given {@link Pageable} argument.
+     * Return a list of {@link Transaction} given {@link Pageable} argument. Note that deep pages get slower since the
+     * preceding transactions are skipped, {@link #findAll(String, int)} should be preferred to walk the transactions.
      *
      * @param pageable Pageable argument
      * @return List of transactions found
      */
     List<Transaction> findAll(Pageable pageable);
 
+    /**
+     * Returns a page of {@link Transaction} sorted by descending date, following the page of a continuation token.
+     * Every page costs the same whatever its depth.
+     *
+     * @param pageToken Continuation token returned with the previous page, null for the first page
+     * @param size      Page size
+     * @return Page of transactions holding the token of the next page
+     */
+    TransactionPage findAll(String pageToken, int size);
+
     /**
      * Sets a {@link TransactionRepository} instance.
      *
@@ -1,25 +1,52 @@
 package com.ing.direct.transaction.service;
 
+import com.ing.direct.common.cache.CustomerCacheKey;
+import com.ing.direct.transaction.model.CustomerMonthRollup;
 import com.ing.direct.transaction.model.Transaction;
+import com.ing.direct.transaction.model.TransactionBatch;
+import com.ing.direct.transaction.model.TransactionPage;
 import com.ing.direct.transaction.repository.TransactionRepository;
+import com.netflix.hystrix.contrib.javanica.annotation.HystrixCommand;
+import org.apache.commons.lang3.tuple.Pair;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheConfig;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
+import static com.ing.direct.common.utils.ClassUtils.TRANSACTIONS_BY_ID_CACHE_NAME;
+import static com.ing.direct.common.utils.ClassUtils.TRANSACTION_READS_HYSTRIX_GROUP;
 import static com.ing.direct.common.utils.ClassUtils.TRANSACTIONS_COLLECTION_NAME;
+import static com.ing.direct.common.utils.ClassUtils.TRANSACTION_PAGES_CACHE_NAME;
+import static com.ing.direct.common.utils.ClassUtils.toStartEndDate;
+import static com.ing.direct.common.utils.ClassUtils.toYearMonth;
 
 /**
  * Service class providing CRUD operations and caching logic for {@link Transaction} resource.
+ * <p>
+ * <p>Results are cached in three regions: customer scoped results keyed by {@link CustomerCacheKey} (see
+ * {@link com.ing.direct.common.cache.TransactionCacheKeyGenerator}), transactions
+ * by identifier and pages of transactions across customers. Writing transactions only evicts the entries of their
+ * customers (current and previous ones), their identifier entries and the pages, from the repository write path
+ * (see {@link com.ing.direct.common.service.CustomerCacheEvictionService}).</p>
+ * <p>
+ * <p>The customer reads are run as Hystrix commands of the {@code transactionReads} group on a dedicated thread pool,
+ * so that a slow database times out the reads (see the {@code hystrix.*} properties) rather than holding the request
+ * threads. Failed, timed out or short-circuited reads throw a
+ * {@link com.netflix.hystrix.exception.HystrixRuntimeException}.</p>
  *
  * @see TransactionRepository
+ * @see CustomerCacheKey
  */
 @Service
 @CacheConfig(cacheNames = TRANSACTIONS_COLLECTION_NAME)
@@ -34,9 +61,11 @@ public class TransactionServiceImpl implements TransactionService {
 
     /**
      * {@inheritDoc}
+     * <p>
+     * <p>The cached entries affected by the write are evicted by the repository write path, shared with the bulk
+     * writes and the imports.</p>
      */
     @Override
-    @CacheEvict(allEntries = true)
     public void save(Transaction transaction) {
         repository.saveOrUpdate(transaction);
     }
@@ -45,34 +74,97 @@ public class TransactionServiceImpl implements TransactionService {
      * {@inheritDoc}
      */
     @Override
-    @Cacheable
+    @Cacheable(cacheNames = TRANSACTIONS_BY_ID_CACHE_NAME, key = "#id", unless = "!#result.isPresent()")
     public Optional<Transaction> findById(String id) {
         return repository.findById(id);
     }
 
     /**
      * {@inheritDoc}
+     * <p>
+     * <p>The transactions are not cached: they are only read to rebuild a stale transaction summary, which must be
+     * built from the transactions written up to its customer version rather than from a cache entry loaded by a read
+     * racing the write.</p>
      */
     @Override
-    @Cacheable
+    @HystrixCommand(groupKey = TRANSACTION_READS_HYSTRIX_GROUP, threadPoolKey = TRANSACTION_READS_HYSTRIX_GROUP)
     public List<Transaction> findByCustomerIdAndDate(String customerId, Date start, Date end) {
         return repository.findByCustomerIdAndDate(customerId, start, end);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @HystrixCommand(groupKey = TRANSACTION_READS_HYSTRIX_GROUP, threadPoolKey = TRANSACTION_READS_HYSTRIX_GROUP)
+    public Map<String, List<Transaction>> findByCustomerIdsAndDate(Collection<String> customerIds, Date start, Date end) {
+        return repository
+                .findByCustomerIdsAndDate(customerIds, start, end)
+                .stream()
+                .collect(Collectors.groupingBy(Transaction::getCustomer));
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     @Cacheable
+    @HystrixCommand(groupKey = TRANSACTION_READS_HYSTRIX_GROUP, threadPoolKey = TRANSACTION_READS_HYSTRIX_GROUP)
     public List<Transaction> findByCustomerId(String customerId) {
         return repository.findByCustomerId(customerId);
     }
 
     /**
      * {@inheritDoc}
+     * <p>
+     * <p>The balance is not cached: it is a single document read of the customer running balance, which is updated
+     * by every write path (e.g bulk writes, imports) without going through this service.</p>
      */
     @Override
-    @Cacheable
+    @HystrixCommand(groupKey = TRANSACTION_READS_HYSTRIX_GROUP, threadPoolKey = TRANSACTION_READS_HYSTRIX_GROUP)
+    public BigDecimal getBalance(String customerId) {
+        return repository.findBalanceByCustomerId(customerId);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @HystrixCommand(groupKey = TRANSACTION_READS_HYSTRIX_GROUP, threadPoolKey = TRANSACTION_READS_HYSTRIX_GROUP)
+    public Map<String, BigDecimal> getBalances(Collection<String> customerIds) {
+        return repository.findBalancesByCustomerIds(customerIds);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * <p>The date and amount of the transactions of the month are only fetched when the rollup totals do not rule
+     * out the fast spender classification.</p>
+     */
+    @Override
+    @HystrixCommand(groupKey = TRANSACTION_READS_HYSTRIX_GROUP, threadPoolKey = TRANSACTION_READS_HYSTRIX_GROUP)
+    public Optional<ClassificationStatistics> getMonthlyStatistics(String customerId, int month) {
+
+        Optional<CustomerMonthRollup> rollup = repository.findMonthRollup(customerId, toYearMonth(month));
+
+        return rollup.map(monthRollup -> {
+            TransactionBatch window = TransactionBatch.of(Collections.emptyList());
+
+            if (ClassificationStatistics.mayBeFastSpender(monthRollup)) {
+                Pair<Date, Date> monthRange = toStartEndDate(month);
+                window = repository.findBatchByCustomerIdAndDate(
+                        customerId, monthRange.getLeft(), monthRange.getRight());
+            }
+
+            return ClassificationStatistics.of(monthRollup, window);
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Cacheable(cacheNames = TRANSACTION_PAGES_CACHE_NAME)
     public List<Transaction> findAll() {
         return repository.findAll();
     }
@@ -81,12 +173,21 @@ public class TransactionServiceImpl implements TransactionService {
      * {@inheritDoc}
      */
     @Override
-    @Cacheable
+    @Cacheable(cacheNames = TRANSACTION_PAGES_CACHE_NAME)
     public List<Transaction> findAll(Pageable pageable) {
         Page<Transaction> transactions = repository.findAll(pageable);
         return transactions.getContent();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Cacheable(cacheNames = TRANSACTION_PAGES_CACHE_NAME)
+    public TransactionPage findAll(String pageToken, int size) {
+        return repository.findPage(pageToken, size);
+    }
+
     /**
      * Sets an {@link TransactionRepository} instance.
      *
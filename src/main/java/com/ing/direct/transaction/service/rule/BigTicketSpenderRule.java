@@ -0,0 +1,24 @@
+package com.ing.direct.transaction.service.rule;
+
+import com.ing.direct.transaction.service.ClassificationEnum;
+import com.ing.direct.transaction.service.ClassificationStatistics;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Determines if customer makes one or more withdrawals over $1000 in the month.
+ */
+@Component
+public class BigTicketSpenderRule implements ClassificationRule {
+
+    @Override
+    public ClassificationEnum getClassification() {
+        return ClassificationEnum.BIG_TICKET_SPENDER;
+    }
+
+    @Override
+    public boolean matches(ClassificationStatistics statistics, Set<ClassificationEnum> classifications) {
+        return statistics.getLowestAmount() < -100_000;
+    }
+}
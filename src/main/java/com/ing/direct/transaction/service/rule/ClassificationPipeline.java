@@ -0,0 +1,120 @@
+package com.ing.direct.transaction.service.rule;
+
+import com.ing.direct.transaction.service.ClassificationEnum;
+import com.ing.direct.transaction.service.ClassificationStatistics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pipeline class running an ordered list of {@link ClassificationRule} against one shared
+ * {@link ClassificationStatistics} instance.
+ * <p>
+ * <p>The rules order is resolved once by the {@link ClassificationRuleRegistry} so that each rule runs after its
+ * dependencies. Superseded classifications are only removed once every rule has been evaluated, hence a rule always
+ * sees the full set of classifications matched by its dependencies.</p>
+ *
+ * @see ClassificationRuleRegistry
+ */
+public class ClassificationPipeline {
+
+    private final List<ClassificationRule> rules;
+
+    private final List<RuleTimer> timers;
+
+    ClassificationPipeline(List<ClassificationRule> rules) {
+        this.rules = Collections.unmodifiableList(new ArrayList<>(rules));
+        this.timers = new ArrayList<>(rules.size());
+        rules.forEach(rule -> timers.add(new RuleTimer(rule.getClassification())));
+    }
+
+    /**
+     * Returns the customer classifications matched by the pipeline rules, in {@link ClassificationEnum} order.
+     *
+     * @param statistics Classification statistics
+     * @return List of customer classifications
+     */
+    public List<ClassificationEnum> run(ClassificationStatistics statistics) {
+
+        Set<ClassificationEnum> classifications = EnumSet.noneOf(ClassificationEnum.class);
+        Set<ClassificationEnum> supersededClassifications = EnumSet.noneOf(ClassificationEnum.class);
+        Set<ClassificationEnum> matchedView = Collections.unmodifiableSet(classifications);
+
+        for (int i = 0; i < rules.size(); i++) {
+            ClassificationRule rule = rules.get(i);
+
+            long start = System.nanoTime();
+            boolean matched = rule.matches(statistics, matchedView);
+            timers.get(i).record(System.nanoTime() - start, matched);
+
+            if (matched) {
+                classifications.add(rule.getClassification());
+                supersededClassifications.addAll(rule.getSupersededClassifications());
+            }
+        }
+
+        classifications.removeAll(supersededClassifications);
+
+        return new ArrayList<>(classifications);
+    }
+
+    /**
+     * Returns the rules of this pipeline in evaluation order.
+     *
+     * @return List of rules
+     */
+    public List<ClassificationRule> getRules() {
+        return rules;
+    }
+
+    /**
+     * Returns the timers of the pipeline rules, in evaluation order.
+     *
+     * @return List of rule timers
+     */
+    public List<RuleTimer> getTimers() {
+        return Collections.unmodifiableList(timers);
+    }
+
+    /**
+     * Timer class counting the invocations, matches and cumulated evaluation time of a single rule.
+     */
+    public static class RuleTimer {
+        private final ClassificationEnum classification;
+        private final LongAdder invocations = new LongAdder();
+        private final LongAdder matches = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+
+        RuleTimer(ClassificationEnum classification) {
+            this.classification = classification;
+        }
+
+        void record(long nanos, boolean matched) {
+            invocations.increment();
+            totalNanos.add(nanos);
+            if (matched) {
+                matches.increment();
+            }
+        }
+
+        public ClassificationEnum getClassification() {
+            return classification;
+        }
+
+        public long getInvocations() {
+            return invocations.sum();
+        }
+
+        public long getMatches() {
+            return matches.sum();
+        }
+
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+    }
+}
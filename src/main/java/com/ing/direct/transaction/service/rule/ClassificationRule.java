@@ -0,0 +1,54 @@
+package com.ing.direct.transaction.service.rule;
+
+import com.ing.direct.transaction.service.ClassificationEnum;
+import com.ing.direct.transaction.service.ClassificationStatistics;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Classification rule interface declaring the contract of a single customer classification rule.
+ * <p>
+ * <p>Rules are discovered as Spring beans by the {@link ClassificationRuleRegistry} and compiled into one
+ * {@link ClassificationPipeline}. A rule reads the {@link ClassificationStatistics} shared by the whole pipeline
+ * and must never scan the transactions on its own.</p>
+ *
+ * @see ClassificationRuleRegistry
+ * @see ClassificationPipeline
+ */
+public interface ClassificationRule {
+
+    /**
+     * Returns the classification assigned to the customer when this rule matches.
+     *
+     * @return Classification
+     */
+    ClassificationEnum getClassification();
+
+    /**
+     * Returns the classifications this rule depends on. The rules producing them are always evaluated first.
+     *
+     * @return Set of classifications this rule depends on
+     */
+    default Set<ClassificationEnum> getDependencies() {
+        return Collections.emptySet();
+    }
+
+    /**
+     * Returns the classifications replaced by {@link #getClassification()} when this rule matches.
+     *
+     * @return Set of superseded classifications
+     */
+    default Set<ClassificationEnum> getSupersededClassifications() {
+        return Collections.emptySet();
+    }
+
+    /**
+     * Determines if the customer matches this rule.
+     *
+     * @param statistics      Classification statistics shared by the pipeline
+     * @param classifications Classifications matched so far, including all the rule dependencies
+     * @return If customer matches the rule
+     */
+    boolean matches(ClassificationStatistics statistics, Set<ClassificationEnum> classifications);
+}
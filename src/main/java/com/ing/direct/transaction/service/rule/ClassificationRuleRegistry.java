@@ -0,0 +1,135 @@
+package com.ing.direct.transaction.service.rule;
+
+import com.ing.direct.transaction.service.ClassificationEnum;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.stream.Collectors;
+
+/**
+ * Registry class discovering the {@link ClassificationRule} beans and compiling them into a single
+ * {@link ClassificationPipeline}.
+ * <p>
+ * <p>Rules are topologically sorted according to their {@link ClassificationRule#getDependencies()}, ties being
+ * broken by {@link ClassificationEnum} order. The per-rule timers of the pipeline are published as actuator metrics
+ * (e.g {@code counter.classification.rule.fast_spender.nanos}).</p>
+ *
+ * @see ClassificationRule
+ * @see ClassificationPipeline
+ */
+@Component
+public class ClassificationRuleRegistry implements PublicMetrics {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ClassificationRuleRegistry.class);
+
+    private static final String METRIC_PREFIX = "counter.classification.rule.";
+
+    private final ClassificationPipeline pipeline;
+
+    @Autowired
+    public ClassificationRuleRegistry(List<ClassificationRule> rules) {
+        this.pipeline = compile(rules);
+
+        LOG.info("compiled classification pipeline {}", pipeline.getRules()
+                .stream()
+                .map(ClassificationRule::getClassification)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Returns the compiled classification pipeline.
+     *
+     * @return ClassificationPipeline
+     */
+    public ClassificationPipeline getPipeline() {
+        return pipeline;
+    }
+
+    /**
+     * Compiles a list of rules into a {@link ClassificationPipeline} where every rule runs after its dependencies.
+     *
+     * @param rules List of rules to compile
+     * @return ClassificationPipeline
+     * @throws IllegalStateException if two rules share the same classification, a dependency has no rule or
+     *                               the dependencies contain a cycle
+     */
+    static ClassificationPipeline compile(List<ClassificationRule> rules) {
+
+        Map<ClassificationEnum, ClassificationRule> rulesByClassification = new EnumMap<>(ClassificationEnum.class);
+        for (ClassificationRule rule : rules) {
+            if (rulesByClassification.put(rule.getClassification(), rule) != null) {
+                throw new IllegalStateException("Duplicate classification rule for " + rule.getClassification());
+            }
+        }
+
+        Map<ClassificationEnum, Integer> pendingDependencies = new EnumMap<>(ClassificationEnum.class);
+        Map<ClassificationEnum, List<ClassificationRule>> dependents = new EnumMap<>(ClassificationEnum.class);
+
+        for (ClassificationRule rule : rules) {
+            for (ClassificationEnum dependency : rule.getDependencies()) {
+                if (!rulesByClassification.containsKey(dependency)) {
+                    throw new IllegalStateException("No classification rule found for " + dependency
+                            + " required by " + rule.getClassification());
+                }
+                dependents.computeIfAbsent(dependency, d -> new ArrayList<>()).add(rule);
+            }
+            pendingDependencies.put(rule.getClassification(), rule.getDependencies().size());
+        }
+
+        PriorityQueue<ClassificationRule> readyRules = new PriorityQueue<>(
+                Comparator.comparing(ClassificationRule::getClassification));
+        rules.stream()
+                .filter(rule -> rule.getDependencies().isEmpty())
+                .forEach(readyRules::add);
+
+        List<ClassificationRule> orderedRules = new ArrayList<>(rules.size());
+
+        while (!readyRules.isEmpty()) {
+            ClassificationRule rule = readyRules.poll();
+            orderedRules.add(rule);
+
+            for (ClassificationRule dependent : dependents.getOrDefault(rule.getClassification(), Collections.emptyList())) {
+                if (pendingDependencies.merge(dependent.getClassification(), -1, Integer::sum) == 0) {
+                    readyRules.add(dependent);
+                }
+            }
+        }
+
+        if (orderedRules.size() != rules.size()) {
+            throw new IllegalStateException("Cyclic dependencies between classification rules "
+                    + pendingDependencies.entrySet()
+                    .stream()
+                    .filter(entry -> entry.getValue() > 0)
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList()));
+        }
+
+        return new ClassificationPipeline(orderedRules);
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        List<Metric<?>> metrics = new ArrayList<>();
+
+        for (ClassificationPipeline.RuleTimer timer : pipeline.getTimers()) {
+            String prefix = METRIC_PREFIX + timer.getClassification().name().toLowerCase();
+            metrics.add(new Metric<>(prefix + ".invocations", timer.getInvocations()));
+            metrics.add(new Metric<>(prefix + ".matches", timer.getMatches()));
+            metrics.add(new Metric<>(prefix + ".nanos", timer.getTotalNanos()));
+        }
+
+        return metrics;
+    }
+}
@@ -0,0 +1,24 @@
+package com.ing.direct.transaction.service.rule;
+
+import com.ing.direct.transaction.service.ClassificationEnum;
+import com.ing.direct.transaction.service.ClassificationStatistics;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Determines if customer spends over 75% of any deposit within 7 days of making it.
+ */
+@Component
+public class FastSpenderRule implements ClassificationRule {
+
+    @Override
+    public ClassificationEnum getClassification() {
+        return ClassificationEnum.FAST_SPENDER;
+    }
+
+    @Override
+    public boolean matches(ClassificationStatistics statistics, Set<ClassificationEnum> classifications) {
+        return statistics.isFastSpender();
+    }
+}
@@ -0,0 +1,24 @@
+package com.ing.direct.transaction.service.rule;
+
+import com.ing.direct.transaction.service.ClassificationEnum;
+import com.ing.direct.transaction.service.ClassificationStatistics;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Determines if customer makes over 50% of their transactions in the month before midday (count of transactions).
+ */
+@Component
+public class MorningPersonRule implements ClassificationRule {
+
+    @Override
+    public ClassificationEnum getClassification() {
+        return ClassificationEnum.MORNING_PERSON;
+    }
+
+    @Override
+    public boolean matches(ClassificationStatistics statistics, Set<ClassificationEnum> classifications) {
+        return statistics.getMorningTransactions() > (statistics.getTotalTransactions() / 2);
+    }
+}
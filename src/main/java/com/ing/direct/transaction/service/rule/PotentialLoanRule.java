@@ -0,0 +1,40 @@
+package com.ing.direct.transaction.service.rule;
+
+import com.google.common.collect.Sets;
+import com.ing.direct.transaction.service.ClassificationEnum;
+import com.ing.direct.transaction.service.ClassificationStatistics;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Determines if a customer is identified as both a Big Spender and a Fast Spender then they should be classified as
+ * a Potential Loan. Both classifications are replaced by {@link ClassificationEnum#POTENTIAL_LOAN}.
+ */
+@Component
+public class PotentialLoanRule implements ClassificationRule {
+
+    private static final Set<ClassificationEnum> BIG_AND_FAST_SPENDER = Sets.immutableEnumSet(
+            ClassificationEnum.BIG_SPENDER,
+            ClassificationEnum.FAST_SPENDER);
+
+    @Override
+    public ClassificationEnum getClassification() {
+        return ClassificationEnum.POTENTIAL_LOAN;
+    }
+
+    @Override
+    public Set<ClassificationEnum> getDependencies() {
+        return BIG_AND_FAST_SPENDER;
+    }
+
+    @Override
+    public Set<ClassificationEnum> getSupersededClassifications() {
+        return BIG_AND_FAST_SPENDER;
+    }
+
+    @Override
+    public boolean matches(ClassificationStatistics statistics, Set<ClassificationEnum> classifications) {
+        return classifications.containsAll(BIG_AND_FAST_SPENDER);
+    }
+}
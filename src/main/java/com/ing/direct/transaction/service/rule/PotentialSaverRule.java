@@ -0,0 +1,25 @@
+package com.ing.direct.transaction.service.rule;
+
+import com.ing.direct.transaction.service.ClassificationEnum;
+import com.ing.direct.transaction.service.ClassificationStatistics;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Determines if customer spends less than 25% of their deposits every month ($ value of deposits).
+ */
+@Component
+public class PotentialSaverRule implements ClassificationRule {
+
+    @Override
+    public ClassificationEnum getClassification() {
+        return ClassificationEnum.POTENTIAL_SAVER;
+    }
+
+    @Override
+    public boolean matches(ClassificationStatistics statistics, Set<ClassificationEnum> classifications) {
+        return statistics.getDeposits() != 0
+                && statistics.getExpenditures() * 100 < statistics.getDeposits() * 25;
+    }
+}
@@ -1,7 +1,12 @@
 package com.ing.direct.cache;
 
 import com.google.common.collect.Lists;
+import com.ing.direct.common.cache.InstrumentedCache;
+import com.ing.direct.common.cache.InstrumentedCacheManager;
+import com.ing.direct.common.service.CustomerCacheEvictionService;
+import com.ing.direct.common.service.CustomerCacheEvictionServiceImpl;
 import com.ing.direct.common.utils.ClassUtils;
+import com.ing.direct.config.CacheConfig;
 import com.ing.direct.transaction.model.Transaction;
 import com.ing.direct.transaction.repository.TransactionRepository;
 import com.ing.direct.transaction.service.TransactionService;
@@ -23,11 +28,13 @@ import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
 import java.math.BigDecimal;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -52,6 +59,9 @@ public class TransactionCacheIT {
     @Autowired
     private CacheManager cacheManager;
 
+    @Autowired
+    private CustomerCacheEvictionService customerCacheEvictionService;
+
     private Transaction sampleTransaction = Transaction
             .builder()
             .customer("1")
@@ -69,8 +79,8 @@ public class TransactionCacheIT {
 
     @After
     public void tearDown() throws Exception {
-        // reset transaction cache
-        cacheManager.getCache(ClassUtils.TRANSACTIONS_COLLECTION_NAME).clear();
+        // reset transaction caches
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
     }
 
     @Test
@@ -82,7 +92,7 @@ public class TransactionCacheIT {
                 .thenReturn(Optional.of(sampleTransaction));
 
         String id = "1";
-        Cache transactionCache = cacheManager.getCache(ClassUtils.TRANSACTIONS_COLLECTION_NAME);
+        Cache transactionCache = cacheManager.getCache(ClassUtils.TRANSACTIONS_BY_ID_CACHE_NAME);
         Cache.ValueWrapper beforeFillingCache = transactionCache.get(id);
 
 
@@ -122,14 +132,55 @@ public class TransactionCacheIT {
 
     }
 
+    @Test
+    @DirtiesContext
+    public void shouldOnlyEvictSavedCustomerTransactionsFromCache() {
+
+        // given
+        when(repository.findByCustomerId(any(String.class))).thenReturn(
+                Lists.newArrayList(sampleTransaction));
+        // the repository write path evicts the written customers
+        doAnswer(invocation -> {
+            customerCacheEvictionService.evict(Collections.singleton(sampleTransaction.getCustomer()),
+                    Collections.emptySet());
+            return null;
+        }).when(repository).saveOrUpdate(sampleTransaction);
+
+        InstrumentedCache transactionCache = (InstrumentedCache) cacheManager.getCache(ClassUtils.TRANSACTIONS_COLLECTION_NAME);
+        transactionService.findByCustomerId("1");
+        transactionService.findByCustomerId("2");
+        long evictionsBefore = transactionCache.getEvictions();
+
+        // when
+        transactionService.save(sampleTransaction);
+        transactionService.findByCustomerId("1");
+        transactionService.findByCustomerId("2");
+
+        // then
+        assertEquals(1, transactionCache.getHits());
+        assertEquals(evictionsBefore + 1, transactionCache.getEvictions());
+
+        verify(repository, times(2)).findByCustomerId("1");
+        verify(repository, times(1)).findByCustomerId("2");
+    }
+
     @Configuration
     @ComponentScan({"com.ing.direct.transaction.service", "com.ing.direct.transaction.model"})
     @EnableAutoConfiguration
     @EnableCaching
+    @Import(CacheConfig.class)
     public static class TestCacheConfig {
         @Bean
         CacheManager cacheManager() {
-            return new ConcurrentMapCacheManager(ClassUtils.TRANSACTIONS_COLLECTION_NAME);
+            return new InstrumentedCacheManager(new ConcurrentMapCacheManager(
+                    ClassUtils.TRANSACTIONS_COLLECTION_NAME,
+                    ClassUtils.TRANSACTIONS_BY_ID_CACHE_NAME,
+                    ClassUtils.TRANSACTION_PAGES_CACHE_NAME));
+        }
+
+        @Bean
+        CustomerCacheEvictionService customerCacheEvictionService(CacheManager cacheManager) {
+            return new CustomerCacheEvictionServiceImpl(Optional.of(cacheManager));
         }
     }
 
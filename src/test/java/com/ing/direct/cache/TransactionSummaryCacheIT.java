@@ -0,0 +1,153 @@
+package com.ing.direct.cache;
+
+import com.google.common.collect.Lists;
+import com.ing.direct.common.cache.CustomerVersionedCache;
+import com.ing.direct.common.cache.InstrumentedCacheManager;
+import com.ing.direct.common.service.CustomerVersionService;
+import com.ing.direct.common.utils.ClassUtils;
+import com.ing.direct.config.CacheConfig;
+import com.ing.direct.transaction.controller.TransactionController;
+import com.ing.direct.transaction.dto.TransactionSummary;
+import com.ing.direct.transaction.metrics.SummaryLatencyRecorder;
+import com.ing.direct.transaction.model.CustomerBalance;
+import com.ing.direct.transaction.model.CustomerMonthRollup;
+import com.ing.direct.transaction.model.Transaction;
+import com.ing.direct.transaction.repository.TransactionRepository;
+import com.ing.direct.transaction.service.ClassificationService;
+import com.ing.direct.transaction.service.TransactionService;
+import com.mongodb.MongoClient;
+import de.flapdoodle.embed.mongo.MongodExecutable;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.ConfigFileApplicationContextInitializer;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.math.BigDecimal;
+
+import static com.ing.direct.common.utils.ClassUtils.toDate;
+import static org.junit.Assert.*;
+
+@ActiveProfiles({"test"})
+@SpringApplicationConfiguration(classes = TransactionSummaryCacheIT.TestCacheConfig.class,
+        initializers = ConfigFileApplicationContextInitializer.class)
+@RunWith(SpringJUnit4ClassRunner.class)
+public class TransactionSummaryCacheIT {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionRepository repository;
+
+    @Autowired
+    private ClassificationService classificationService;
+
+    @Autowired
+    private CustomerVersionService customerVersionService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongodExecutable mongodExec;
+
+    @Autowired
+    private MongoClient mongoClient;
+
+    private static MongodExecutable staticMongodExec;
+    private static MongoClient staticMongoClient;
+
+    private TransactionController controller;
+
+    @Before
+    public void setUp() throws Exception {
+        staticMongodExec = mongodExec;
+        staticMongoClient = mongoClient;
+
+        controller = new TransactionController(transactionService, classificationService,
+                new CustomerVersionedCache<>("transactionSummaries", customerVersionService, 100,
+                        (key, value) -> 1, 600),
+                null, null, null, new SummaryLatencyRecorder());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        mongoTemplate.dropCollection(Transaction.class);
+        mongoTemplate.dropCollection(CustomerBalance.class);
+        mongoTemplate.dropCollection(CustomerMonthRollup.class);
+    }
+
+    @AfterClass
+    public static void postContruct() {
+        staticMongoClient.close();
+        staticMongodExec.stop();
+    }
+
+    @Test
+    public void shouldRebuildSummaryFromBulkWrittenTransactions() {
+
+        // given
+        repository.bulkSaveOrUpdate(Lists.newArrayList(transaction("1/10/2016 2:51:23 AM", 23.4)));
+        TransactionSummary before = controller.findByCustomerIdMonth("1", "10").getBody();
+
+        // when
+        repository.bulkSaveOrUpdate(Lists.newArrayList(transaction("2/10/2016 9:12:00 AM", 10)));
+        TransactionSummary after = controller.findByCustomerIdMonth("1", "10").getBody();
+
+        // then
+        assertEquals(1, before.getTransactions().size());
+        assertEquals(2, after.getTransactions().size());
+        assertEquals(23.4, before.getCurrentBalance(), 0.001);
+        assertEquals(33.4, after.getCurrentBalance(), 0.001);
+    }
+
+    private static Transaction transaction(String date, double amount) {
+        return Transaction
+                .builder()
+                .customer("1")
+                .date(toDate(date))
+                .amount(BigDecimal.valueOf(amount))
+                .description("transaction description")
+                .build();
+    }
+
+    @Configuration
+    @EnableAutoConfiguration
+    @EnableCaching
+    @EnableMongoRepositories(basePackages = "com.ing.direct.transaction.repository")
+    @ComponentScan({
+            "com.ing.direct.transaction.service",
+            "com.ing.direct.transaction.model",
+            "com.ing.direct.common.service"
+    })
+    @Import(CacheConfig.class)
+    public static class TestCacheConfig {
+        @Bean
+        CacheManager cacheManager() {
+            return new InstrumentedCacheManager(new ConcurrentMapCacheManager(
+                    ClassUtils.TRANSACTIONS_COLLECTION_NAME,
+                    ClassUtils.TRANSACTIONS_BY_ID_CACHE_NAME,
+                    ClassUtils.TRANSACTION_PAGES_CACHE_NAME));
+        }
+    }
+}
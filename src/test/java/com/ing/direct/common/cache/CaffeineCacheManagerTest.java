@@ -0,0 +1,69 @@
+package com.ing.direct.common.cache;
+
+import org.junit.Test;
+import org.springframework.cache.Cache;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class CaffeineCacheManagerTest {
+
+    private final CaffeineCacheManager cacheManager = new CaffeineCacheManager(
+            Collections.singletonList("transactions"), 100,
+            (key, value) -> value instanceof Collection ? ((Collection<?>) value).size() : 1, 600);
+
+    @Test
+    public void shouldBoundRegionsByWeight() throws Exception {
+        // given
+        Cache cache = cacheManager.getCache("transactions");
+
+        // when
+        cache.put("small", Collections.nCopies(10, "transaction"));
+        cache.put("oversized", Collections.nCopies(101, "transaction"));
+        cleanUp(cache);
+
+        // then
+        assertNotNull(cache.get("small"));
+        assertNull(cache.get("oversized"));
+        assertEquals(10L, getStatistics(cache).get("weight"));
+    }
+
+    @Test
+    public void shouldKeepFrequentEntriesDuringScan() throws Exception {
+        // given
+        Cache cache = cacheManager.getCache("transactions");
+        cache.put("hot", Collections.nCopies(10, "transaction"));
+        for (int i = 0; i < 20; i++) {
+            cache.get("hot");
+        }
+        cleanUp(cache);
+
+        // when
+        for (int i = 0; i < 1000; i++) {
+            cache.put("page-" + i, Collections.nCopies(5, "transaction"));
+            cleanUp(cache);
+        }
+
+        // then
+        assertNotNull(cache.get("hot"));
+    }
+
+    @Test
+    public void shouldNotCreateUnknownRegions() throws Exception {
+        assertNull(cacheManager.getCache("transactionPages"));
+        assertEquals(Collections.singleton("transactions"), cacheManager.getCacheNames());
+    }
+
+    private void cleanUp(Cache cache) {
+        ((com.github.benmanes.caffeine.cache.Cache<?, ?>) cache.getNativeCache()).cleanUp();
+    }
+
+    private Map<String, Object> getStatistics(Cache cache) {
+        return new CacheStatisticsEndpoint(cacheManager).invoke().get(cache.getName());
+    }
+}
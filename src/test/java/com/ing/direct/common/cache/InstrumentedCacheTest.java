@@ -0,0 +1,50 @@
+package com.ing.direct.common.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class InstrumentedCacheTest {
+
+    private final InstrumentedCache cache = new InstrumentedCache(
+            new CaffeineCache("transactions", Caffeine.newBuilder().build()));
+
+    @Test
+    public void shouldEvictEveryEntryOfCustomers() throws Exception {
+        // given
+        cache.put(CustomerCacheKey.of("1", "findByCustomerId"), "customer 1");
+        cache.put(CustomerCacheKey.of("2", "findByCustomerId"), "customer 2");
+        cache.put(CustomerCacheKey.of("3", "findByCustomerId"), "customer 3");
+        cache.put("2", "customer 2 by identifier");
+
+        // when
+        int evicted = cache.evictCustomers(Arrays.asList("1", "2"));
+
+        // then
+        assertEquals(3, evicted);
+        assertEquals(3, cache.getEvictions());
+        assertNull(cache.get(CustomerCacheKey.of("1", "findByCustomerId")));
+        assertNull(cache.get(CustomerCacheKey.of("2", "findByCustomerId")));
+        assertNull(cache.get("2"));
+        assertNotNull(cache.get(CustomerCacheKey.of("3", "findByCustomerId")));
+    }
+
+    @Test
+    public void shouldEvictKeyOfNoCustomer() throws Exception {
+        // given
+        cache.put("10", "transaction 10");
+
+        // when
+        cache.evict("10");
+        cache.evict("11");
+
+        // then
+        assertNull(cache.get("10"));
+        assertEquals(2, cache.getEvictions());
+    }
+}
@@ -0,0 +1,70 @@
+package com.ing.direct.common.cache;
+
+import com.ing.direct.transaction.service.TransactionService;
+import org.junit.Test;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.lang.reflect.Method;
+import java.util.Date;
+
+import static com.ing.direct.common.utils.ClassUtils.toDate;
+import static org.junit.Assert.*;
+
+public class TransactionCacheKeyGeneratorTest {
+
+    private final TransactionCacheKeyGenerator keyGenerator = new TransactionCacheKeyGenerator();
+
+    private final Object target = new Object();
+
+    @Test
+    public void shouldGenerateCustomerKeys() throws Exception {
+        // given
+        Method findByCustomerId = TransactionService.class.getMethod("findByCustomerId", String.class);
+        Method getBalance = TransactionService.class.getMethod("getBalance", String.class);
+
+        // when
+        Object key = keyGenerator.generate(target, findByCustomerId, "1");
+
+        // then
+        assertTrue(key instanceof CustomerCacheKey);
+        assertEquals("1", ((CustomerCacheKey) key).getCustomerId());
+        assertEquals(key, keyGenerator.generate(target, findByCustomerId, "1"));
+        assertEquals(key.hashCode(), keyGenerator.generate(target, findByCustomerId, "1").hashCode());
+        assertNotEquals(key, keyGenerator.generate(target, findByCustomerId, "2"));
+        assertNotEquals(key, keyGenerator.generate(target, getBalance, "1"));
+    }
+
+    @Test
+    public void shouldGenerateCustomerDateRangeKeys() throws Exception {
+        // given
+        Method findByCustomerIdAndDate = TransactionService.class
+                .getMethod("findByCustomerIdAndDate", String.class, Date.class, Date.class);
+        Date start = toDate("1/10/2016 1:00:00 AM");
+        Date end = toDate("1/10/2016 3:00:00 AM");
+
+        // when
+        Object key = keyGenerator.generate(target, findByCustomerIdAndDate, "1", start, end);
+
+        // then
+        assertEquals(key, keyGenerator.generate(target, findByCustomerIdAndDate, "1", new Date(start.getTime()), new Date(end.getTime())));
+        assertNotEquals(key, keyGenerator.generate(target, findByCustomerIdAndDate, "1", start, start));
+        assertEquals("1", ((CustomerCacheKey) key).getCustomerId());
+    }
+
+    @Test
+    public void shouldGeneratePageKeys() throws Exception {
+        // given
+        Method findAll = TransactionService.class.getMethod("findAll", Pageable.class);
+
+        // when
+        Object key = keyGenerator.generate(target, findAll, new PageRequest(1, 50));
+
+        // then
+        assertTrue(key instanceof PageCacheKey);
+        assertEquals(key, keyGenerator.generate(target, findAll, new PageRequest(1, 50)));
+        assertNotEquals(key, keyGenerator.generate(target, findAll, new PageRequest(2, 50)));
+        assertEquals(SimpleKey.EMPTY, keyGenerator.generate(target, TransactionService.class.getMethod("findAll")));
+    }
+}
@@ -0,0 +1,42 @@
+package com.ing.direct.common.mongo;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.Assert.assertEquals;
+
+public class AmountConvertersTest {
+
+    @Test
+    public void shouldWriteAmountsAsCents() throws Exception {
+        assertEquals(Long.valueOf(2340), AmountConverters.BigDecimalToCentsConverter.INSTANCE.convert(BigDecimal.valueOf(23.4)));
+        assertEquals(Long.valueOf(-350), AmountConverters.BigDecimalToCentsConverter.INSTANCE.convert(new BigDecimal("-3.50")));
+        assertEquals(Long.valueOf(2), AmountConverters.BigDecimalToCentsConverter.INSTANCE.convert(new BigDecimal("0.015")));
+    }
+
+    @Test
+    public void shouldReadCentsWithTwoDecimals() throws Exception {
+        assertEquals(new BigDecimal("23.40"), AmountConverters.CentsToBigDecimalConverter.INSTANCE.convert(2340L));
+        assertEquals(new BigDecimal("-3.05"), AmountConverters.CentsToBigDecimalConverter.INSTANCE.convert(-305L));
+        assertEquals(new BigDecimal("-90.00"), AmountConverters.CentsToBigDecimalConverter.INSTANCE.convert(-9000L));
+        assertEquals(new BigDecimal("0.00"), AmountConverters.CentsToBigDecimalConverter.INSTANCE.convert(0L));
+    }
+
+    @Test
+    public void shouldReadStringsWithTwoDecimals() throws Exception {
+        assertEquals(new BigDecimal("23.40"), AmountConverters.StringToBigDecimalConverter.INSTANCE.convert("23.4"));
+        assertEquals(new BigDecimal("-90.00"), AmountConverters.StringToBigDecimalConverter.INSTANCE.convert("-90.00"));
+    }
+
+    @Test
+    public void shouldKeepScaleOnRoundTrip() throws Exception {
+        for (String amount : new String[]{"-90.00", "23.40", "0.01", "100.00"}) {
+            Long cents = AmountConverters.BigDecimalToCentsConverter.INSTANCE.convert(new BigDecimal(amount));
+
+            assertEquals(new BigDecimal(amount), AmountConverters.CentsToBigDecimalConverter.INSTANCE.convert(cents));
+            assertEquals(AmountConverters.StringToBigDecimalConverter.INSTANCE.convert(amount),
+                    AmountConverters.CentsToBigDecimalConverter.INSTANCE.convert(cents));
+        }
+    }
+}
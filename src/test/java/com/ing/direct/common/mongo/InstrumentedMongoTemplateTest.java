@@ -0,0 +1,68 @@
+package com.ing.direct.common.mongo;
+
+import com.mongodb.BasicDBObject;
+import org.junit.Test;
+import org.springframework.data.mongodb.MongoDbFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+public class InstrumentedMongoTemplateTest {
+
+    @Test
+    public void shouldReplaceQueryValuesInShape() throws Exception {
+        // given
+        Query query = new Query(new Criteria().andOperator(
+                where("customer").is("1"),
+                where("date").is(new Date()),
+                where("amount").is(BigDecimal.TEN),
+                where("description").is("first transaction description")));
+
+        // when
+        String shape = InstrumentedMongoTemplate.toShape(query.getQueryObject());
+
+        // then
+        assertEquals("{$and: [{customer: ?}, {date: ?}, {amount: ?}, {description: ?}]}", shape);
+    }
+
+    @Test
+    public void shouldKeepOperatorsInShape() throws Exception {
+        assertEquals("{customer: ?, date: {$gte: ?, $lt: ?}}", InstrumentedMongoTemplate.toShape(
+                new Query(where("customer").is("1").and("date").gte(new Date()).lt(new Date())).getQueryObject()));
+        assertEquals("{customer: {$in: [?, ?]}}", InstrumentedMongoTemplate.toShape(
+                new Query(where("customer").in("1", "2")).getQueryObject()));
+        assertEquals("{}", InstrumentedMongoTemplate.toShape(null));
+    }
+
+    @Test
+    public void shouldTimeDriverOperations() throws Exception {
+        // given
+        InstrumentedMongoTemplate mongoTemplate = new InstrumentedMongoTemplate(
+                mock(MongoDbFactory.class), mock(MongoConverter.class), 100);
+
+        // when
+        String result = InstrumentedMongoTemplate.timeDriverOperation(mongoTemplate, "bulkWrite", "transactions",
+                new BasicDBObject("_id", "1"), () -> "written");
+
+        // then
+        assertEquals("written", result);
+        assertTrue(mongoTemplate.metrics().stream()
+                .anyMatch(metric -> metric.getName().equals("counter.mongo.bulkWrite.transactions.count")
+                        && metric.getValue().longValue() == 1));
+    }
+
+    @Test
+    public void shouldRunDriverOperationsOfOtherTemplates() throws Exception {
+        assertEquals("written", InstrumentedMongoTemplate.timeDriverOperation(mock(MongoTemplate.class),
+                "bulkWrite", "transactions", null, () -> "written"));
+    }
+}
@@ -0,0 +1,83 @@
+package com.ing.direct.common.security;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class XssSanitizerTest {
+
+    private static final List<String> TOKENS = Arrays.asList(
+            "a", "1", " ", "-", "/", ",", ";", "'", "\"", "(", ")", ":", "=", ">", "<", "\r", "\n", "%", "&", "\\",
+            "%3C", "&lt;", "\\x3c", "script", "SCRIPT", "</script>", "src", "SrC", "eval", "EVAL", "expression",
+            "javascript", "JavaScript", "vbscript", "onload", "ONLOAD", "on", "load", "d", "application/json",
+            "*/*", "\u212a", "\u0131");
+
+    @Test
+    public void shouldReturnCleanValuesUntouched() throws Exception {
+        for (String value : Arrays.asList("13", "05", "application/json, text/plain, */*", "gzip, deflate",
+                "localhost:8080", "Mozilla/5.0 (X11; Linux x86_64)", "evaluation(1)", "src", "onload")) {
+            assertSame(value, XssSanitizer.sanitize(value));
+        }
+    }
+
+    @Test
+    public void shouldStripXssFragments() throws Exception {
+        assertNull(XssSanitizer.sanitize(null));
+        assertEquals("13", XssSanitizer.sanitize("<script>alert('xss')</script>13"));
+        assertEquals("13", XssSanitizer.sanitize("%3Cscript%3Ealert('xss')%3C/script%3E13"));
+        assertEquals("13", XssSanitizer.sanitize("eval(1)13"));
+        assertEquals("alert(1)", XssSanitizer.sanitize("JavaScript:alert(1)"));
+        assertEquals("<img >", XssSanitizer.sanitize("<img src\r\n='x'>"));
+        assertEquals("<body >", XssSanitizer.sanitize("<body onload=>"));
+    }
+
+    @Test
+    public void shouldSanitizeAsFullSanitization() throws Exception {
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20_000; i++) {
+            StringBuilder builder = new StringBuilder();
+            int length = random.nextInt(8);
+            for (int j = 0; j < length; j++) {
+                builder.append(TOKENS.get(random.nextInt(TOKENS.size())));
+            }
+            String value = builder.toString();
+
+            String expected;
+            try {
+                expected = XssSanitizer.sanitizeFully(value);
+            } catch (RuntimeException e) {
+                // mixed or multiple encodings rejected by ESAPI must reach the full sanitization
+                assertTrue("value: " + value, XssSanitizer.isSuspicious(value));
+                continue;
+            }
+
+            assertEquals("value: " + value, expected, XssSanitizer.sanitize(value));
+        }
+    }
+
+    @Test
+    public void shouldMemoizeSanitizedValuesPerRequest() throws Exception {
+        // given
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Accept", "<script>x</script>application/json");
+        request.addParameter("customerId", "13", "eval(1)14");
+        XssRequestWrapper wrapper = new XssRequestWrapper(request);
+
+        // when
+        String accept = wrapper.getHeader("Accept");
+
+        // then
+        assertEquals("application/json", accept);
+        assertSame(accept, wrapper.getHeader("Accept"));
+        assertEquals("13", wrapper.getParameter("customerId"));
+        assertArrayEquals(new String[]{"13", "14"}, wrapper.getParameterValues("customerId"));
+        assertNull(wrapper.getHeader("Host"));
+        assertNull(wrapper.getParameterValues("month"));
+    }
+}
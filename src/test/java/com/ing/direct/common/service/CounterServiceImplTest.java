@@ -0,0 +1,111 @@
+package com.ing.direct.common.service;
+
+import com.ing.direct.common.sequence.Counter;
+import com.mongodb.MongoClient;
+import de.flapdoodle.embed.mongo.MongodExecutable;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.ConfigFileApplicationContextInitializer;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import static com.ing.direct.common.utils.ClassUtils.COUNTERS_COLLECTION_NAME;
+import static com.ing.direct.common.utils.ClassUtils.DEFAULT_SEQUENCE_BLOCK_SIZE;
+import static org.junit.Assert.assertEquals;
+
+@ActiveProfiles({"test", "cacheDisabled"})
+@SpringApplicationConfiguration(classes = CounterServiceImplTest.TestAppConfig.class,
+        initializers = ConfigFileApplicationContextInitializer.class)
+@RunWith(SpringJUnit4ClassRunner.class)
+public class CounterServiceImplTest {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CounterServiceImpl counterService;
+
+    @Autowired
+    private MongodExecutable mongodExec;
+
+    @Autowired
+    private MongoClient mongoClient;
+
+    private static MongodExecutable staticMongodExec;
+    private static MongoClient staticMongoClient;
+
+    @Before
+    public void setUp() throws Exception {
+
+        // init mongodb
+        staticMongodExec = mongodExec;
+        staticMongoClient = mongoClient;
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        counterService.setBlockSize(DEFAULT_SEQUENCE_BLOCK_SIZE);
+        mongoTemplate.dropCollection(COUNTERS_COLLECTION_NAME);
+    }
+
+    @AfterClass
+    public static void postContruct() {
+        // stop mongodb
+        staticMongoClient.close();
+        staticMongodExec.stop();
+    }
+
+    @Test
+    public void shouldHandOutSequencesFromReservedBlock() throws Exception {
+        // when
+        int first = counterService.getNextSequence("sequence_test");
+        int second = counterService.getNextSequence("sequence_test");
+
+        // then
+        assertEquals(1, first);
+        assertEquals(2, second);
+        assertEquals(DEFAULT_SEQUENCE_BLOCK_SIZE, mongoTemplate.findById("sequence_test", Counter.class).getSeq());
+    }
+
+    @Test
+    public void shouldReserveNextBlockOnceCurrentOneIsExhausted() throws Exception {
+        // given
+        counterService.setBlockSize(2);
+
+        // when
+        int first = counterService.getNextSequence("refill_test");
+        int second = counterService.getNextSequence("refill_test");
+        int third = counterService.getNextSequence("refill_test");
+
+        // then
+        assertEquals(1, first);
+        assertEquals(2, second);
+        assertEquals(3, third);
+        assertEquals(4, mongoTemplate.findById("refill_test", Counter.class).getSeq());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectEmptyBlockSize() throws Exception {
+        counterService.setBlockSize(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNegativeBlockSize() throws Exception {
+        counterService.setBlockSize(-1);
+    }
+
+    @Configuration
+    @EnableAutoConfiguration
+    @ComponentScan("com.ing.direct.common.service")
+    public static class TestAppConfig {
+    }
+}
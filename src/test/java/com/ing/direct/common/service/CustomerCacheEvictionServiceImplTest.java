@@ -0,0 +1,59 @@
+package com.ing.direct.common.service;
+
+import com.ing.direct.common.cache.CustomerCacheKey;
+import com.ing.direct.common.cache.InstrumentedCacheManager;
+import org.junit.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+import static com.ing.direct.common.utils.ClassUtils.TRANSACTIONS_BY_ID_CACHE_NAME;
+import static com.ing.direct.common.utils.ClassUtils.TRANSACTIONS_COLLECTION_NAME;
+import static com.ing.direct.common.utils.ClassUtils.TRANSACTION_PAGES_CACHE_NAME;
+import static org.junit.Assert.*;
+
+public class CustomerCacheEvictionServiceImplTest {
+
+    private final CacheManager cacheManager = new InstrumentedCacheManager(new ConcurrentMapCacheManager(
+            TRANSACTIONS_COLLECTION_NAME, TRANSACTIONS_BY_ID_CACHE_NAME, TRANSACTION_PAGES_CACHE_NAME));
+
+    private final CustomerCacheEvictionService customerCacheEvictionService =
+            new CustomerCacheEvictionServiceImpl(Optional.of(cacheManager));
+
+    @Test
+    public void shouldEvictWrittenCustomersTransactionsAndPages() {
+        // given
+        Cache transactions = cacheManager.getCache(TRANSACTIONS_COLLECTION_NAME);
+        Cache transactionsById = cacheManager.getCache(TRANSACTIONS_BY_ID_CACHE_NAME);
+        Cache transactionPages = cacheManager.getCache(TRANSACTION_PAGES_CACHE_NAME);
+
+        transactions.put(CustomerCacheKey.of("1", "findByCustomerId"), "customer 1");
+        transactions.put(CustomerCacheKey.of("2", "findByCustomerId"), "customer 2");
+        transactions.put(CustomerCacheKey.of("3", "findByCustomerId"), "customer 3");
+        transactionsById.put("10", "transaction 10");
+        transactionsById.put("11", "transaction 11");
+        transactionPages.put("page", "page");
+
+        // when
+        customerCacheEvictionService.evict(Arrays.asList("1", "2"), Collections.singleton("10"));
+
+        // then
+        assertNull(transactions.get(CustomerCacheKey.of("1", "findByCustomerId")));
+        assertNull(transactions.get(CustomerCacheKey.of("2", "findByCustomerId")));
+        assertNotNull(transactions.get(CustomerCacheKey.of("3", "findByCustomerId")));
+        assertNull(transactionsById.get("10"));
+        assertNotNull(transactionsById.get("11"));
+        assertNull(transactionPages.get("page"));
+    }
+
+    @Test
+    public void shouldNotEvictAnythingWithoutCacheManager() {
+        // when
+        new CustomerCacheEvictionServiceImpl(Optional.empty())
+                .evict(Collections.singleton("1"), Collections.singleton("10"));
+    }
+}
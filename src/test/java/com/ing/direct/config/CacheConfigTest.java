@@ -0,0 +1,53 @@
+package com.ing.direct.config;
+
+import com.ing.direct.common.cache.CacheStatisticsEndpoint;
+import com.ing.direct.common.cache.CustomerVersionedCache;
+import com.ing.direct.common.service.CustomerVersionService;
+import com.ing.direct.transaction.dto.TransactionSummary;
+import com.ing.direct.transaction.model.Transaction;
+import org.junit.Test;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+
+public class CacheConfigTest {
+
+    private static final String[] CACHE_NAMES = {"transactions", "transactionsById", "transactionPages"};
+
+    private final CacheConfig cacheConfig = new CacheConfig();
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNonPositiveTransactionFootprint() throws Exception {
+        cacheConfig.cacheManager(new String[]{"transactions"}, 64, 0, 600);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectMissingCacheNames() throws Exception {
+        cacheConfig.cacheManager(new String[0], 64, 512, 600);
+    }
+
+    @Test
+    public void shouldShareMemoryBudgetWithTransactionSummaryCache() throws Exception {
+        // given
+        CacheManager cacheManager = cacheConfig.cacheManager(CACHE_NAMES, 1, 512, 600);
+        CustomerVersionedCache<TransactionSummary> transactionSummaryCache = cacheConfig.transactionSummaryCache(
+                mock(CustomerVersionService.class), CACHE_NAMES, 1, 512, 600);
+
+        // when
+        transactionSummaryCache.get("1", "10", () -> TransactionSummary
+                .builder()
+                .transactions(Collections.nCopies(3, Transaction.builder().build()))
+                .build());
+        transactionSummaryCache.getNativeCache().cleanUp();
+
+        // then
+        CacheStatisticsEndpoint endpoint = cacheConfig.cacheStatisticsEndpoint(cacheManager, transactionSummaryCache);
+
+        assertEquals(512L, endpoint.invoke().get("transactions").get("maximumWeight"));
+        assertEquals(512L, endpoint.invoke().get("transactionSummaries").get("maximumWeight"));
+        assertEquals(3L, endpoint.invoke().get("transactionSummaries").get("weight"));
+    }
+}
@@ -1,5 +1,6 @@
 package com.ing.direct.config;
 
+import com.ing.direct.common.cache.InstrumentedCacheManager;
 import com.ing.direct.common.utils.ClassUtils;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.cache.CacheManager;
@@ -8,14 +9,19 @@ import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 
 @Configuration
 @ComponentScan({"com.ing.direct.transaction.service", "com.ing.direct.transaction.model"})
 @EnableAutoConfiguration
 @EnableCaching
+@Import(CacheConfig.class)
 public class TestCacheConfig {
     @Bean
     CacheManager cacheManager() {
-        return new ConcurrentMapCacheManager(ClassUtils.TRANSACTIONS_COLLECTION_NAME);
+        return new InstrumentedCacheManager(new ConcurrentMapCacheManager(
+                ClassUtils.TRANSACTIONS_COLLECTION_NAME,
+                ClassUtils.TRANSACTIONS_BY_ID_CACHE_NAME,
+                ClassUtils.TRANSACTION_PAGES_CACHE_NAME));
     }
 }
@@ -1,17 +1,28 @@
 package com.ing.direct.transaction.controller;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
+import com.ing.direct.common.cache.CustomerVersionedCache;
+import com.ing.direct.common.executor.InstrumentedExecutor;
+import com.ing.direct.common.service.CustomerVersionService;
+import com.ing.direct.common.service.CustomerVersionServiceImpl;
+import com.ing.direct.transaction.dto.TransactionSummary;
+import com.ing.direct.transaction.metrics.SummaryLatencyRecorder;
 import com.ing.direct.transaction.model.Transaction;
+import com.ing.direct.transaction.model.TransactionBatch;
 import com.ing.direct.transaction.service.ClassificationEnum;
 import com.ing.direct.transaction.service.ClassificationService;
+import com.ing.direct.transaction.service.ClassificationStatistics;
 import com.ing.direct.transaction.service.TransactionService;
 import com.jayway.restassured.http.ContentType;
+import com.netflix.hystrix.exception.HystrixRuntimeException;
 import com.jayway.restassured.module.mockmvc.RestAssuredMockMvc;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.springframework.boot.test.SpringApplicationConfiguration;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
@@ -19,19 +30,36 @@ import org.springframework.mock.web.MockServletContext;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.math.BigDecimal;
-import java.util.List;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
 
 import static com.ing.direct.common.utils.ClassUtils.toDate;
+import static com.ing.direct.transaction.metrics.SummaryLatencyRecorder.Stage.CLASSIFICATION;
+import static com.ing.direct.transaction.metrics.SummaryLatencyRecorder.Stage.FETCH;
+import static com.ing.direct.transaction.metrics.SummaryLatencyRecorder.Stage.TOTAL;
 import static com.jayway.restassured.module.mockmvc.RestAssuredMockMvc.given;
 import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.initMocks;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ActiveProfiles("test")
 @RunWith(SpringJUnit4ClassRunner.class)
@@ -47,6 +75,15 @@ public class TransactionControllerTest {
     @Mock
     private ClassificationService classificationService;
 
+    private CustomerVersionService customerVersionService = new CustomerVersionServiceImpl();
+
+    @Spy
+    private CustomerVersionedCache<TransactionSummary> transactionSummaryCache =
+            new CustomerVersionedCache<>("transactionSummaries", customerVersionService, 100, (key, value) -> 1, 600);
+
+    @Spy
+    private SummaryLatencyRecorder latencyRecorder = new SummaryLatencyRecorder();
+
     private MockMvc mvc;
 
     private Transaction transaction = Transaction
@@ -69,10 +106,13 @@ public class TransactionControllerTest {
     @Test
     public void shouldFindByCustomerIdAndMonth() throws IOException {
 
-        when(transactionService.findByCustomerId(any(String.class)))
+        when(transactionService.findByCustomerIdAndDate(any(String.class), any(Date.class), any(Date.class)))
                 .thenReturn(Lists.newArrayList(transaction));
 
-        when(classificationService.classifyCustomer(any(List.class)))
+        when(transactionService.getBalance(any(String.class)))
+                .thenReturn(BigDecimal.valueOf(23.4));
+
+        when(classificationService.classifyCustomer(any(TransactionBatch.class)))
                 .thenReturn(Lists.newArrayList(ClassificationEnum.MORNING_PERSON));
 
         given().
@@ -88,10 +128,308 @@ public class TransactionControllerTest {
                 body("transactions", notNullValue()).
                 log().all(true);
 
-        verify(transactionService, times(1)).findByCustomerId(any(String.class));
+        verify(transactionService, times(1)).findByCustomerIdAndDate(any(String.class), any(Date.class), any(Date.class));
+        verify(transactionService, times(1)).getBalance(any(String.class));
         verifyNoMoreInteractions(transactionService);
-        verify(classificationService, times(1)).classifyCustomer(any(List.class));
+        verify(classificationService, times(1)).classifyCustomer(any(TransactionBatch.class));
         verifyNoMoreInteractions(classificationService);
     }
 
+    @Test
+    public void shouldServeRepeatedSummaryFromCacheUntilCustomerIsWritten() throws IOException {
+
+        when(transactionService.findByCustomerIdAndDate(any(String.class), any(Date.class), any(Date.class)))
+                .thenReturn(Lists.newArrayList(transaction));
+
+        when(transactionService.getBalance(any(String.class)))
+                .thenReturn(BigDecimal.valueOf(23.4));
+
+        when(classificationService.classifyCustomer(any(TransactionBatch.class)))
+                .thenReturn(Lists.newArrayList(ClassificationEnum.MORNING_PERSON));
+
+        given().when().get("/transaction-summary/1/10").then().statusCode(HttpServletResponse.SC_OK);
+        given().when().get("/transaction-summary/1/10").then().statusCode(HttpServletResponse.SC_OK);
+
+        verify(transactionService, times(1)).findByCustomerIdAndDate(any(String.class), any(Date.class), any(Date.class));
+
+        customerVersionService.increment(Lists.newArrayList("1"));
+
+        given().when().get("/transaction-summary/1/10").then().
+                statusCode(HttpServletResponse.SC_OK).
+                body("customerId", equalTo("1"));
+
+        verify(transactionService, times(2)).findByCustomerIdAndDate(any(String.class), any(Date.class), any(Date.class));
+        verify(classificationService, times(2)).classifyCustomer(any(TransactionBatch.class));
+    }
+
+    @Test
+    public void shouldServeStaleSummaryWhenTransactionsCannotBeRead() throws IOException {
+
+        when(transactionService.findByCustomerIdAndDate(any(String.class), any(Date.class), any(Date.class)))
+                .thenReturn(Lists.newArrayList(transaction))
+                .thenThrow(new HystrixRuntimeException(HystrixRuntimeException.FailureType.TIMEOUT, null,
+                        "findByCustomerIdAndDate timed-out", null, null));
+
+        when(transactionService.getBalance(any(String.class)))
+                .thenReturn(BigDecimal.valueOf(23.4));
+
+        when(classificationService.classifyCustomer(any(TransactionBatch.class)))
+                .thenReturn(Lists.newArrayList(ClassificationEnum.MORNING_PERSON));
+
+        given().when().get("/transaction-summary/1/10").then().
+                statusCode(HttpServletResponse.SC_OK).
+                body("stale", nullValue());
+
+        customerVersionService.increment(Lists.newArrayList("1"));
+
+        given().when().get("/transaction-summary/1/10").then().
+                statusCode(HttpServletResponse.SC_OK).
+                body("customerId", equalTo("1")).
+                body("currentBalance", is((float) 23.4)).
+                body("classification[0]", equalTo(ClassificationEnum.MORNING_PERSON.name())).
+                body("stale", is(true));
+
+        verify(transactionService, times(2)).findByCustomerIdAndDate(any(String.class), any(Date.class), any(Date.class));
+    }
+
+    @Test
+    public void shouldFindClassificationByCustomerIdAndMonth() throws IOException {
+
+        when(transactionService.getMonthlyStatistics(any(String.class), anyInt()))
+                .thenReturn(Optional.of(ClassificationStatistics.of(TransactionBatch.of(Lists.newArrayList(transaction)))));
+
+        when(classificationService.classifyCustomer(any(ClassificationStatistics.class)))
+                .thenReturn(Lists.newArrayList(ClassificationEnum.MORNING_PERSON));
+
+        given().
+                when().
+                get("/transaction-summary/1/10/classification").
+                then().
+                statusCode(HttpServletResponse.SC_OK).
+                contentType(ContentType.JSON).
+                body("[0]", equalTo(ClassificationEnum.MORNING_PERSON.name()));
+
+        verify(transactionService, times(1)).getMonthlyStatistics("1", 10);
+        verifyNoMoreInteractions(transactionService);
+        verify(latencyRecorder, times(1)).record(eq(FETCH), eq(1), anyLong());
+        verify(latencyRecorder, times(1)).record(eq(CLASSIFICATION), eq(1), anyLong());
+    }
+
+    @Test
+    public void shouldNotFindClassificationWithoutMonthRollup() throws IOException {
+
+        when(transactionService.getMonthlyStatistics(any(String.class), anyInt()))
+                .thenReturn(Optional.empty());
+
+        given().
+                when().
+                get("/transaction-summary/1/10/classification").
+                then().
+                statusCode(HttpServletResponse.SC_NOT_FOUND);
+
+        verifyZeroInteractions(classificationService);
+    }
+
+    @Test
+    public void shouldFindByCustomerIdsAndMonth() throws IOException {
+
+        ForkJoinPool summaryBatchPool = new ForkJoinPool(2);
+        RestAssuredMockMvc.mockMvc(MockMvcBuilders
+                .standaloneSetup(new TransactionController(transactionService, classificationService,
+                        transactionSummaryCache, summaryBatchPool, null, null, latencyRecorder))
+                .setMessageConverters(new MappingJackson2HttpMessageConverter()).build());
+
+        when(transactionService.findByCustomerIdsAndDate(any(Collection.class), any(Date.class), any(Date.class)))
+                .thenReturn(ImmutableMap.of("1", Lists.newArrayList(transaction)));
+
+        when(transactionService.getBalances(any(Collection.class)))
+                .thenReturn(ImmutableMap.of("1", BigDecimal.valueOf(23.4)));
+
+        when(classificationService.classifyCustomer(any(TransactionBatch.class)))
+                .thenReturn(Lists.newArrayList(ClassificationEnum.MORNING_PERSON));
+
+        try {
+            given().
+                    contentType(ContentType.JSON).
+                    body("{\"customerIds\":[\"1\",\"2\",\"1\"],\"month\":\"10\"}").
+                    when().
+                    post("/transaction-summary/batch").
+                    then().
+                    statusCode(HttpServletResponse.SC_OK).
+                    contentType(ContentType.JSON).
+                    body("month", equalTo("10")).
+                    body("summaries.size()", is(1)).
+                    body("summaries[0].customerId", equalTo("1")).
+                    body("summaries[0].currentBalance", is((float) 23.4)).
+                    body("summaries[0].classification[0]", equalTo(ClassificationEnum.MORNING_PERSON.name())).
+                    body("notFound", equalTo(Lists.newArrayList("2")));
+        } finally {
+            summaryBatchPool.shutdown();
+        }
+
+        verify(transactionService, times(1)).findByCustomerIdsAndDate(any(Collection.class), any(Date.class), any(Date.class));
+        verify(transactionService, times(1)).getBalances(any(Collection.class));
+        verifyNoMoreInteractions(transactionService);
+    }
+
+    @Test
+    public void shouldRejectBatchWithInvalidCustomerId() throws IOException {
+
+        given().
+                contentType(ContentType.JSON).
+                body("{\"customerIds\":[\"1\",\"abc\"],\"month\":\"10\"}").
+                when().
+                post("/transaction-summary/batch").
+                then().
+                statusCode(HttpServletResponse.SC_BAD_REQUEST);
+
+        verifyZeroInteractions(transactionService);
+    }
+
+    @Test
+    public void shouldRejectBatchWithNullCustomerId() throws IOException {
+
+        given().
+                contentType(ContentType.JSON).
+                body("{\"customerIds\":[\"1\",null],\"month\":\"10\"}").
+                when().
+                post("/transaction-summary/batch").
+                then().
+                statusCode(HttpServletResponse.SC_BAD_REQUEST);
+
+        verifyZeroInteractions(transactionService);
+    }
+
+    @Test
+    public void shouldFindByCustomerIdAndMonthAsynchronously() throws Exception {
+
+        InstrumentedExecutor summaryIoExecutor = new InstrumentedExecutor("summaryIo", 1, 1);
+        InstrumentedExecutor summaryCpuExecutor = new InstrumentedExecutor("summaryCpu", 1, 1);
+        MockMvc asyncMvc = MockMvcBuilders
+                .standaloneSetup(new TransactionController(transactionService, classificationService,
+                        transactionSummaryCache, null, summaryIoExecutor, summaryCpuExecutor, latencyRecorder))
+                .setMessageConverters(new MappingJackson2HttpMessageConverter()).build();
+
+        when(transactionService.findByCustomerIdAndDate(any(String.class), any(Date.class), any(Date.class)))
+                .thenReturn(Lists.newArrayList(transaction));
+
+        when(transactionService.getBalance(any(String.class)))
+                .thenReturn(BigDecimal.valueOf(23.4));
+
+        when(classificationService.classifyCustomer(any(TransactionBatch.class)))
+                .thenReturn(Lists.newArrayList(ClassificationEnum.MORNING_PERSON));
+
+        try {
+            MvcResult result = asyncMvc.perform(get("/transaction-summary/async/1/10"))
+                    .andExpect(request().asyncStarted())
+                    .andExpect(request().asyncResult(notNullValue()))
+                    .andReturn();
+
+            asyncMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string(containsString("\"customerId\":\"1\"")))
+                    .andExpect(content().string(containsString(ClassificationEnum.MORNING_PERSON.name())));
+        } finally {
+            summaryIoExecutor.shutdown();
+            summaryCpuExecutor.shutdown();
+        }
+
+        verify(transactionService, times(1)).findByCustomerIdAndDate(any(String.class), any(Date.class), any(Date.class));
+        verify(transactionService, times(1)).getBalance(any(String.class));
+        verify(classificationService, times(1)).classifyCustomer(any(TransactionBatch.class));
+        verify(latencyRecorder, times(1)).record(eq(TOTAL), eq(1), anyLong());
+    }
+
+    @Test
+    public void shouldShedAsynchronousRequestWhenExecutorIsSaturated() throws Exception {
+
+        InstrumentedExecutor summaryIoExecutor = new InstrumentedExecutor("summaryIo", 1, 1);
+        MockMvc asyncMvc = MockMvcBuilders
+                .standaloneSetup(new TransactionController(transactionService, classificationService,
+                        transactionSummaryCache, null, summaryIoExecutor, summaryIoExecutor, latencyRecorder))
+                .setMessageConverters(new MappingJackson2HttpMessageConverter()).build();
+
+        CountDownLatch release = new CountDownLatch(1);
+        Runnable blocked = () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        try {
+            // one running task and one queued task saturate the executor
+            summaryIoExecutor.execute(blocked);
+            summaryIoExecutor.execute(blocked);
+
+            MvcResult result = asyncMvc.perform(get("/transaction-summary/async/1/10"))
+                    .andExpect(request().asyncStarted())
+                    .andExpect(request().asyncResult(notNullValue()))
+                    .andReturn();
+
+            asyncMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isServiceUnavailable());
+        } finally {
+            release.countDown();
+            summaryIoExecutor.shutdown();
+        }
+
+        assertTrue(summaryIoExecutor.metrics().stream()
+                .anyMatch(metric -> metric.getName().equals("counter.executor.summaryIo.rejected")
+                        && metric.getValue().longValue() == 1));
+        verifyZeroInteractions(transactionService);
+    }
+
+    @Test
+    public void shouldShedAsynchronousRequestWhenCpuExecutorIsSaturated() throws Exception {
+
+        InstrumentedExecutor summaryIoExecutor = new InstrumentedExecutor("summaryIo", 1, 1);
+        InstrumentedExecutor summaryCpuExecutor = new InstrumentedExecutor("summaryCpu", 1, 1);
+        MockMvc asyncMvc = MockMvcBuilders
+                .standaloneSetup(new TransactionController(transactionService, classificationService,
+                        transactionSummaryCache, null, summaryIoExecutor, summaryCpuExecutor, latencyRecorder))
+                .setMessageConverters(new MappingJackson2HttpMessageConverter()).build();
+
+        when(transactionService.findByCustomerIdAndDate(any(String.class), any(Date.class), any(Date.class)))
+                .thenReturn(Lists.newArrayList(transaction));
+
+        when(transactionService.getBalance(any(String.class)))
+                .thenReturn(BigDecimal.valueOf(23.4));
+
+        CountDownLatch release = new CountDownLatch(1);
+        Runnable blocked = () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        try {
+            // one running task and one queued task saturate the cpu executor, the io executor being idle
+            summaryCpuExecutor.execute(blocked);
+            summaryCpuExecutor.execute(blocked);
+
+            MvcResult result = asyncMvc.perform(get("/transaction-summary/async/1/10"))
+                    .andExpect(request().asyncStarted())
+                    .andExpect(request().asyncResult(notNullValue()))
+                    .andReturn();
+
+            asyncMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isServiceUnavailable());
+        } finally {
+            release.countDown();
+            summaryIoExecutor.shutdown();
+            summaryCpuExecutor.shutdown();
+        }
+
+        assertTrue(summaryCpuExecutor.metrics().stream()
+                .anyMatch(metric -> metric.getName().equals("counter.executor.summaryCpu.rejected")
+                        && metric.getValue().longValue() == 1));
+        verify(transactionService, times(1)).findByCustomerIdAndDate(any(String.class), any(Date.class), any(Date.class));
+        verify(transactionService, times(1)).getBalance(any(String.class));
+        verifyZeroInteractions(classificationService);
+    }
+
 }
@@ -0,0 +1,68 @@
+package com.ing.direct.transaction.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.Lists;
+import com.ing.direct.transaction.model.Transaction;
+import com.ing.direct.transaction.service.ClassificationEnum;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static com.ing.direct.common.utils.ClassUtils.convertToDto;
+import static com.ing.direct.common.utils.ClassUtils.toDate;
+import static org.junit.Assert.assertEquals;
+
+public class TransactionSummarySerializerTest {
+
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void shouldWriteSummaryAsWithTransactionDtos() throws Exception {
+        // given
+        List<Transaction> transactions = Lists.newArrayList(
+                Transaction.builder().id("1").customer("1").date(toDate("1/10/2016 2:51:23 AM"))
+                        .amount(BigDecimal.valueOf(23.4)).description("first transaction description").build(),
+                Transaction.builder().id("2").customer("1").date(toDate("2/10/2016 9:12:45 PM"))
+                        .amount(new BigDecimal("-3.40")).description(null).build());
+
+        TransactionSummary summary = TransactionSummary
+                .builder()
+                .customerId("1")
+                .month("10")
+                .currentBalance(20)
+                .classification(Lists.newArrayList(ClassificationEnum.MORNING_PERSON, ClassificationEnum.POTENTIAL_SAVER))
+                .transactions(transactions)
+                .build();
+
+        Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put("customerId", "1");
+        expected.put("month", "10");
+        expected.put("currentBalance", 20.0);
+        expected.put("classification", summary.getClassification());
+        expected.put("transactions", transactions.stream().map(transaction -> convertToDto(transaction))
+                .collect(Collectors.toList()));
+
+        // when
+        String json = objectMapper.writeValueAsString(summary);
+
+        // then
+        assertEquals(objectMapper.writeValueAsString(expected), json);
+    }
+
+    @Test
+    public void shouldWriteSummaryWithoutTransactions() throws Exception {
+        // given
+        TransactionSummary summary = TransactionSummary.builder().customerId("1").month("10").build();
+
+        // when
+        String json = objectMapper.writeValueAsString(summary);
+
+        // then
+        assertEquals("{\"customerId\":\"1\",\"month\":\"10\",\"currentBalance\":0.0,"
+                + "\"classification\":null,\"transactions\":null}", json);
+    }
+}
@@ -0,0 +1,118 @@
+package com.ing.direct.transaction.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.Lists;
+import com.ing.direct.transaction.model.CustomerBalance;
+import com.ing.direct.transaction.model.Transaction;
+import com.ing.direct.transaction.model.TransactionBatch;
+import com.ing.direct.transaction.repository.CustomerBalanceRepository;
+import com.ing.direct.transaction.repository.TransactionRepository;
+import com.ing.direct.transaction.service.ClassificationEnum;
+import com.ing.direct.transaction.service.ClassificationService;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.springframework.data.util.CloseableIterator;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+
+import static com.ing.direct.common.utils.ClassUtils.toDate;
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class TransactionSummaryExporterTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private CustomerBalanceRepository customerBalanceRepository;
+
+    @Mock
+    private ClassificationService classificationService;
+
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    private TransactionSummaryExporter transactionSummaryExporter;
+
+    @Before
+    public void setUp() throws Exception {
+        initMocks(this);
+
+        when(classificationService.classifyCustomer(any(TransactionBatch.class)))
+                .thenReturn(Lists.newArrayList(ClassificationEnum.MORNING_PERSON));
+
+        transactionSummaryExporter = new TransactionSummaryExporter(
+                transactionRepository, customerBalanceRepository, classificationService, objectMapper);
+    }
+
+    @Test
+    public void shouldExportOneSummaryLinePerCustomer() throws Exception {
+        // given
+        CloseableIterator<Transaction> transactions = cursor(Lists.newArrayList(
+                transaction("1", "1/10/2016 2:51:23 AM", 23.4),
+                transaction("1", "2/10/2016 9:12:45 PM", -3.4),
+                transaction("2", "3/10/2016 10:05:12 AM", 100),
+                transaction("3", "4/10/2016 11:00:00 AM", 7)));
+        CloseableIterator<CustomerBalance> balances = cursor(Lists.newArrayList(
+                CustomerBalance.builder().customer("1").balance(2000).build(),
+                CustomerBalance.builder().customer("3").balance(700).build()));
+
+        when(transactionRepository.streamByDateOrderByCustomer(any(Date.class), any(Date.class))).thenReturn(transactions);
+        when(customerBalanceRepository.streamBalances()).thenReturn(balances);
+        when(transactionRepository.findBalanceByCustomerId("2")).thenReturn(new BigDecimal("100.00"));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // when
+        long exported = transactionSummaryExporter.export(10, outputStream);
+
+        // then
+        String[] lines = new String(outputStream.toByteArray(), StandardCharsets.UTF_8).split("\n");
+
+        assertEquals(3, exported);
+        assertEquals(3, lines.length);
+
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals("1", first.get("customerId").asText());
+        assertEquals("10", first.get("month").asText());
+        assertEquals(20.0, first.get("currentBalance").asDouble(), 0);
+        assertEquals(2, first.get("transactions").size());
+        assertEquals(-3.4, first.get("transactions").get(0).get("amount").asDouble(), 0);
+        assertEquals(ClassificationEnum.MORNING_PERSON.name(), first.get("classification").get(0).asText());
+
+        assertEquals(100.0, objectMapper.readTree(lines[1]).get("currentBalance").asDouble(), 0);
+        assertEquals(7.0, objectMapper.readTree(lines[2]).get("currentBalance").asDouble(), 0);
+
+        verify(transactionRepository, times(1)).findBalanceByCustomerId("2");
+        verify(transactions, times(1)).close();
+        verify(balances, times(1)).close();
+    }
+
+    private Transaction transaction(String customer, String date, double amount) {
+        return Transaction
+                .builder()
+                .customer(customer)
+                .date(toDate(date))
+                .amount(BigDecimal.valueOf(amount))
+                .description("transaction description")
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CloseableIterator<T> cursor(List<T> elements) {
+        Iterator<T> iterator = elements.iterator();
+        CloseableIterator<T> cursor = mock(CloseableIterator.class);
+        when(cursor.hasNext()).thenAnswer(invocation -> iterator.hasNext());
+        when(cursor.next()).thenAnswer(invocation -> iterator.next());
+        return cursor;
+    }
+}
@@ -0,0 +1,140 @@
+package com.ing.direct.transaction.importer;
+
+import com.google.common.base.Joiner;
+import com.ing.direct.transaction.exception.InvalidParameterException;
+import com.ing.direct.transaction.model.Transaction;
+import com.ing.direct.transaction.repository.BulkWriteReport;
+import com.ing.direct.transaction.repository.TransactionRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mock;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import static com.ing.direct.common.utils.ClassUtils.toDate;
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class TransactionImporterTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    private TransactionImporter transactionImporter;
+
+    @Before
+    public void setUp() throws Exception {
+        initMocks(this);
+
+        when(transactionRepository.bulkSaveOrUpdate(anyListOf(Transaction.class))).thenAnswer(invocation -> {
+            BulkWriteReport report = new BulkWriteReport();
+            report.setInserted(((List<?>) invocation.getArguments()[0]).size());
+            return report;
+        });
+
+        transactionImporter = new TransactionImporter(transactionRepository, new DefaultResourceLoader(),
+                temporaryFolder.getRoot().getPath(), 2, 2, 1);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        transactionImporter.shutdown();
+    }
+
+    @Test
+    public void shouldImportTransactionsInChunks() throws Exception {
+        // given
+        File file = temporaryFolder.newFile("transactions.csv");
+        Files.write(file.toPath(), Joiner.on('\n').join(
+                "CustomerId,Date,Amount,Description",
+                "1,1/10/2016 2:51:23 AM,23.4,first transaction description",
+                "1,2/10/2016 9:12:45 PM,-3.4,second transaction description",
+                "2,3/10/2016 10:05:12 AM,100,third transaction description",
+                "2,31/02/2016 25:00:00 AM,100,invalid transaction description").getBytes(StandardCharsets.UTF_8));
+
+        // when
+        ImportProgress progress = transactionImporter.importTransactions(file.toURI().toString());
+
+        // then
+        assertEquals(ImportProgress.State.COMPLETED, progress.getState());
+        assertEquals(5, progress.getRowsRead());
+        assertEquals(2, progress.getRowsRejected());
+        assertEquals(3, progress.getInserted());
+        assertEquals(progress, transactionImporter.getLastImport().get());
+        verify(transactionRepository, times(2)).bulkSaveOrUpdate(anyListOf(Transaction.class));
+    }
+
+    @Test(expected = InvalidParameterException.class)
+    public void shouldNotImportMissingResource() throws Exception {
+        transactionImporter.importTransactions("classpath:missing.csv");
+    }
+
+    @Test
+    public void shouldStartImportingFileOfImportDirectory() throws Exception {
+        // given
+        File file = temporaryFolder.newFile("started.csv");
+        Files.write(file.toPath(), "1,1/10/2016 2:51:23 AM,23.4,first transaction description"
+                .getBytes(StandardCharsets.UTF_8));
+
+        // when
+        ImportProgress progress = transactionImporter.startImport("started.csv");
+        while (progress.getState() == ImportProgress.State.RUNNING) {
+            Thread.sleep(10);
+        }
+
+        // then
+        assertEquals(ImportProgress.State.COMPLETED, progress.getState());
+        assertEquals(1, progress.getInserted());
+    }
+
+    @Test
+    public void shouldNotStartImportingOutsideImportDirectory() throws Exception {
+        // given
+        File outside = File.createTempFile("outside", ".csv");
+        outside.deleteOnExit();
+        String[] locations = {
+                "classpath:data.txt",
+                "http://localhost/transactions.csv",
+                outside.toURI().toString(),
+                outside.getPath(),
+                "../" + outside.getName(),
+                "missing.csv"
+        };
+
+        for (String location : locations) {
+            try {
+                // when
+                transactionImporter.startImport(location);
+                fail("import started for location " + location);
+            } catch (InvalidParameterException e) {
+                // then
+                assertTrue(e.getMessage().contains(location));
+            }
+        }
+        assertFalse(transactionImporter.getLastImport().isPresent());
+    }
+
+    @Test
+    public void shouldParseTransactionLine() throws Exception {
+        Transaction transaction = TransactionImporter.parseLine("1,1/10/2016 2:51:23 AM,23.4,description");
+
+        assertEquals("1", transaction.getCustomer());
+        assertEquals(toDate("1/10/2016 2:51:23 AM"), transaction.getDate());
+        assertEquals(new BigDecimal("23.4"), transaction.getAmount());
+        assertEquals("description", transaction.getDescription());
+        assertNull(TransactionImporter.parseLine("CustomerId,Date,Amount,Description"));
+    }
+}
@@ -0,0 +1,39 @@
+package com.ing.direct.transaction.job;
+
+import com.ing.direct.transaction.repository.TransactionRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class TransactionAmountMigrationJobTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    private TransactionAmountMigrationJob job;
+
+    @Before
+    public void setUp() throws Exception {
+        initMocks(this);
+        job = new TransactionAmountMigrationJob(transactionRepository, 100);
+    }
+
+    @Test
+    public void shouldStopMigratingOnceEveryAmountIsMigrated() throws Exception {
+        // given
+        when(transactionRepository.migrateAmounts(100)).thenReturn(250L, 0L);
+
+        // when
+        job.migrate();
+        job.migrate();
+        job.migrate();
+
+        // then
+        verify(transactionRepository, times(2)).migrateAmounts(100);
+        assertTrue(job.isCompleted());
+    }
+}
@@ -0,0 +1,47 @@
+package com.ing.direct.transaction.metrics;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+import static com.ing.direct.transaction.metrics.SummaryLatencyRecorder.Stage.CLASSIFICATION;
+import static com.ing.direct.transaction.metrics.SummaryLatencyRecorder.Stage.FETCH;
+import static org.junit.Assert.*;
+
+public class SummaryLatencyRecorderTest {
+
+    private final SummaryLatencyRecorder recorder = new SummaryLatencyRecorder();
+
+    @Test
+    public void shouldBucketCustomersBySize() throws Exception {
+        assertEquals("0-9", SummaryLatencyRecorder.getBucket(0));
+        assertEquals("0-9", SummaryLatencyRecorder.getBucket(9));
+        assertEquals("10-99", SummaryLatencyRecorder.getBucket(10));
+        assertEquals("100-999", SummaryLatencyRecorder.getBucket(999));
+        assertEquals("1000+", SummaryLatencyRecorder.getBucket(250_000));
+    }
+
+    @Test
+    public void shouldRecordStageLatenciesBySizeBucket() throws Exception {
+        // given
+        long twoMillisAgo = recorder.start() - 2_000_000;
+
+        // when
+        recorder.record(FETCH, 5, twoMillisAgo);
+        recorder.record(FETCH, 5, twoMillisAgo);
+        recorder.record(FETCH, 1500, twoMillisAgo);
+
+        // then
+        Map<String, Map<String, Map<String, Object>>> percentiles = recorder.getPercentiles();
+
+        assertEquals(1, percentiles.size());
+        assertFalse(percentiles.containsKey(CLASSIFICATION.name().toLowerCase()));
+
+        Map<String, Object> small = percentiles.get("fetch").get("0-9");
+        assertEquals(2L, small.get("count"));
+        assertTrue((Long) small.get("p50") >= 1900);
+        assertTrue((Long) small.get("p999") >= (Long) small.get("p50"));
+        assertEquals(1L, percentiles.get("fetch").get("1000+").get("count"));
+        assertNull(percentiles.get("fetch").get("10-99"));
+    }
+}
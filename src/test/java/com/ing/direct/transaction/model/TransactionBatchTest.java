@@ -0,0 +1,132 @@
+package com.ing.direct.transaction.model;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TransactionBatchTest {
+
+    private static final ZoneId AMSTERDAM = ZoneId.of("Europe/Amsterdam");
+
+    @Test
+    public void shouldSortTransactionsByAscendingDate() throws Exception {
+        // when
+        TransactionBatch batch = TransactionBatch.of(Arrays.asList(
+                transaction("2016-10-02T10:00:00Z", "12.5"),
+                transaction("2016-10-01T10:00:00Z", "-3.4"),
+                transaction("2016-10-03T10:00:00Z", "0.015")), ZoneOffset.UTC);
+
+        // then
+        assertEquals(3, batch.size());
+        assertEquals(-340, batch.getAmount(0));
+        assertEquals(1250, batch.getAmount(1));
+        assertEquals(2, batch.getAmount(2));
+        assertEquals(Instant.parse("2016-10-01T10:00:00Z").toEpochMilli(), batch.getTimestamp(0));
+        assertEquals(Instant.parse("2016-10-03T10:00:00Z").toEpochMilli(), batch.getTimestamp(2));
+        assertEquals(912, batch.getTotalAmount());
+    }
+
+    @Test
+    public void shouldReverseTransactionsInDescendingDateOrder() throws Exception {
+        // when
+        TransactionBatch batch = TransactionBatch.of(Arrays.asList(
+                transaction("2016-10-03T10:00:00Z", "3"),
+                transaction("2016-10-02T10:00:00Z", "2"),
+                transaction("2016-10-01T10:00:00Z", "1")), ZoneOffset.UTC);
+
+        // then
+        assertEquals(100, batch.getAmount(0));
+        assertEquals(200, batch.getAmount(1));
+        assertEquals(300, batch.getAmount(2));
+    }
+
+    @Test
+    public void shouldComputeTimeOfDayAtDayBoundaries() throws Exception {
+        // when
+        TransactionBatch batch = TransactionBatch.of(Arrays.asList(
+                transaction("2016-10-01T00:00:00Z", "1"),
+                transaction("2016-10-01T12:00:00Z", "1"),
+                transaction("2016-10-01T23:59:59.999Z", "1")), ZoneOffset.UTC);
+
+        // then
+        assertEquals(0, batch.getTimeOfDay(0));
+        assertEquals(12 * 60 * 60 * 1000, batch.getTimeOfDay(1));
+        assertEquals(24 * 60 * 60 * 1000 - 1, batch.getTimeOfDay(2));
+    }
+
+    @Test
+    public void shouldComputeLocalTimeOfDayAcrossDaylightSavingTransitions() throws Exception {
+        // when
+        TransactionBatch batch = TransactionBatch.of(Arrays.asList(
+                // 01:30 CET and 03:30 CEST, around the 2016 spring forward
+                transaction("2016-03-27T00:30:00Z", "1"),
+                transaction("2016-03-27T01:30:00Z", "1"),
+                // 02:30 CEST then 02:30 CET, around the 2016 fall back
+                transaction("2016-10-30T00:30:00Z", "1"),
+                transaction("2016-10-30T01:30:00Z", "1"),
+                // 23:30 CET, on the last day of the year
+                transaction("2016-12-31T22:30:00Z", "1")), AMSTERDAM);
+
+        // then
+        assertEquals(hours(1.5), batch.getTimeOfDay(0));
+        assertEquals(hours(3.5), batch.getTimeOfDay(1));
+        assertEquals(hours(2.5), batch.getTimeOfDay(2));
+        assertEquals(hours(2.5), batch.getTimeOfDay(3));
+        assertEquals(hours(23.5), batch.getTimeOfDay(4));
+    }
+
+    @Test
+    public void shouldBuildEmptyBatches() throws Exception {
+        TransactionBatch fromTransactions = TransactionBatch.of(Collections.emptyList());
+        TransactionBatch fromColumns = TransactionBatch.of(new long[4], new long[4], 0, ZoneOffset.UTC);
+
+        assertTrue(fromTransactions.isEmpty());
+        assertEquals(0, fromTransactions.getTotalAmount());
+        assertTrue(fromColumns.isEmpty());
+        assertEquals(0, fromColumns.getTotalAmount());
+    }
+
+    @Test
+    public void shouldBuildBatchFromFirstColumnValues() throws Exception {
+        // given
+        long[] amounts = {2340, -350, 100, 0};
+        long[] timestamps = {1000, 1000, 2000, 0};
+
+        // when
+        TransactionBatch batch = TransactionBatch.of(amounts, timestamps, 3, AMSTERDAM);
+
+        // then
+        assertEquals(3, batch.size());
+        assertEquals(2090, batch.getTotalAmount());
+        assertEquals(2000, batch.getTimestamp(2));
+        assertEquals(hours(1) + 2000, batch.getTimeOfDay(2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectColumnsNotSortedByDate() throws Exception {
+        TransactionBatch.of(new long[]{1, 2}, new long[]{2000, 1000}, 2, ZoneOffset.UTC);
+    }
+
+    private static Transaction transaction(String instant, String amount) {
+        return Transaction
+                .builder()
+                .customer("1")
+                .date(Date.from(Instant.parse(instant)))
+                .amount(new BigDecimal(amount))
+                .description("transaction description")
+                .build();
+    }
+
+    private static int hours(double hours) {
+        return (int) (hours * 60 * 60 * 1000);
+    }
+}
@@ -0,0 +1,88 @@
+package com.ing.direct.transaction.repository;
+
+import com.ing.direct.transaction.model.TransactionBatch;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import org.bson.BasicBSONEncoder;
+import org.bson.types.ObjectId;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.time.ZoneOffset;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class TransactionBatchDecoderTest {
+
+    @Test
+    public void shouldDecodeDateAndAmountIntoColumns() throws Exception {
+        // given
+        TransactionBatchDecoder decoder = new TransactionBatchDecoder();
+
+        // when
+        DBObject first = decoder.decode(encode(new BasicDBObject("_id", new ObjectId())
+                .append("date", new Date(1000))
+                .append("amount", 2340L)), null);
+        DBObject second = decoder.decode(new ByteArrayInputStream(encode(new BasicDBObject("date", new Date(2000))
+                .append("amount", "-3.4"))), null);
+        TransactionBatch batch = decoder.toBatch(ZoneOffset.UTC);
+
+        // then
+        assertSame(TransactionBatchDecoder.DECODED, first);
+        assertSame(TransactionBatchDecoder.DECODED, second);
+        assertEquals(2, batch.size());
+        assertEquals(2340, batch.getAmount(0));
+        assertEquals(1000, batch.getTimestamp(0));
+        assertEquals(-340, batch.getAmount(1));
+        assertEquals(2000, batch.getTimestamp(1));
+    }
+
+    @Test
+    public void shouldFallBackToDefaultDecoderOnUnexpectedFields() throws Exception {
+        // given
+        TransactionBatchDecoder decoder = new TransactionBatchDecoder();
+
+        // when
+        DBObject error = decoder.decode(encode(new BasicDBObject("$err", "query failure").append("code", 2)), null);
+        DBObject document = decoder.decode(encode(new BasicDBObject("date", new Date(1000))
+                .append("amount", 2340L)
+                .append("description", "first transaction description")), null);
+        decoder.append(document);
+
+        // then
+        assertNotSame(TransactionBatchDecoder.DECODED, error);
+        assertEquals("query failure", error.get("$err"));
+        assertEquals(2340, decoder.toBatch(ZoneOffset.UTC).getAmount(0));
+    }
+
+    @Test
+    public void shouldSkipDocumentsWithoutDateOrNumericAmount() throws Exception {
+        // given
+        TransactionBatchDecoder decoder = new TransactionBatchDecoder();
+
+        // when
+        for (DBObject document : new DBObject[]{
+                new BasicDBObject("date", null).append("amount", 2340L),
+                new BasicDBObject("date", new Date(1000)).append("amount", null),
+                new BasicDBObject("date", new Date(2000)).append("amount", "not an amount"),
+                new BasicDBObject("date", new Date(3000)).append("amount", -340L)}) {
+            DBObject decoded = decoder.decode(encode(document), null);
+            if (decoded != TransactionBatchDecoder.DECODED) {
+                decoder.append(decoded);
+            }
+        }
+        TransactionBatch batch = decoder.toBatch(ZoneOffset.UTC);
+
+        // then
+        assertEquals(1, batch.size());
+        assertEquals(-340, batch.getAmount(0));
+        assertEquals(3000, batch.getTimestamp(0));
+    }
+
+    private static byte[] encode(DBObject document) {
+        return new BasicBSONEncoder().encode(document);
+    }
+}
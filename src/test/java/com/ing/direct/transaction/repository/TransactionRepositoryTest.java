@@ -1,6 +1,14 @@
 package com.ing.direct.transaction.repository;
 
+import com.google.common.collect.Lists;
+import com.ing.direct.transaction.model.CustomerBalance;
+import com.ing.direct.transaction.model.CustomerMonthRollup;
+import com.ing.direct.transaction.exception.InvalidParameterException;
 import com.ing.direct.transaction.model.Transaction;
+import com.ing.direct.transaction.model.TransactionBatch;
+import com.ing.direct.transaction.model.TransactionPage;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCollection;
 import com.mongodb.MongoClient;
 import de.flapdoodle.embed.mongo.MongodExecutable;
 import org.junit.After;
@@ -20,9 +28,12 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
 import java.math.BigDecimal;
+import java.time.YearMonth;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
+import static com.ing.direct.common.utils.ClassUtils.CUSTOMER_MONTH_ROLLUPS_COLLECTION_NAME;
 import static com.ing.direct.common.utils.ClassUtils.toDate;
 import static org.junit.Assert.*;
 
@@ -37,6 +48,12 @@ public class TransactionRepositoryTest {
     @Autowired
     private TransactionRepository repository;
 
+    @Autowired
+    private CustomerMonthRollupRepository customerMonthRollupRepository;
+
+    @Autowired
+    private CustomerBalanceRepository customerBalanceRepository;
+
     @Autowired
     private MongodExecutable mongodExec;
 
@@ -74,6 +91,8 @@ public class TransactionRepositoryTest {
     @After
     public void tearDown() throws Exception {
         mongoTemplate.dropCollection(Transaction.class);
+        mongoTemplate.dropCollection(CustomerBalance.class);
+        mongoTemplate.dropCollection(CustomerMonthRollup.class);
     }
 
     @AfterClass
@@ -134,6 +153,45 @@ public class TransactionRepositoryTest {
         assertTrue(transactions.isEmpty());
     }
 
+    @Test
+    public void shouldFindBalanceByCustomerId() throws Exception {
+        // given
+        mongoTemplate.insert(sampleTransaction);
+        mongoTemplate.insert(Transaction
+                .builder()
+                .customer("1")
+                .date(toDate("2/10/2016 9:12:45 PM"))
+                .amount(BigDecimal.valueOf(-3.4))
+                .description("second transaction description")
+                .build());
+
+        // when
+        BigDecimal balance = repository.findBalanceByCustomerId("1");
+
+        // then
+        assertEquals(new BigDecimal("20.00"), balance);
+    }
+
+    @Test
+    public void shouldComputeMissingBalancesByCustomerIds() throws Exception {
+        // given
+        DBCollection transactions = mongoTemplate.getCollection("transactions");
+        transactions.insert(new BasicDBObject("customer", "1").append("date", toDate("1/10/2016 2:51:23 AM"))
+                .append("amount", 2340L).append("description", "first transaction description"));
+        transactions.insert(new BasicDBObject("customer", "1").append("date", toDate("2/10/2016 9:12:45 PM"))
+                .append("amount", -340L).append("description", "second transaction description"));
+        transactions.insert(new BasicDBObject("customer", "2").append("date", toDate("3/10/2016 10:05:12 AM"))
+                .append("amount", 10000L).append("description", "third transaction description"));
+
+        // when
+        Map<String, BigDecimal> balances = repository.findBalancesByCustomerIds(Lists.newArrayList("1", "3"));
+
+        // then
+        assertEquals(2, balances.size());
+        assertEquals(new BigDecimal("20.00"), balances.get("1"));
+        assertEquals(0, BigDecimal.ZERO.compareTo(balances.get("3")));
+    }
+
     @Test
     public void shouldSaveOrUpdateTransaction() throws Exception {
         // given
@@ -156,6 +214,248 @@ public class TransactionRepositoryTest {
     }
 
 
+    @Test
+    public void shouldMaintainCustomerBalanceOnSaveOrUpdate() throws Exception {
+        // given
+        repository.saveOrUpdate(sampleTransaction);
+        String id = mongoTemplate.findAll(Transaction.class).get(0).getId();
+
+        // when
+        repository.saveOrUpdate(Transaction
+                .builder()
+                .id(id)
+                .customer("1")
+                .date(toDate("1/10/2016 2:51:23 AM"))
+                .amount(BigDecimal.valueOf(-10.1))
+                .description("first transaction description")
+                .build());
+        repository.saveOrUpdate(sampleTransaction);
+
+        // then
+        assertEquals(new BigDecimal("13.30"), repository.findBalanceByCustomerId("1"));
+        assertEquals(1330, mongoTemplate.findById("1", CustomerBalance.class).getBalance());
+    }
+
+    @Test
+    public void shouldCreateCustomerBalanceFromExistingTransactions() throws Exception {
+        // given
+        mongoTemplate.getCollection("transactions").insert(new BasicDBObject("customer", "1")
+                .append("date", toDate("30/09/2016 10:00:00 AM")).append("amount", 1000L)
+                .append("description", "transaction inserted before balances"));
+
+        // when
+        repository.saveOrUpdate(sampleTransaction);
+
+        // then
+        assertEquals(3340, mongoTemplate.findById("1", CustomerBalance.class).getBalance());
+        assertEquals(new BigDecimal("33.40"), repository.findBalanceByCustomerId("1"));
+    }
+
+    @Test
+    public void shouldBulkSaveOrUpdateTransactions() throws Exception {
+        // given
+        mongoTemplate.insert(sampleTransaction);
+        List<Transaction> transactions = Lists.newArrayList(
+                sampleTransaction,
+                Transaction.builder().customer("1").date(toDate("2/10/2016 9:12:45 PM"))
+                        .amount(BigDecimal.valueOf(-3.4)).description("second transaction description").build(),
+                Transaction.builder().customer("2").date(toDate("3/10/2016 10:05:12 AM"))
+                        .amount(BigDecimal.valueOf(100)).description("third transaction description").build());
+
+        // when
+        BulkWriteReport report = repository.bulkSaveOrUpdate(transactions, 2);
+
+        // then
+        List<Transaction> transactionsAfter = mongoTemplate.findAll(Transaction.class);
+
+        assertEquals(2, report.getInserted());
+        assertEquals(1, report.getUpdated());
+        assertFalse(report.hasFailures());
+        assertEquals(3, transactionsAfter.size());
+        assertEquals(3, transactionsAfter.stream().map(Transaction::getId).distinct().count());
+        assertEquals(new BigDecimal("100.00"), repository.findBalanceByCustomerId("2"));
+    }
+
+    @Test
+    public void shouldMaintainCustomerMonthRollupOnSaveOrUpdate() throws Exception {
+        // given
+        repository.saveOrUpdate(sampleTransaction);
+        String id = mongoTemplate.findAll(Transaction.class).get(0).getId();
+        repository.saveOrUpdate(Transaction
+                .builder()
+                .customer("1")
+                .date(toDate("2/10/2016 9:12:45 PM"))
+                .amount(BigDecimal.valueOf(-3.4))
+                .description("second transaction description")
+                .build());
+
+        // when
+        repository.saveOrUpdate(Transaction
+                .builder()
+                .id(id)
+                .customer("1")
+                .date(toDate("1/10/2016 2:51:23 AM"))
+                .amount(BigDecimal.valueOf(50))
+                .description("first transaction description")
+                .build());
+
+        // then
+        CustomerMonthRollup rollup = repository.findMonthRollup("1", YearMonth.of(2016, 10)).get();
+
+        assertEquals(2, rollup.getTransactions());
+        assertEquals(1, rollup.getMorningTransactions());
+        assertEquals(1, rollup.getAfternoonTransactions());
+        assertEquals(5000, rollup.getDeposits());
+        assertEquals(340, rollup.getExpenditures());
+        assertEquals(-340, rollup.getLowestAmount());
+        assertEquals(5000, rollup.getSmallestDeposit());
+        assertFalse(repository.findMonthRollup("1", YearMonth.of(2016, 11)).isPresent());
+        assertTrue(customerMonthRollupRepository.checkConsistency().isConsistent());
+    }
+
+    @Test
+    public void shouldRecomputeCustomerMonthRollupCreatedByWrite() throws Exception {
+        // given
+        mongoTemplate.getCollection("transactions").insert(new BasicDBObject("customer", "1")
+                .append("date", toDate("2/10/2016 9:12:45 PM")).append("amount", -340L)
+                .append("description", "transaction inserted before rollups"));
+
+        // when
+        repository.saveOrUpdate(sampleTransaction);
+
+        // then
+        CustomerMonthRollup rollup = repository.findMonthRollup("1", YearMonth.of(2016, 10)).get();
+
+        assertEquals(2, rollup.getTransactions());
+        assertEquals(-340, rollup.getLowestAmount());
+        assertFalse(rollup.isDirty());
+        assertTrue(customerMonthRollupRepository.checkConsistency().isConsistent());
+    }
+
+    @Test
+    public void shouldRebuildCustomerMonthRollups() throws Exception {
+        // given
+        repository.saveOrUpdate(sampleTransaction);
+        DBCollection rollups = mongoTemplate.getCollection(CUSTOMER_MONTH_ROLLUPS_COLLECTION_NAME);
+        // unversioned rollups, one being wrong and the other orphaned
+        rollups.update(new BasicDBObject("_id", "1:201610"), new BasicDBObject()
+                .append("$set", new BasicDBObject("transactions", 5L))
+                .append("$unset", new BasicDBObject("version", "")));
+        rollups.insert(new BasicDBObject("_id", "2:201610")
+                .append("customer", "2").append("month", 201610).append("transactions", 1L));
+
+        // when
+        customerMonthRollupRepository.rebuild();
+
+        // then
+        CustomerMonthRollup rollup = repository.findMonthRollup("1", YearMonth.of(2016, 10)).get();
+
+        assertEquals(1, rollup.getTransactions());
+        assertFalse(rollup.isDirty());
+        assertEquals(1L, rollups.findOne(new BasicDBObject("_id", "1:201610")).get("version"));
+        assertFalse(repository.findMonthRollup("2", YearMonth.of(2016, 10)).isPresent());
+        assertTrue(customerMonthRollupRepository.checkConsistency().isConsistent());
+    }
+
+    @Test
+    public void shouldWalkTransactionsWithKeysetPagination() throws Exception {
+        // given
+        Transaction sameDateTransaction = Transaction.builder().customer("2").date(toDate("1/10/2016 2:51:23 AM"))
+                .amount(BigDecimal.valueOf(5)).description("same date transaction description").build();
+        Transaction laterTransaction = Transaction.builder().customer("1").date(toDate("2/10/2016 9:12:45 PM"))
+                .amount(BigDecimal.valueOf(-3.4)).description("second transaction description").build();
+        repository.bulkSaveOrUpdate(Lists.newArrayList(sampleTransaction, sameDateTransaction, laterTransaction));
+
+        // when
+        TransactionPage firstPage = repository.findPage(null, 2);
+        TransactionPage secondPage = repository.findPage(firstPage.getNextPageToken(), 2);
+
+        // then
+        assertEquals(2, firstPage.getTransactions().size());
+        assertNotNull(firstPage.getNextPageToken());
+        assertEquals("second transaction description", firstPage.getTransactions().get(0).getDescription());
+        assertEquals(1, secondPage.getTransactions().size());
+        assertNull(secondPage.getNextPageToken());
+        assertEquals(3, Lists.newArrayList(firstPage.getTransactions().get(1).getId(),
+                secondPage.getTransactions().get(0).getId(),
+                firstPage.getTransactions().get(0).getId()).stream().distinct().count());
+    }
+
+    @Test(expected = InvalidParameterException.class)
+    public void shouldRejectMalformedPageToken() throws Exception {
+        repository.findPage("not a token", 2);
+    }
+
+    @Test
+    public void shouldFindProjectedBatchByCustomerIdAndDate() throws Exception {
+        // given
+        mongoTemplate.insert(sampleTransaction);
+        mongoTemplate.insert(Transaction
+                .builder()
+                .customer("1")
+                .date(toDate("1/10/2016 1:30:00 AM"))
+                .amount(new BigDecimal("-3.5"))
+                .description("second transaction description")
+                .build());
+        mongoTemplate.insert(Transaction
+                .builder()
+                .customer("2")
+                .date(toDate("1/10/2016 1:30:00 AM"))
+                .amount(BigDecimal.TEN)
+                .description("other customer transaction description")
+                .build());
+
+        // when
+        TransactionBatch batch = repository.findBatchByCustomerIdAndDate(
+                "1", toDate("1/10/2016 1:00:00 AM"), toDate("1/10/2016 3:00:00 AM"));
+
+        // then
+        assertEquals(2, batch.size());
+        assertEquals(-350, batch.getAmount(0));
+        assertEquals(toDate("1/10/2016 1:30:00 AM").getTime(), batch.getTimestamp(0));
+        assertEquals(2340, batch.getAmount(1));
+        assertEquals(1990, batch.getTotalAmount());
+    }
+
+    @Test
+    public void shouldMigrateAmountsToCents() throws Exception {
+        // given
+        mongoTemplate.insert(sampleTransaction);
+        mongoTemplate.insert(Transaction
+                .builder()
+                .customer("1")
+                .date(toDate("2/10/2016 10:00:00 AM"))
+                .amount(new BigDecimal("-3.5"))
+                .description("second transaction description")
+                .build());
+
+        // when
+        long migrated = repository.migrateAmounts(1);
+        customerBalanceRepository.rebuild();
+
+        // then
+        assertEquals(2, migrated);
+        assertEquals(0, repository.migrateAmounts(1));
+        assertEquals(2340L, mongoTemplate.getCollection("transactions")
+                .findOne(new BasicDBObject("description", "first transaction description")).get("amount"));
+        assertEquals(1990, mongoTemplate.findById("1", CustomerBalance.class).getBalance());
+    }
+
+    @Test
+    public void shouldNotDuplicateTransactionNotMigratedYetOnSaveOrUpdate() throws Exception {
+        // given
+        mongoTemplate.getCollection("transactions").insert(new BasicDBObject("customer", "1")
+                .append("date", toDate("1/10/2016 2:51:23 AM")).append("amount", "23.4")
+                .append("description", "first transaction description"));
+
+        // when
+        repository.saveOrUpdate(sampleTransaction);
+
+        // then
+        assertEquals(1, mongoTemplate.getCollection("transactions").count());
+        assertEquals(new BigDecimal("23.40"), repository.findBalanceByCustomerId("1"));
+    }
+
     @Configuration
     @EnableAutoConfiguration
     @EnableMongoRepositories(basePackages = "com.ing.direct.transaction.repository")
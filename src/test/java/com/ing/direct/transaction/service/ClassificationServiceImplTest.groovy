@@ -1,14 +1,26 @@
 package com.ing.direct.transaction.service
 
+import com.ing.direct.transaction.model.CustomerMonthRollup
 import com.ing.direct.transaction.model.Transaction
+import com.ing.direct.transaction.model.TransactionBatch
+import com.ing.direct.transaction.service.rule.*
 import spock.lang.Specification
 import spock.lang.Unroll
 
+import static com.ing.direct.common.utils.ClassUtils.toCents
 import static com.ing.direct.common.utils.ClassUtils.toDate
 
 class ClassificationServiceImplTest extends Specification {
 
-    def classificationService = new ClassificationServiceImpl()
+    def classificationService = new ClassificationServiceImpl(new ClassificationRuleRegistry([
+            new PotentialLoanRule(),
+            new AfternoonPersonRule(),
+            new BigSpenderRule(),
+            new BigTicketSpenderRule(),
+            new FastSpenderRule(),
+            new MorningPersonRule(),
+            new PotentialSaverRule()
+    ]))
 
 
     def static transaction_afternoon_person = [
@@ -98,6 +110,12 @@ class ClassificationServiceImplTest extends Specification {
                     .amount(BigDecimal.valueOf(1118.24)).description("SEM NUNC").build()
     ]
 
+    def static transaction_latespender_person = [
+            Transaction.builder().id("5").customer("22").date(toDate("1/05/2016 9:00:00 AM"))
+                    .amount(BigDecimal.valueOf(100.0)).description("INTERDUM").build(),
+            Transaction.builder().id("6").customer("22").date(toDate("9/05/2016 10:00:00 AM"))
+                    .amount(BigDecimal.valueOf(-90.0)).description("AUGUE MAGNA").build()
+    ]
 
     @Unroll
     def "should classify customer"() {
@@ -119,7 +137,53 @@ class ClassificationServiceImplTest extends Specification {
         transaction_potentialloan_person    | 5     | [ClassificationEnum.POTENTIAL_LOAN, ClassificationEnum.BIG_TICKET_SPENDER, ClassificationEnum.MORNING_PERSON,]
         transaction_fastspender_person      | 5     | [ClassificationEnum.FAST_SPENDER, ClassificationEnum.MORNING_PERSON, ClassificationEnum.POTENTIAL_SAVER]
         transaction_pootentialsaver_person  | 5     | [ClassificationEnum.POTENTIAL_SAVER, ClassificationEnum.AFTERNOON_PERSON]
+        transaction_latespender_person      | 5     | [ClassificationEnum.BIG_SPENDER, ClassificationEnum.MORNING_PERSON]
+
+
+    }
+
+    @Unroll
+    def "should classify customer from month rollup as from its transactions"() {
 
+        given: "a rollup of the transactions"
+        def batch = TransactionBatch.of(transactions)
+        def rollup = rollupOf(transactions)
+
+        when: "invoking classification service with the rollup statistics"
+        def window = ClassificationStatistics.mayBeFastSpender(rollup) ? batch : TransactionBatch.of([])
+        ClassificationEnum[] classificationEnums = classificationService.classifyCustomer(ClassificationStatistics.of(rollup, window))
+
+        then:
+        classificationEnums.sort() == classificationService.classifyCustomer(batch).sort()
+
+        where:
+        transactions << [
+                transaction_afternoon_person,
+                transaction_morning_person,
+                transaction_bigspender_person,
+                transaction_bigticketspender_person,
+                transaction_potentialloan_person,
+                transaction_fastspender_person,
+                transaction_pootentialsaver_person,
+                transaction_latespender_person
+        ]
+    }
 
+    def static rollupOf(List<Transaction> transactions) {
+        def statistics = ClassificationStatistics.of(TransactionBatch.of(transactions))
+        def amounts = transactions.collect { toCents(it.amount) }
+        def deposits = amounts.findAll { it > 0 }
+
+        CustomerMonthRollup.builder()
+                .customer("22")
+                .month(201605)
+                .transactions(transactions.size())
+                .morningTransactions(statistics.morningTransactions)
+                .afternoonTransactions(statistics.afternoonTransactions)
+                .deposits(statistics.deposits)
+                .expenditures(statistics.expenditures)
+                .lowestAmount(amounts.min())
+                .smallestDeposit(deposits ? deposits.min() : 0)
+                .build()
     }
-}
\ No newline at end of file
+}
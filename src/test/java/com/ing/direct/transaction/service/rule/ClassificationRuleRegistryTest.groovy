@@ -0,0 +1,66 @@
+package com.ing.direct.transaction.service.rule
+
+import com.ing.direct.transaction.service.ClassificationEnum
+import com.ing.direct.transaction.service.ClassificationStatistics
+import spock.lang.Specification
+
+class ClassificationRuleRegistryTest extends Specification {
+
+    def "should run rules after their dependencies"() {
+
+        given:
+        def registry = new ClassificationRuleRegistry([
+                new PotentialLoanRule(),
+                new FastSpenderRule(),
+                new BigSpenderRule(),
+                new MorningPersonRule()
+        ])
+
+        when: "compiling the classification pipeline"
+        def classifications = registry.pipeline.rules*.classification
+
+        then:
+        classifications == [ClassificationEnum.BIG_SPENDER, ClassificationEnum.FAST_SPENDER,
+                            ClassificationEnum.MORNING_PERSON, ClassificationEnum.POTENTIAL_LOAN]
+    }
+
+    def "should reject cyclic rule dependencies"() {
+
+        when: "compiling rules depending on each other"
+        new ClassificationRuleRegistry([
+                dependentRule(ClassificationEnum.BIG_SPENDER, ClassificationEnum.FAST_SPENDER),
+                dependentRule(ClassificationEnum.FAST_SPENDER, ClassificationEnum.BIG_SPENDER)
+        ])
+
+        then:
+        thrown(IllegalStateException)
+    }
+
+    def "should reject missing rule dependencies"() {
+
+        when: "compiling a rule without its dependencies"
+        new ClassificationRuleRegistry([new PotentialLoanRule()])
+
+        then:
+        thrown(IllegalStateException)
+    }
+
+    def dependentRule(ClassificationEnum classification, ClassificationEnum dependency) {
+        new ClassificationRule() {
+            @Override
+            ClassificationEnum getClassification() {
+                classification
+            }
+
+            @Override
+            Set<ClassificationEnum> getDependencies() {
+                EnumSet.of(dependency)
+            }
+
+            @Override
+            boolean matches(ClassificationStatistics statistics, Set<ClassificationEnum> classifications) {
+                false
+            }
+        }
+    }
+}